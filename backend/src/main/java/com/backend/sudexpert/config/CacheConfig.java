@@ -0,0 +1,17 @@
+package com.backend.sudexpert.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through catalog caches. Backed by Caffeine; size, TTL and stats recording are set by
+ * spring.cache.caffeine.spec, and every catalog write evicts the affected caches.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_BY_ID = "productById";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+    public static final String CATEGORIES = "categories";
+}
@@ -0,0 +1,139 @@
+package com.backend.sudexpert.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import net.ttddyy.observation.tracing.DataSourceObservationListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Wraps the Hikari pool Boot configures from spring.datasource.*: {@link MeteredDataSource} times
+ * checkouts per repository method, a datasource-proxy observes connections and statements
+ * (jdbc.connection and jdbc.query spans, unless application.tracing.jdbc.enabled=false), and
+ * {@link AdmissionControlledDataSource} (unless disabled) bounds how many callers can be in the
+ * pool at once, holding or waiting for a connection.
+ */
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceWrappers(Environment environment,
+                                                ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                DataSource target = hikari;
+                if (environment.getProperty("application.datasource.admission.enabled", Boolean.class, true)) {
+                    int permits = environment.getProperty("application.datasource.admission.permits", Integer.class, 20);
+                    if (permits <= 0) {
+                        throw new IllegalStateException("application.datasource.admission.permits must be positive");
+                    }
+                    Duration timeout = environment.getProperty("application.datasource.admission.timeout",
+                            Duration.class, Duration.ofSeconds(5));
+                    log.info("Database admission: {} permits, {} ms timeout", permits, timeout.toMillis());
+                    target = new AdmissionControlledDataSource(target, permits, timeout);
+                }
+                if (environment.getProperty("application.tracing.jdbc.enabled", Boolean.class, true)) {
+                    DataSourceObservationListener listener = new DataSourceObservationListener(
+                            () -> observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+                    target = ProxyDataSourceBuilder.create(hikari.getPoolName(), target)
+                            .listener(listener)
+                            .methodListener(listener)
+                            .build();
+                }
+                return new MeteredDataSource(target);
+            }
+        };
+    }
+
+    /**
+     * Has repository proxies record the method being invoked, so connection checkouts can be
+     * attributed to it. The interceptor goes first, ahead of the transaction interceptor that may
+     * take the connection.
+     */
+    @Bean
+    static BeanPostProcessor recordRepositoryMethods() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactory) {
+                    repositoryFactory.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxy, repository) -> proxy.addAdvice(0,
+                                    MeteredDataSource.recordRepositoryMethod(repository.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * The pool hands out connections with auto-commit already off, so Hibernate can skip the
+     * auto-commit check at transaction begin and take the connection at the first statement instead.
+     */
+    @Bean
+    HibernatePropertiesCustomizer delayConnectionAcquisition(DataSource dataSource) {
+        return properties -> {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)
+                        && !dataSource.unwrap(HikariDataSource.class).isAutoCommit()) {
+                    properties.put(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, true);
+                }
+            } catch (SQLException e) {
+                log.warn("Could not inspect the connection pool; connections are taken at transaction begin", e);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder dataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof MeteredDataSource metered) {
+                metered.bindTo(registry);
+            }
+            AdmissionControlledDataSource admission = unwrap(dataSource);
+            if (admission == null) {
+                return;
+            }
+            Gauge.builder("db.admission.in.use", admission, AdmissionControlledDataSource::getInUse)
+                    .description("Callers admitted to the pool whose connection is not yet closed")
+                    .register(registry);
+            Gauge.builder("db.admission.waiting", admission, AdmissionControlledDataSource::getWaiting)
+                    .description("Callers waiting for a database connection")
+                    .register(registry);
+            Gauge.builder("db.admission.permits", admission, AdmissionControlledDataSource::getMaxPermits)
+                    .register(registry);
+            FunctionCounter.builder("db.admission.rejected", admission, AdmissionControlledDataSource::getRejected)
+                    .description("Callers that gave up waiting for a database connection")
+                    .register(registry);
+        };
+    }
+
+    private static AdmissionControlledDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(AdmissionControlledDataSource.class)
+                    ? dataSource.unwrap(AdmissionControlledDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -1,64 +1,142 @@
 package com.backend.sudexpert.config;
 
-import com.backend.sudexpert.domain.Order;
-import com.backend.sudexpert.repository.OrderRepository;
-import lombok.RequiredArgsConstructor;
+import com.backend.sudexpert.domain.SchemaMigration;
+import com.backend.sudexpert.repository.SchemaMigrationRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Versioned data migrations, run once at startup after Hibernate has updated the schema.
+ * <p>
+ * Each migration has a version; the versions that completed are recorded in
+ * {@code schema_migration} and skipped on every later boot, so a started machine does not scan
+ * tables it already migrated. Migrations run in version order and the first failure stops the
+ * run, to be retried on the next boot. Migrations must be idempotent: two machines booting
+ * together may both run one, and only the first records it.
+ * <p>
+ * Add a migration by appending it to {@link #migrations()} with the next version number. Never
+ * renumber or remove one that has shipped.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DatabaseMigration implements CommandLineRunner {
 
-    private final OrderRepository orderRepository;
+    private static final DateTimeFormatter CODE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final SchemaMigrationRepository migrationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public DatabaseMigration(SchemaMigrationRepository migrationRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${application.migration.chunk-size:500}") int chunkSize) {
+        this.migrationRepository = migrationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    private List<Migration> migrations() {
+        return List.of(
+                new Migration(1, "Backfill missing order codes", this::backfillOrderCodes),
+                new Migration(2, "Align order_item_seq with existing order items", this::alignOrderItemSequence));
+    }
 
     @Override
-    @Transactional
     public void run(String... args) {
-        try {
-            migrateOrderCodes();
-        } catch (Exception e) {
-            log.error("Error during database migration", e);
+        Set<Integer> applied = migrationRepository.findAppliedVersions();
+        for (Migration migration : migrations()) {
+            if (applied.contains(migration.version())) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            try {
+                log.info("Running migration {}: {}", migration.version(), migration.description());
+                migration.action().run();
+            } catch (Exception e) {
+                log.error("Migration {} failed; it will be retried on the next start", migration.version(), e);
+                return;
+            }
+            markApplied(migration, System.currentTimeMillis() - start);
         }
     }
 
-    private void migrateOrderCodes() {
-        log.info("Checking for orders without order codes...");
-        
-        List<Order> ordersWithoutCode = orderRepository.findAll().stream()
-                .filter(order -> order.getOrderCode() == null || order.getOrderCode().isEmpty())
-                .toList();
-
-        if (ordersWithoutCode.isEmpty()) {
-            log.info("All orders have order codes. No migration needed.");
-            return;
+    private void markApplied(Migration migration, long durationMillis) {
+        try {
+            migrationRepository.saveAndFlush(SchemaMigration.builder()
+                    .version(migration.version())
+                    .description(migration.description())
+                    .appliedAt(LocalDateTime.now())
+                    .durationMillis(durationMillis)
+                    .build());
+            log.info("Migration {} completed in {} ms", migration.version(), durationMillis);
+        } catch (DataIntegrityViolationException e) {
+            log.info("Migration {} was recorded by another instance", migration.version());
         }
+    }
 
-        log.info("Found {} orders without order codes. Generating codes...", ordersWithoutCode.size());
+    /**
+     * Gives every order without a code one of the form ORD-yyyyMMdd-id, chunkSize orders per
+     * transaction. Each chunk is one indexed select on the null codes and one batched update,
+     * so memory and transaction length stay flat however many orders there are.
+     */
+    void backfillOrderCodes() {
+        int total = 0;
+        int migrated;
+        do {
+            migrated = transactionTemplate.execute(status -> {
+                List<Object[]> chunk = jdbcTemplate.query(
+                        "SELECT id, created_at FROM _order WHERE order_code IS NULL OR order_code = '' "
+                                + "ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> {
+                            long id = rs.getLong("id");
+                            Timestamp createdAt = rs.getTimestamp("created_at");
+                            LocalDateTime date = createdAt != null ? createdAt.toLocalDateTime() : LocalDateTime.now();
+                            return new Object[]{"ORD-" + date.format(CODE_DATE) + "-" + String.format("%04d", id), id};
+                        },
+                        chunkSize);
+                if (!chunk.isEmpty()) {
+                    jdbcTemplate.batchUpdate("UPDATE _order SET order_code = ? WHERE id = ?", chunk);
+                }
+                return chunk.size();
+            });
+            total += migrated;
+        } while (migrated == chunkSize);
+        log.info("Generated order codes for {} orders", total);
+    }
 
-        for (Order order : ordersWithoutCode) {
-            String orderCode = generateOrderCodeForMigration(order);
-            order.setOrderCode(orderCode);
-            orderRepository.save(order);
-            log.info("Generated order code {} for order ID {}", orderCode, order.getId());
+    /**
+     * order_item ids used to come from an identity column. Move the new order_item_seq past the
+     * existing rows so sequence-generated ids cannot collide with them. Never moves it backwards.
+     */
+    void alignOrderItemSequence() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
         }
-
-        log.info("Successfully migrated {} orders", ordersWithoutCode.size());
+        // Pool connections come with auto-commit off, so the setval needs a transaction to stick.
+        Long value = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT setval('order_item_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM order_item), "
+                        + "(SELECT last_value FROM order_item_seq)))",
+                Long.class));
+        log.info("order_item_seq aligned at {}", value);
     }
 
-    private String generateOrderCodeForMigration(Order order) {
-        LocalDateTime dateTime = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
-        String datePart = dateTime.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String sequencePart = String.format("%04d", order.getId());
-        
-        return "ORD-" + datePart + "-" + sequencePart;
+    private record Migration(int version, String description, Runnable action) {
     }
 }
-
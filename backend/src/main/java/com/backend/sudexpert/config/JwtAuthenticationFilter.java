@@ -1,11 +1,13 @@
 package com.backend.sudexpert.config;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,13 +19,36 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Authenticates requests carrying a JWT (cookie or bearer header). The time spent here, before
+ * the rest of the chain runs, is recorded as auth.jwt.filter by outcome: anonymous (no token),
+ * authenticated, rejected (invalid or expired token) or error (e.g. the user no longer exists).
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final Timer anonymous;
+    private final Timer authenticated;
+    private final Timer rejected;
+    private final Timer error;
+
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserDetailsService userDetailsService,
+                                   PrincipalCache principalCache,
+                                   MeterRegistry registry) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.anonymous = filterTimer(registry, "anonymous");
+        this.authenticated = filterTimer(registry, "authenticated");
+        this.rejected = filterTimer(registry, "rejected");
+        this.error = filterTimer(registry, "error");
+    }
 
     @Override
     protected void doFilterInternal(
@@ -31,27 +56,48 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
+        long start = System.nanoTime();
+        Timer outcome = error;
+        try {
+            outcome = authenticate(request);
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Timer authenticate(HttpServletRequest request) {
         String jwt = extractToken(request);
         if (jwt == null) {
-            filterChain.doFilter(request, response);
-            return;
+            return anonymous;
         }
-        final String userEmail = jwtService.extractUsername(jwt);
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        Claims claims = jwtService.validateToken(jwt).orElse(null);
+        if (claims == null || claims.getSubject() == null) {
+            return rejected;
         }
-        filterChain.doFilter(request, response);
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            final String userEmail = claims.getSubject();
+            UserDetails userDetails = principalCache.get(userEmail, claims.getIssuedAt(),
+                    () -> userDetailsService.loadUserByUsername(userEmail));
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    null,
+                    userDetails.getAuthorities()
+            );
+            authToken.setDetails(
+                    new WebAuthenticationDetailsSource().buildDetails(request)
+            );
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
+        return authenticated;
+    }
+
+    private static Timer filterTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.jwt.filter")
+                .description("JWT validation and principal lookup per request")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
     }
 
     private String extractToken(HttpServletRequest request) {
@@ -0,0 +1,43 @@
+package com.backend.sudexpert.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Replaces Boot's per-send mail sender with {@link PooledMailSender}. Connection settings still
+ * come from the spring.mail.* properties; pool limits from application.email.smtp.*.
+ */
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class MailConfig {
+
+    @Bean
+    public PooledMailSender mailSender(
+            MailProperties properties,
+            @Value("${application.email.smtp.max-sessions:3}") int maxSessions,
+            @Value("${application.email.smtp.idle-timeout:30s}") Duration idleTimeout,
+            @Value("${application.email.smtp.max-messages-per-session:100}") int maxMessagesPerSession,
+            @Value("${application.email.smtp.borrow-timeout:30s}") Duration borrowTimeout) {
+        PooledMailSender sender = new PooledMailSender(maxSessions, idleTimeout, maxMessagesPerSession, borrowTimeout);
+        sender.setHost(properties.getHost());
+        if (properties.getPort() != null) {
+            sender.setPort(properties.getPort());
+        }
+        sender.setUsername(properties.getUsername());
+        sender.setPassword(properties.getPassword());
+        sender.setProtocol(properties.getProtocol());
+        if (properties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(properties.getDefaultEncoding().name());
+        }
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(properties.getProperties());
+        sender.setJavaMailProperties(javaMailProperties);
+        return sender;
+    }
+}
@@ -0,0 +1,87 @@
+package com.backend.sudexpert.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Times every connection checkout, admission wait included, as db.connection.acquire tagged with
+ * the repository method that asked for it (repository=OrderRepository, method=findByOrderCode),
+ * the same tags Spring Data's spring.data.repository.invocations timer uses for execution time.
+ * <p>
+ * The repository method is known because every repository proxy runs
+ * {@link #recordRepositoryMethod} first (see {@link DataSourceConfig}) and Hibernate only takes a
+ * connection when a transaction runs its first statement. Checkouts outside any repository call
+ * are tagged "none". Nothing is recorded until {@link #bindTo} is called, which keeps startup free
+ * of a dependency on the registry.
+ */
+public class MeteredDataSource extends DelegatingDataSource {
+
+    static final String NONE = "none";
+
+    private static final ThreadLocal<RepositoryMethod> CURRENT = new NamedThreadLocal<>("Current repository method");
+
+    private volatile MeterRegistry registry;
+
+    public MeteredDataSource(DataSource target) {
+        super(target);
+    }
+
+    void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        MeterRegistry registry = this.registry;
+        if (registry == null) {
+            return obtainTargetDataSource().getConnection();
+        }
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        try {
+            return obtainTargetDataSource().getConnection();
+        } catch (SQLException | RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            RepositoryMethod current = CURRENT.get();
+            sample.stop(Timer.builder("db.connection.acquire")
+                    .description("Time to check out a database connection, by the repository method that needed it")
+                    .tag("repository", current != null ? current.repository() : NONE)
+                    .tag("method", current != null ? current.method() : NONE)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Remembers, for the calling thread, which method of the repository is running until it
+     * returns; a nested repository call takes over and hands back on return.
+     */
+    static MethodInterceptor recordRepositoryMethod(Class<?> repositoryInterface) {
+        String repository = repositoryInterface.getSimpleName();
+        return invocation -> {
+            RepositoryMethod outer = CURRENT.get();
+            CURRENT.set(new RepositoryMethod(repository, invocation.getMethod().getName()));
+            try {
+                return invocation.proceed();
+            } finally {
+                if (outer != null) {
+                    CURRENT.set(outer);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    private record RepositoryMethod(String repository, String method) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.backend.sudexpert.config;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Appends spans to a file as OTLP JSON, one export request per line.
+ * <p>
+ * The JSON comes from the public OtlpJsonLoggingSpanExporter, which writes each request as an
+ * INFO record on its java.util.logging logger. While this exporter is open those records go to the
+ * file instead of the application log; anything else on that logger (write failures) is logged
+ * as a warning. The logger is static, so only one instance may be open at a time. The file is
+ * closed on shutdown.
+ */
+@Slf4j
+class OtlpJsonFileSpanExporter implements SpanExporter {
+
+    private static final Logger OTLP_JSON_LOGGER = Logger.getLogger(OtlpJsonLoggingSpanExporter.class.getName());
+
+    private final SpanExporter delegate;
+    private final FileHandler handler;
+
+    OtlpJsonFileSpanExporter(Path file) throws IOException {
+        this.handler = new FileHandler(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        OTLP_JSON_LOGGER.addHandler(handler);
+        OTLP_JSON_LOGGER.setUseParentHandlers(false);
+        OTLP_JSON_LOGGER.setLevel(Level.INFO);
+        this.delegate = OtlpJsonLoggingSpanExporter.create();
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        return delegate.export(spans);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        handler.flush();
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        CompletableResultCode result = delegate.shutdown();
+        OTLP_JSON_LOGGER.removeHandler(handler);
+        OTLP_JSON_LOGGER.setUseParentHandlers(true);
+        handler.close();
+        return result;
+    }
+
+    private static final class FileHandler extends Handler {
+
+        private final Writer writer;
+
+        FileHandler(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public synchronized void publish(LogRecord record) {
+            if (record.getLevel() != Level.INFO) {
+                log.warn(record.getMessage(), record.getThrown());
+                return;
+            }
+            try {
+                writer.write(record.getMessage());
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                log.warn("Failed to write spans to the trace file", e);
+            }
+        }
+
+        @Override
+        public synchronized void flush() {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                log.warn("Failed to flush the trace file", e);
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Failed to close the trace file", e);
+            }
+        }
+    }
+}
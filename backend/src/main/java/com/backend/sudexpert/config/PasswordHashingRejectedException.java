@@ -0,0 +1,11 @@
+package com.backend.sudexpert.config;
+
+/**
+ * Thrown when the password hashing pool and its queue are full. Mapped to 429 by the auth endpoints.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException() {
+        super("Too many concurrent sign-in requests, try again shortly");
+    }
+}
@@ -0,0 +1,44 @@
+package com.backend.sudexpert.config;
+
+import com.backend.sudexpert.service.CheckoutTracing;
+import com.backend.sudexpert.service.CircuitBreaker;
+import com.backend.sudexpert.service.FakePaymentGateway;
+import com.backend.sudexpert.service.PaymentGateway;
+import com.backend.sudexpert.service.ResilientPaymentGateway;
+import com.backend.sudexpert.service.StripePaymentGateway;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * The payment gateway StripeService calls: Stripe (or the in-memory fake when
+ * application.payments.gateway=fake) wrapped in {@link ResilientPaymentGateway}.
+ */
+@Configuration
+public class PaymentGatewayConfig {
+
+    @Bean
+    public PaymentGateway paymentGateway(
+            @Value("${application.payments.gateway:stripe}") String gateway,
+            @Value("${application.payments.attempt-timeout:4s}") Duration attemptTimeout,
+            @Value("${application.payments.fake.latency:50ms}") Duration fakeLatency,
+            @Value("${application.payments.fake.status:succeeded}") String fakeStatus,
+            @Value("${application.payments.bulkhead.threads:8}") int threads,
+            @Value("${application.payments.bulkhead.queue-capacity:16}") int queueCapacity,
+            @Value("${application.payments.deadline:10s}") Duration deadline,
+            @Value("${application.payments.max-attempts:3}") int maxAttempts,
+            @Value("${application.payments.retry-backoff:200ms}") Duration retryBackoff,
+            @Value("${application.payments.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${application.payments.circuit.open-duration:30s}") Duration openDuration,
+            MeterRegistry meterRegistry,
+            CheckoutTracing tracing) {
+        PaymentGateway provider = "fake".equalsIgnoreCase(gateway)
+                ? new FakePaymentGateway(fakeLatency, fakeStatus)
+                : new StripePaymentGateway(attemptTimeout);
+        return new ResilientPaymentGateway(provider, threads, queueCapacity, deadline, maxAttempts, retryBackoff,
+                new CircuitBreaker(failureThreshold, openDuration), meterRegistry, tracing);
+    }
+}
@@ -0,0 +1,242 @@
+package com.backend.sudexpert.config;
+
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link JavaMailSenderImpl} that keeps connected, authenticated SMTP sessions between sends
+ * instead of opening (and STARTTLS-negotiating) a new connection for every message.
+ * <p>
+ * At most {@code maxSessions} sessions exist at once; a caller that finds them all busy waits up
+ * to {@code borrowTimeout}. {@link #sendAll} writes a whole batch over one session and reports
+ * each message separately. A pooled session is checked with a NOOP before reuse, one idle longer
+ * than {@code idleTimeout} is closed instead, and a session is retired after
+ * {@code maxMessagesPerSession} messages. A send that fails on a broken connection is retried
+ * once on a fresh one; a message the server refuses ({@link SendFailedException}) is not.
+ */
+@Slf4j
+public class PooledMailSender extends JavaMailSenderImpl {
+
+    private static final int MAX_SEND_ATTEMPTS = 2;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledSession> idle = new LinkedBlockingDeque<>();
+    private final Duration idleTimeout;
+    private final int maxMessagesPerSession;
+    private final Duration borrowTimeout;
+    private final AtomicLong connectionsOpened = new AtomicLong();
+
+    public PooledMailSender(int maxSessions, Duration idleTimeout, int maxMessagesPerSession, Duration borrowTimeout) {
+        this.permits = new Semaphore(maxSessions, true);
+        this.idleTimeout = idleTimeout;
+        this.maxMessagesPerSession = maxMessagesPerSession;
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    /**
+     * Outcome of one message of a batch.
+     */
+    @Value
+    public static class SendResult {
+        MimeMessage message;
+        Exception error;
+
+        public static SendResult sent(MimeMessage message) {
+            return new SendResult(message, null);
+        }
+
+        public static SendResult failed(MimeMessage message, Exception error) {
+            return new SendResult(message, error);
+        }
+
+        public boolean isSent() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Sends the messages in order over one pooled session. Never throws for a single bad message;
+     * the result at index {@code i} describes {@code messages.get(i)}.
+     *
+     * @throws MailSendException if no session became free within the borrow timeout
+     */
+    public List<SendResult> sendAll(List<? extends MimeMessage> messages) {
+        List<SendResult> results = new ArrayList<>(messages.size());
+        if (messages.isEmpty()) {
+            return results;
+        }
+        acquire();
+        PooledSession session = null;
+        MessagingException connectFailure = null;
+        try {
+            for (MimeMessage message : messages) {
+                if (connectFailure != null) {
+                    results.add(SendResult.failed(message, connectFailure));
+                    continue;
+                }
+                try {
+                    prepare(message);
+                } catch (MessagingException e) {
+                    results.add(SendResult.failed(message, e));
+                    continue;
+                }
+                for (int attempt = 1; ; attempt++) {
+                    if (session != null && session.sent >= maxMessagesPerSession) {
+                        close(session);
+                        session = null;
+                    }
+                    try {
+                        if (session == null) {
+                            session = takeOrConnect();
+                        }
+                    } catch (MessagingException e) {
+                        log.error("Cannot open SMTP session to {}: {}", getHost(), e.getMessage());
+                        connectFailure = e;
+                        results.add(SendResult.failed(message, e));
+                        break;
+                    }
+                    try {
+                        session.send(message);
+                        results.add(SendResult.sent(message));
+                        break;
+                    } catch (SendFailedException e) {
+                        results.add(SendResult.failed(message, e));
+                        break;
+                    } catch (MessagingException e) {
+                        close(session);
+                        session = null;
+                        if (attempt >= MAX_SEND_ATTEMPTS) {
+                            results.add(SendResult.failed(message, e));
+                            break;
+                        }
+                        log.debug("SMTP session broke while sending ({}), retrying on a new one", e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            if (session != null) {
+                session.lastUsed = System.nanoTime();
+                idle.offerFirst(session);
+            }
+            permits.release();
+        }
+        return results;
+    }
+
+    /**
+     * Routes every {@code send(...)} overload through the pool. Failed messages are reported the
+     * same way the parent class does, in one {@link MailSendException}.
+     */
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+        List<SendResult> results = sendAll(Arrays.asList(mimeMessages));
+        Map<Object, Exception> failed = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            SendResult result = results.get(i);
+            if (!result.isSent()) {
+                failed.put(originalMessages != null ? originalMessages[i] : mimeMessages[i], result.getError());
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new MailSendException(failed);
+        }
+    }
+
+    /**
+     * Number of SMTP connections opened since startup.
+     */
+    public long connectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    /**
+     * Closes the idle sessions. Called by Spring on context shutdown (inferred destroy method).
+     */
+    public void shutdown() {
+        PooledSession session;
+        while ((session = idle.pollFirst()) != null) {
+            close(session);
+        }
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("No SMTP session became free within " + borrowTimeout.toSeconds() + "s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP session", e);
+        }
+    }
+
+    private PooledSession takeOrConnect() throws MessagingException {
+        long now = System.nanoTime();
+        PooledSession session;
+        while ((session = idle.pollFirst()) != null) {
+            if (now - session.lastUsed < idleTimeout.toNanos() && session.transport.isConnected()) {
+                return session;
+            }
+            close(session);
+        }
+        Transport transport = connectTransport();
+        connectionsOpened.incrementAndGet();
+        log.debug("Opened SMTP session to {}:{}", getHost(), getPort());
+        return new PooledSession(transport);
+    }
+
+    private static void prepare(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId);
+        }
+    }
+
+    private static void close(PooledSession session) {
+        try {
+            session.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP session: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledSession {
+        private final Transport transport;
+        private int sent;
+        private long lastUsed;
+
+        private PooledSession(Transport transport) {
+            this.transport = transport;
+            this.lastUsed = System.nanoTime();
+        }
+
+        private void send(MimeMessage message) throws MessagingException {
+            Address[] recipients = message.getAllRecipients();
+            transport.sendMessage(message, recipients != null ? recipients : new Address[0]);
+            sent++;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.backend.sudexpert.config;
+
+import com.backend.sudexpert.domain.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.Supplier;
+
+/**
+ * Authenticated principals by email and token issue time, so JwtAuthenticationFilter does not
+ * load the user from the database on every request.
+ * <p>
+ * Entries are bounded and expire after a short TTL. {@link PrincipalCacheEvictionListener} drops a
+ * user's entries once an update or delete of that user commits.
+ * Cached principals carry no password hash. Hits and misses are published as the cache.gets
+ * meter with cache=principals, alongside the catalog caches (same tag keys, or Prometheus drops
+ * one of the two).
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private static final char KEY_SEPARATOR = '\n';
+
+    private final Cache<String, UserDetails> cache;
+
+    public PrincipalCache(
+            @Value("${application.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${application.security.principal-cache.ttl:5m}") Duration ttl,
+            MeterRegistry registry) {
+        this.cache = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(), "principals", "cache.manager", "principalCache", "name", "principals");
+    }
+
+    /**
+     * Returns the cached principal for this email and token, loading it on a miss. Loader
+     * exceptions (e.g. an unknown user) propagate and nothing is cached.
+     */
+    public UserDetails get(String email, Date issuedAt, Supplier<UserDetails> loader) {
+        String key = email + KEY_SEPARATOR + (issuedAt != null ? issuedAt.getTime() : 0L);
+        return cache.get(key, k -> withoutPassword(loader.get()));
+    }
+
+    /**
+     * Drops every cached token of the user, matched by id (so an email change is covered) or email.
+     */
+    public void evict(Long userId, String email) {
+        String emailPrefix = email + KEY_SEPARATOR;
+        cache.asMap().entrySet().removeIf(entry -> entry.getKey().startsWith(emailPrefix)
+                || (userId != null && entry.getValue() instanceof User cached && userId.equals(cached.getId())));
+        log.debug("Evicted cached principals for user {}", email);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static UserDetails withoutPassword(UserDetails userDetails) {
+        if (userDetails instanceof User user) {
+            return User.builder()
+                    .id(user.getId())
+                    .email(user.getEmail())
+                    .password("")
+                    .firstName(user.getFirstName())
+                    .lastName(user.getLastName())
+                    .role(user.getRole())
+                    .build();
+        }
+        return userDetails;
+    }
+}
@@ -0,0 +1,45 @@
+package com.backend.sudexpert.config;
+
+import com.backend.sudexpert.domain.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener on {@link User}. Hibernate instantiates it through the Spring bean factory,
+ * so the shared {@link PrincipalCache} is injected here rather than the listener being the cache.
+ * The cache is optional so JPA-only contexts (e.g. repository tests) still start.
+ * <p>
+ * The callbacks run at flush, before the change is committed; a request in between would load
+ * the old user and cache it again. So inside a transaction the entries are dropped after commit,
+ * and not at all if it rolls back.
+ */
+@RequiredArgsConstructor
+public class PrincipalCacheEvictionListener {
+
+    private final ObjectProvider<PrincipalCache> principalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        Long userId = user.getId();
+        String email = user.getEmail();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId, email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId, email);
+            }
+        });
+    }
+
+    private void evict(Long userId, String email) {
+        principalCache.ifAvailable(cache -> cache.evict(userId, email));
+    }
+}
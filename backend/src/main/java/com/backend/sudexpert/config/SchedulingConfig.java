@@ -0,0 +1,13 @@
+package com.backend.sudexpert.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs (email outbox and webhook dispatch, abandoned order sweep). Each job's
+ * interval is set in application.properties.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
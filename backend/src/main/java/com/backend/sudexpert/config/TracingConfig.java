@@ -0,0 +1,52 @@
+package com.backend.sudexpert.config;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Where finished spans go, chosen by application.tracing.exporter:
+ * <ul>
+ *   <li>{@code none} (default): spans are still created, so trace ids show up in the logs, but
+ *   not exported.</li>
+ *   <li>{@code logging}: one log line per span, for local debugging.</li>
+ *   <li>{@code otlp-file}: OTLP JSON, one export request per line, appended to
+ *   application.tracing.file. Any OTLP tool (a collector's otlpjsonfile receiver, Jaeger) can
+ *   load it later, so no collector has to be running.</li>
+ * </ul>
+ * Boot batches the spans of every SpanExporter bean. How many traces are recorded at all is set by
+ * management.tracing.sampling.probability.
+ */
+@Configuration
+@Slf4j
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "application.tracing.exporter", havingValue = "logging")
+    SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+
+    /**
+     * Boot shuts the exporter down with the tracer provider, which closes the file.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.tracing.exporter", havingValue = "otlp-file")
+    SpanExporter otlpFileSpanExporter(@Value("${application.tracing.file:traces.jsonl}") Path file)
+            throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        log.info("Exporting spans to {}", file.toAbsolutePath());
+        return new OtlpJsonFileSpanExporter(file);
+    }
+}
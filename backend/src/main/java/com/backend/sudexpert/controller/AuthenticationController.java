@@ -1,6 +1,7 @@
 package com.backend.sudexpert.controller;
 
 import com.backend.sudexpert.config.CookieConfig;
+import com.backend.sudexpert.config.PasswordHashingRejectedException;
 import com.backend.sudexpert.dto.AuthenticationRequest;
 import com.backend.sudexpert.dto.AuthenticationResponse;
 import com.backend.sudexpert.dto.AuthResponse;
@@ -9,6 +10,8 @@ import com.backend.sudexpert.service.AuthenticationService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -26,6 +29,8 @@ import jakarta.validation.Valid;
 @RequiredArgsConstructor
 public class AuthenticationController {
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     private final AuthenticationService service;
 
     @Value("${application.security.cookie.secure:false}")
@@ -36,9 +41,13 @@ public class AuthenticationController {
             @Valid @RequestBody RegisterRequest request,
             HttpServletResponse httpResponse
     ) {
-        AuthenticationResponse auth = service.register(request);
-        setAuthCookie(httpResponse, auth.getToken());
-        return ResponseEntity.ok(AuthResponse.builder().email(auth.getEmail()).build());
+        try {
+            AuthenticationResponse auth = service.register(request);
+            setAuthCookie(httpResponse, auth.getToken());
+            return ResponseEntity.ok(AuthResponse.builder().email(auth.getEmail()).build());
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests();
+        }
     }
 
     @PostMapping("/authenticate")
@@ -46,9 +55,13 @@ public class AuthenticationController {
             @Valid @RequestBody AuthenticationRequest request,
             HttpServletResponse httpResponse
     ) {
-        AuthenticationResponse auth = service.authenticate(request);
-        setAuthCookie(httpResponse, auth.getToken());
-        return ResponseEntity.ok(AuthResponse.builder().email(auth.getEmail()).build());
+        try {
+            AuthenticationResponse auth = service.authenticate(request);
+            setAuthCookie(httpResponse, auth.getToken());
+            return ResponseEntity.ok(AuthResponse.builder().email(auth.getEmail()).build());
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests();
+        }
     }
 
     @GetMapping("/me")
@@ -65,6 +78,12 @@ public class AuthenticationController {
         return ResponseEntity.ok().build();
     }
 
+    private ResponseEntity<AuthResponse> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .build();
+    }
+
     private void setAuthCookie(HttpServletResponse response, String token) {
         ResponseCookie cookie = ResponseCookie.from(CookieConfig.AUTH_COOKIE_NAME, token)
                 .httpOnly(true)
@@ -1,6 +1,7 @@
 package com.backend.sudexpert.controller;
 
 import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.dto.CategorySummary;
 import com.backend.sudexpert.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -16,7 +17,7 @@ public class CategoryController {
     private final CategoryService service;
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
+    public ResponseEntity<List<CategorySummary>> getAllCategories() {
         return ResponseEntity.ok(service.getAllCategories());
     }
 
@@ -26,7 +27,7 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<CategorySummary> getCategoryById(@PathVariable Long id) {
         return ResponseEntity.ok(service.getCategoryById(id));
     }
 }
@@ -1,16 +1,17 @@
 package com.backend.sudexpert.controller;
 
-import com.backend.sudexpert.domain.Order;
+import com.backend.sudexpert.dto.OrderHistoryResponse;
 import com.backend.sudexpert.dto.OrderRequest;
 import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.service.InsufficientStockException;
 import com.backend.sudexpert.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -20,13 +21,24 @@ public class OrderController {
     private final OrderService service;
 
     @GetMapping
-    public ResponseEntity<List<Order>> getMyOrders(Authentication authentication) {
-        return ResponseEntity.ok(service.getOrdersByUser(authentication.getName()));
+    public ResponseEntity<OrderHistoryResponse> getMyOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        try {
+            return ResponseEntity.ok(service.getOrderHistory(authentication.getName(), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
     public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest request, Authentication authentication) {
-        return ResponseEntity.ok(service.createOrder(request, authentication.getName()));
+        try {
+            return ResponseEntity.ok(service.createOrder(request, authentication.getName()));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @GetMapping("/{id}")
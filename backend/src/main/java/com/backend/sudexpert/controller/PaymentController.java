@@ -2,9 +2,13 @@ package com.backend.sudexpert.controller;
 
 import com.backend.sudexpert.dto.PaymentIntentRequest;
 import com.backend.sudexpert.dto.PaymentIntentResponse;
+import com.backend.sudexpert.service.InsufficientStockException;
+import com.backend.sudexpert.service.PaymentGatewayException;
 import com.backend.sudexpert.service.StripeService;
-import com.stripe.exception.StripeException;
+import com.backend.sudexpert.service.StripeWebhookService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -16,7 +20,10 @@ import jakarta.validation.Valid;
 @RequiredArgsConstructor
 public class PaymentController {
 
+    private static final String RETRY_AFTER_SECONDS = "5";
+
     private final StripeService stripeService;
+    private final StripeWebhookService stripeWebhookService;
 
     @PostMapping("/create-payment-intent")
     public ResponseEntity<PaymentIntentResponse> createPaymentIntent(
@@ -25,8 +32,8 @@ public class PaymentController {
         try {
             PaymentIntentResponse response = stripeService.createPaymentIntent(request, authentication.getName());
             return ResponseEntity.ok(response);
-        } catch (StripeException e) {
-            return ResponseEntity.badRequest().build();
+        } catch (PaymentGatewayException e) {
+            return e.isRetryable() ? unavailable() : ResponseEntity.badRequest().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -37,13 +44,25 @@ public class PaymentController {
             @RequestBody String payload,
             @RequestHeader(value = "Stripe-Signature", required = false) String sigHeader) {
         try {
-            stripeService.processWebhookEvent(payload, sigHeader);
+            stripeWebhookService.receive(payload, sigHeader);
             return ResponseEntity.ok("Received");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PostMapping("/webhook/events/{eventId}/replay")
+    public ResponseEntity<Void> replayWebhookEvent(@PathVariable String eventId) {
+        return stripeWebhookService.replay(eventId)
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/webhook/events/replay-failed")
+    public ResponseEntity<Integer> replayFailedWebhookEvents() {
+        return ResponseEntity.accepted().body(stripeWebhookService.replayFailed());
+    }
+
     @PostMapping("/success")
     public ResponseEntity<Void> handlePaymentSuccess(
             @RequestParam String paymentIntentId,
@@ -51,6 +70,10 @@ public class PaymentController {
         try {
             stripeService.handlePaymentSuccess(paymentIntentId, authentication.getName());
             return ResponseEntity.ok().build();
+        } catch (PaymentGatewayException e) {
+            return unavailable();
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -63,9 +86,16 @@ public class PaymentController {
         try {
             stripeService.handlePaymentFailure(paymentIntentId, authentication.getName());
             return ResponseEntity.ok().build();
+        } catch (PaymentGatewayException e) {
+            return unavailable();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
-}
 
+    private static <T> ResponseEntity<T> unavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .build();
+    }
+}
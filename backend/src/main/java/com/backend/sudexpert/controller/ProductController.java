@@ -1,23 +1,124 @@
 package com.backend.sudexpert.controller;
 
 import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.ProductSearchCriteria;
+import com.backend.sudexpert.dto.ProductSearchResponse;
+import com.backend.sudexpert.dto.ProductSummary;
+import com.backend.sudexpert.service.CatalogSnapshotService;
 import com.backend.sudexpert.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final CacheControl CATALOG_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+
     private final ProductService service;
+    private final CatalogSnapshotService catalogSnapshotService;
 
+    /**
+     * Serves the pre-serialized catalog snapshot. Spring answers a matching If-None-Match with
+     * 304 based on the ETag set here, without writing the body.
+     */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(service.getAllProducts());
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        CatalogSnapshotService.CatalogSnapshot snapshot = catalogSnapshotService.getProductsSnapshot();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CATALOG_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response
+                    .eTag(snapshot.getGzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(snapshot.getGzipJson());
+        }
+        return response
+                .eTag(snapshot.getEtag())
+                .body(snapshot.getJson());
+    }
+
+    /**
+     * Reads Accept-Encoding as a list of codings with optional q-values (RFC 9110 12.5.3). gzip
+     * is used when it, or failing that {@code *}, is listed with a q-value above zero.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            double quality = quality(parts);
+            if (coding.equals("*")) {
+                wildcard = quality;
+            } else {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            }
+        }
+        double quality = gzip != null ? gzip : wildcard != null ? wildcard : 0;
+        return quality > 0;
+    }
+
+    /**
+     * The q parameter of one coding, 1 when absent and 0 when it cannot be parsed.
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResponse> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "all") String stock,
+            @RequestParam(defaultValue = "default") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int size) {
+        try {
+            ProductSearchCriteria criteria = ProductSearchCriteria.builder()
+                    .query(q)
+                    .categoryId(categoryId)
+                    .minPrice(minPrice)
+                    .maxPrice(maxPrice)
+                    .stock(ProductSearchCriteria.StockTier.fromParam(stock))
+                    .sort(ProductSearchCriteria.Sort.fromParam(sort))
+                    .build();
+            return ResponseEntity.ok(service.searchProducts(criteria, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -26,12 +127,12 @@ public class ProductController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductSummary> getProductById(@PathVariable Long id) {
         return ResponseEntity.ok(service.getProductById(id));
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId) {
+    public ResponseEntity<List<ProductSummary>> getProductsByCategory(@PathVariable Long categoryId) {
         return ResponseEntity.ok(service.getProductsByCategory(categoryId));
     }
 }
@@ -0,0 +1,7 @@
+package com.backend.sudexpert.domain;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
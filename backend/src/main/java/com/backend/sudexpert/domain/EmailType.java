@@ -0,0 +1,7 @@
+package com.backend.sudexpert.domain;
+
+public enum EmailType {
+    ORDER_CONFIRMATION,
+    ORDER_SHIPPED,
+    ORDER_CANCELLED
+}
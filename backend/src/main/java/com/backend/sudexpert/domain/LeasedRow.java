@@ -0,0 +1,10 @@
+package com.backend.sudexpert.domain;
+
+/**
+ * A row of a table drained by LeasedQueueDispatcher (email outbox, stored webhook events).
+ */
+public interface LeasedRow {
+
+    /** Claims so far, including the one being worked on. */
+    int getAttempts();
+}
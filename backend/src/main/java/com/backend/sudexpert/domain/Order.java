@@ -15,7 +15,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "_order")
+@Table(name = "_order", indexes = {
+        @Index(name = "idx_order_user_created", columnList = "user_id, createdAt, id"),
+        @Index(name = "idx_order_payment_intent", columnList = "paymentIntentId"),
+        @Index(name = "idx_order_status_created", columnList = "status, createdAt")
+})
 public class Order {
 
     @Id
@@ -27,6 +31,7 @@ public class Order {
     private User user;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    @OrderBy("id")
     private List<OrderItem> items;
 
     private BigDecimal total;
@@ -47,6 +52,22 @@ public class Order {
     private String deliveryCountry;
     private String deliveryNotes;
 
+    /**
+     * Last Stripe payment intent for the order and its last known status, written when the
+     * intent is created, when Stripe is asked and when a webhook arrives. Lets the checkout
+     * success page confirm without a Stripe round trip.
+     */
+    private String paymentIntentId;
+    private String paymentStatus;
+    private LocalDateTime paymentStatusUpdatedAt;
+
+    /**
+     * True while the order's quantities are taken out of product stock. Set when the order is
+     * created and cleared, together with putting the stock back, when it is cancelled or expires.
+     * Null for orders placed before stock was reserved.
+     */
+    private Boolean stockReserved;
+
     private LocalDateTime createdAt;
 
     @PrePersist
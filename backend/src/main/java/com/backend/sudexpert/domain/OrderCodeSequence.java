@@ -0,0 +1,27 @@
+package com.backend.sudexpert.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-day counter backing order codes (ORD-yyyyMMdd-NNNN). One row per calendar day;
+ * allocatedUpTo is the highest sequence number handed out to any application instance.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "order_code_sequence")
+public class OrderCodeSequence {
+
+    @Id
+    @Column(length = 8)
+    private String sequenceDate;
+
+    @Column(nullable = false)
+    private Long allocatedUpTo;
+}
@@ -16,8 +16,10 @@ import java.math.BigDecimal;
 @Table(name = "order_item")
 public class OrderItem {
 
+    // Sequence-based so Hibernate can batch item inserts; IDENTITY forces one round trip per row.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
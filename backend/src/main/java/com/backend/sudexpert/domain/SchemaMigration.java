@@ -0,0 +1,33 @@
+package com.backend.sudexpert.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A data migration that has completed. DatabaseMigration skips every version recorded here, so
+ * a migration scans its table once, not on every boot.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "schema_migration")
+public class SchemaMigration {
+
+    @Id
+    private Integer version;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime appliedAt;
+
+    private Long durationMillis;
+}
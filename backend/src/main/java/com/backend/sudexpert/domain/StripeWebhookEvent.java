@@ -0,0 +1,70 @@
+package com.backend.sudexpert.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A verified Stripe webhook delivery, stored before it is acted on. The unique eventId makes a
+ * redelivered event a no-op. The type, order id and payment intent id and status are extracted on
+ * receipt and are all that processing (or a later replay) needs; the raw payload is kept for audit.
+ * <p>
+ * Processing follows the email outbox: a PENDING row is due once nextAttemptAt has passed and
+ * claiming it pushes nextAttemptAt out by a lease. Rows for the same order are processed in
+ * arrival (id) order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stripe_webhook_event", indexes = {
+        @Index(name = "idx_stripe_webhook_event_due", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_stripe_webhook_event_order", columnList = "orderId, status")
+})
+public class StripeWebhookEvent implements LeasedRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String eventId;
+
+    @Column(nullable = false)
+    private String type;
+
+    private Long orderId;
+
+    private String paymentIntentId;
+
+    private String paymentStatus;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WebhookEventStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime receivedAt;
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        receivedAt = LocalDateTime.now();
+    }
+}
@@ -1,5 +1,6 @@
 package com.backend.sudexpert.domain;
 
+import com.backend.sudexpert.config.PrincipalCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,6 +18,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(PrincipalCacheEvictionListener.class)
 @Table(name = "_user") // user is a reserved keyword in Postgres
 public class User implements UserDetails {
 
@@ -0,0 +1,7 @@
+package com.backend.sudexpert.domain;
+
+public enum WebhookEventStatus {
+    PENDING,
+    PROCESSED,
+    FAILED
+}
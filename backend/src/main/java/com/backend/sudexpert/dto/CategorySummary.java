@@ -0,0 +1,16 @@
+package com.backend.sudexpert.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable catalog view of a category, safe to cache and share between requests.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class CategorySummary {
+    Long id;
+    String name;
+}
@@ -0,0 +1,18 @@
+package com.backend.sudexpert.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryResponse {
+    private List<OrderResponse> items;
+    /** Opaque cursor for the next (older) page, or null on the last page. */
+    private String nextCursor;
+}
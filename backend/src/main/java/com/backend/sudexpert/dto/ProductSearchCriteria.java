@@ -0,0 +1,98 @@
+package com.backend.sudexpert.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Filters, sort order and keyset position for a storefront product search.
+ * afterPrice or afterName (whichever the sort orders by) and afterId identify the last row of the
+ * previous page, decoded from the cursor.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ProductSearchCriteria {
+    String query;
+    Long categoryId;
+    BigDecimal minPrice;
+    BigDecimal maxPrice;
+    @Builder.Default
+    StockTier stock = StockTier.ALL;
+    @Builder.Default
+    Sort sort = Sort.DEFAULT;
+    BigDecimal afterPrice;
+    String afterName;
+    Long afterId;
+
+    /**
+     * Applies the category, price and stock filters to an already loaded product.
+     */
+    public boolean matchesFilters(ProductSummary product) {
+        if (categoryId != null && (product.getCategory() == null || !categoryId.equals(product.getCategory().getId()))) {
+            return false;
+        }
+        if (minPrice != null && product.getPrice().compareTo(minPrice) < 0) {
+            return false;
+        }
+        if (maxPrice != null && product.getPrice().compareTo(maxPrice) > 0) {
+            return false;
+        }
+        return stock.matches(product.getStock());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Sort {
+        DEFAULT("default", "id", true),
+        NEWEST("newest", "id", false),
+        PRICE_ASC("price-asc", "price", true),
+        PRICE_DESC("price-desc", "price", false),
+        NAME_ASC("name-asc", "name", true),
+        NAME_DESC("name-desc", "name", false);
+
+        private final String param;
+        private final String attribute;
+        private final boolean ascending;
+
+        public static Sort fromParam(String param) {
+            return Arrays.stream(values())
+                    .filter(sort -> sort.param.equalsIgnoreCase(param))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown sort: " + param));
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum StockTier {
+        ALL("all"),
+        IN_STOCK("in-stock"),
+        LOW_STOCK("low-stock"),
+        OUT_OF_STOCK("out-of-stock");
+
+        /** Products with more than this many units count as in stock; 1..LOW_STOCK_LIMIT is low stock. */
+        public static final int LOW_STOCK_LIMIT = 5;
+
+        private final String param;
+
+        public boolean matches(Integer stock) {
+            return switch (this) {
+                case ALL -> true;
+                case IN_STOCK -> stock != null && stock > LOW_STOCK_LIMIT;
+                case LOW_STOCK -> stock != null && stock > 0 && stock <= LOW_STOCK_LIMIT;
+                case OUT_OF_STOCK -> stock == null || stock <= 0;
+            };
+        }
+
+        public static StockTier fromParam(String param) {
+            return Arrays.stream(values())
+                    .filter(tier -> tier.param.equalsIgnoreCase(param))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown stock filter: " + param));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.backend.sudexpert.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponse {
+    private List<ProductSummary> items;
+    private long total;
+    /** Opaque cursor for the next page, or null when this is the last page. */
+    private String nextCursor;
+}
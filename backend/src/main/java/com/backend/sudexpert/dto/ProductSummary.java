@@ -0,0 +1,32 @@
+package com.backend.sudexpert.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable catalog view of a product, safe to cache and share between requests.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class ProductSummary {
+    Long id;
+    String name;
+    String description;
+    BigDecimal price;
+    Integer stock;
+    String imageUrl;
+    CategorySummary category;
+
+    /**
+     * Flat constructor for JPQL constructor expressions, which cannot build the nested category.
+     */
+    public ProductSummary(Long id, String name, String description, BigDecimal price, Integer stock,
+                          String imageUrl, Long categoryId, String categoryName) {
+        this(id, name, description, price, stock, imageUrl,
+                categoryId != null ? new CategorySummary(categoryId, categoryName) : null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.backend.sudexpert.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * What PendingOrderSweeper needs to cancel an abandoned order: its id and the payment intent
+ * (if any) to cancel at Stripe first, plus its creation time for paging.
+ */
+@Value
+@AllArgsConstructor
+public class StalePendingOrder {
+    Long id;
+    String paymentIntentId;
+    LocalDateTime createdAt;
+}
@@ -1,7 +1,19 @@
 package com.backend.sudexpert.repository;
 
 import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.dto.CategorySummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    @Query("select new com.backend.sudexpert.dto.CategorySummary(c.id, c.name) from Category c order by c.id")
+    List<CategorySummary> findAllSummaries();
+
+    @Query("select new com.backend.sudexpert.dto.CategorySummary(c.id, c.name) from Category c where c.id = :id")
+    Optional<CategorySummary> findSummaryById(@Param("id") Long id);
 }
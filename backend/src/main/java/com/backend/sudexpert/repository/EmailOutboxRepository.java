@@ -0,0 +1,64 @@
+package com.backend.sudexpert.repository;
+
+import com.backend.sudexpert.domain.EmailOutbox;
+import com.backend.sudexpert.domain.EmailOutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long>, LeasedQueue<EmailOutbox> {
+
+    List<EmailOutbox> findByStatus(EmailOutboxStatus status);
+
+    @Override
+    Optional<EmailOutbox> findById(Long id);
+
+    @Query("select e.id from EmailOutbox e where e.status = com.backend.sudexpert.domain.EmailOutboxStatus.PENDING "
+            + "and e.nextAttemptAt <= :now order by e.nextAttemptAt, e.id")
+    @Override
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Override
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update EmailOutbox e set e.nextAttemptAt = :leaseUntil, e.attempts = e.attempts + 1 "
+            + "where e.id = :id and e.status = com.backend.sudexpert.domain.EmailOutboxStatus.PENDING "
+            + "and e.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Override
+    default int markDone(Long id, LocalDateTime doneAt) {
+        return markSent(id, doneAt);
+    }
+
+    @Override
+    default int markGivenUp(Long id, String error) {
+        return markDead(id, error);
+    }
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update EmailOutbox e set e.status = com.backend.sudexpert.domain.EmailOutboxStatus.SENT, "
+            + "e.sentAt = :sentAt, e.lastError = null where e.id = :id")
+    int markSent(@Param("id") Long id, @Param("sentAt") LocalDateTime sentAt);
+
+    @Override
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update EmailOutbox e set e.nextAttemptAt = :nextAttemptAt, e.lastError = :error where e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update EmailOutbox e set e.status = com.backend.sudexpert.domain.EmailOutboxStatus.DEAD, "
+            + "e.lastError = :error where e.id = :id")
+    int markDead(@Param("id") Long id, @Param("error") String error);
+}
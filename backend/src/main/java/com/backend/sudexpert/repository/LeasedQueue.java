@@ -0,0 +1,36 @@
+package com.backend.sudexpert.repository;
+
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The queue operations LeasedQueueDispatcher needs from a table of leased rows. The outbox and
+ * webhook event repositories implement it with their own queries, and map their status names
+ * onto markDone and markGivenUp.
+ */
+public interface LeasedQueue<T> {
+
+    /**
+     * Ids of PENDING rows whose nextAttemptAt has passed, in the order they should run. Rows that
+     * have to wait for another one are left out here rather than by the caller.
+     */
+    List<Long> findDueIds(LocalDateTime now, Limit limit);
+
+    /**
+     * Claims a due row by moving its nextAttemptAt to the end of the lease. Only one caller
+     * (thread or instance) gets 1 back for a given attempt.
+     */
+    int claim(Long id, LocalDateTime now, LocalDateTime leaseUntil);
+
+    Optional<T> findById(Long id);
+
+    int markDone(Long id, LocalDateTime doneAt);
+
+    int reschedule(Long id, LocalDateTime nextAttemptAt, String error);
+
+    /** Takes the row out of the queue after its last attempt failed, keeping it for inspection. */
+    int markGivenUp(Long id, String error);
+}
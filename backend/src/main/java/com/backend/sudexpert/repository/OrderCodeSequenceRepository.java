@@ -0,0 +1,18 @@
+package com.backend.sudexpert.repository;
+
+import com.backend.sudexpert.domain.OrderCodeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OrderCodeSequenceRepository extends JpaRepository<OrderCodeSequence, String> {
+
+    /**
+     * Atomically advances the day's counter by blockSize. The row lock taken by the update
+     * serializes concurrent reservations, so each caller gets a disjoint range.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update OrderCodeSequence s set s.allocatedUpTo = s.allocatedUpTo + :blockSize where s.sequenceDate = :sequenceDate")
+    int advance(@Param("sequenceDate") String sequenceDate, @Param("blockSize") long blockSize);
+}
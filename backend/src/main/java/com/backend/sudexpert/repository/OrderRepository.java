@@ -1,11 +1,121 @@
 package com.backend.sudexpert.repository;
 
 import com.backend.sudexpert.domain.Order;
+import com.backend.sudexpert.domain.OrderStatus;
+import com.backend.sudexpert.dto.StalePendingOrder;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    String DETAILED_SELECT = "select o from Order o join fetch o.user "
+            + "left join fetch o.items i left join fetch i.product p left join fetch p.category";
+
     List<Order> findByUserId(Long userId);
     Optional<Order> findByOrderCode(String orderCode);
+
+    /** Loads an order with its owner, items and their products in one statement. */
+    @Query(DETAILED_SELECT + " where o.id = :id")
+    Optional<Order> findDetailedById(@Param("id") Long id);
+
+    @Query(DETAILED_SELECT + " where o.orderCode = :orderCode")
+    Optional<Order> findDetailedByOrderCode(@Param("orderCode") String orderCode);
+
+    @Query(DETAILED_SELECT + " where o.id in :ids")
+    List<Order> findDetailedByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select o.id from Order o where o.user.email = :email order by o.createdAt desc, o.id desc")
+    List<Long> findHistoryIds(@Param("email") String email, Limit limit);
+
+    /** Next history page after (createdAt, id), newest first. */
+    @Query("select o.id from Order o where o.user.email = :email "
+            + "and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id)) "
+            + "order by o.createdAt desc, o.id desc")
+    List<Long> findHistoryIdsBefore(@Param("email") String email,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Limit limit);
+
+    @Query("select o from Order o join fetch o.user where o.paymentIntentId = :paymentIntentId")
+    Optional<Order> findByPaymentIntentId(@Param("paymentIntentId") String paymentIntentId);
+
+    /**
+     * Records the latest known state of an order's payment intent. A succeeded intent never
+     * changes again, so its status is not overwritten by a late, older event for the same intent.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.paymentIntentId = :paymentIntentId, o.paymentStatus = :status, "
+            + "o.paymentStatusUpdatedAt = :updatedAt where o.id = :id and (o.paymentIntentId is null "
+            + "or o.paymentIntentId <> :paymentIntentId or o.paymentStatus is null or o.paymentStatus <> 'succeeded')")
+    int updatePaymentState(@Param("id") Long id, @Param("paymentIntentId") String paymentIntentId,
+                           @Param("status") String status, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * PENDING orders placed before the cutoff, oldest first; served by the (status, createdAt)
+     * index. Orders whose payment is processing or has succeeded are left out: the payment
+     * confirmation, not the sweeper, decides what happens to them.
+     */
+    @Query("select new com.backend.sudexpert.dto.StalePendingOrder(o.id, o.paymentIntentId, o.createdAt) from Order o "
+            + "where o.status = com.backend.sudexpert.domain.OrderStatus.PENDING and o.createdAt < :cutoff "
+            + "and (o.paymentStatus is null or o.paymentStatus not in ('processing', 'succeeded')) "
+            + "order by o.createdAt, o.id")
+    List<StalePendingOrder> findStalePendingOrders(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /**
+     * The next page of {@link #findStalePendingOrders}, after the given (createdAt, id) key, so a
+     * sweep moves past orders it could not cancel.
+     */
+    @Query("select new com.backend.sudexpert.dto.StalePendingOrder(o.id, o.paymentIntentId, o.createdAt) from Order o "
+            + "where o.status = com.backend.sudexpert.domain.OrderStatus.PENDING and o.createdAt < :cutoff "
+            + "and (o.paymentStatus is null or o.paymentStatus not in ('processing', 'succeeded')) "
+            + "and (o.createdAt > :afterCreatedAt or (o.createdAt = :afterCreatedAt and o.id > :afterId)) "
+            + "order by o.createdAt, o.id")
+    List<StalePendingOrder> findStalePendingOrdersAfter(@Param("cutoff") LocalDateTime cutoff,
+                                                        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                        @Param("afterId") Long afterId,
+                                                        Limit limit);
+
+    /** Cancels the order unless it moved on from PENDING in the meantime (e.g. it was just paid). */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = com.backend.sudexpert.domain.OrderStatus.CANCELLED "
+            + "where o.id = :id and o.status = com.backend.sudexpert.domain.OrderStatus.PENDING")
+    int cancelIfPending(@Param("id") Long id);
+
+    /**
+     * Moves the order to PROCESSING if it is still in {@code from}. Returns 0 if it moved on, so a
+     * confirmation and a concurrent cancel cannot both win.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = com.backend.sudexpert.domain.OrderStatus.PROCESSING "
+            + "where o.id = :id and o.status = :from")
+    int markProcessingIf(@Param("id") Long id, @Param("from") OrderStatus from);
+
+    /**
+     * Marks the order's stock reservation released. Returns 0 if it was not held, so of two
+     * concurrent releases only one puts the stock back.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.stockReserved = false where o.id = :id and o.stockReserved = true")
+    int clearStockReservation(@Param("id") Long id);
+
+    /**
+     * Codes starting with the prefix, highest number first. Numbers are zero-padded to four
+     * digits, so a longer code has the higher number ("...-10000" after "...-9999") and codes of
+     * the same length sort as their numbers do.
+     */
+    @Query("select o.orderCode from Order o where o.orderCode like concat(:prefix, '%') "
+            + "order by length(o.orderCode) desc, o.orderCode desc")
+    List<String> findOrderCodesWithPrefixHighestFirst(@Param("prefix") String prefix, Limit limit);
 }
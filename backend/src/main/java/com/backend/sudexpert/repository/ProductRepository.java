@@ -1,9 +1,52 @@
 package com.backend.sudexpert.repository;
 
 import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.ProductSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductSearchRepository,
+        ProductStockRepository {
+
+    String SUMMARY_SELECT = "select new com.backend.sudexpert.dto.ProductSummary("
+            + "p.id, p.name, p.description, p.price, p.stock, p.imageUrl, c.id, c.name) "
+            + "from Product p left join p.category c";
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategoryId(Long categoryId);
+
+    @Query(SUMMARY_SELECT + " order by p.id")
+    List<ProductSummary> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + " where p.id = :id")
+    Optional<ProductSummary> findSummaryById(@Param("id") Long id);
+
+    @Query(SUMMARY_SELECT + " where c.id = :categoryId order by p.id")
+    List<ProductSummary> findSummariesByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query(SUMMARY_SELECT + " where p.id in :ids order by p.id")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p from Product p left join fetch p.category where p.id in :ids")
+    List<Product> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Puts an order's quantities back into stock, summing lines for the same product. Only call
+     * this once per reservation; see StockReservationService.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stock = p.stock + (select sum(i.quantity) from OrderItem i "
+            + "where i.order.id = :orderId and i.product.id = p.id) "
+            + "where p.id in (select i.product.id from OrderItem i where i.order.id = :orderId)")
+    int releaseStock(@Param("orderId") Long orderId);
+
+    @Query("select distinct i.product.id from OrderItem i where i.order.id = :orderId")
+    List<Long> findProductIdsByOrderId(@Param("orderId") Long orderId);
 }
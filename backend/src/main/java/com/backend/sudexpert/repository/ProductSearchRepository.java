@@ -0,0 +1,20 @@
+package com.backend.sudexpert.repository;
+
+import com.backend.sudexpert.dto.ProductSearchCriteria;
+import com.backend.sudexpert.dto.ProductSummary;
+
+import java.util.List;
+
+public interface ProductSearchRepository {
+
+    /**
+     * Returns at most limit products matching the criteria, in the criteria's sort order and
+     * strictly after its keyset position, selecting only the columns of {@link ProductSummary}.
+     */
+    List<ProductSummary> search(ProductSearchCriteria criteria, int limit);
+
+    /**
+     * Counts all products matching the criteria filters, ignoring the keyset position.
+     */
+    long count(ProductSearchCriteria criteria);
+}
@@ -0,0 +1,131 @@
+package com.backend.sudexpert.repository;
+
+import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.ProductSearchCriteria;
+import com.backend.sudexpert.dto.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummary> search(ProductSearchCriteria criteria, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = cb.createQuery(ProductSummary.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Category> category = product.join("category", JoinType.LEFT);
+        query.select(cb.construct(ProductSummary.class,
+                product.get("id"),
+                product.get("name"),
+                product.get("description"),
+                product.get("price"),
+                product.get("stock"),
+                product.get("imageUrl"),
+                category.get("id"),
+                category.get("name")));
+
+        List<Predicate> predicates = filters(cb, product, criteria);
+        if (criteria.getAfterId() != null) {
+            predicates.add(keyset(cb, product, criteria));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(orderBy(cb, product, criteria.getSort()));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long count(ProductSearchCriteria criteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(cb.count(product));
+        query.where(filters(cb, product, criteria).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<Predicate> filters(CriteriaBuilder cb, Root<Product> product, ProductSearchCriteria criteria) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getQuery() != null && !criteria.getQuery().isBlank()) {
+            String pattern = "%" + escapeLike(criteria.getQuery().trim().toLowerCase(Locale.ROOT)) + "%";
+            predicates.add(cb.or(
+                    cb.like(cb.lower(product.get("name")), pattern, '\\'),
+                    cb.like(cb.lower(product.get("description")), pattern, '\\')));
+        }
+        if (criteria.getCategoryId() != null) {
+            predicates.add(cb.equal(product.get("category").get("id"), criteria.getCategoryId()));
+        }
+        if (criteria.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("price"), criteria.getMinPrice()));
+        }
+        if (criteria.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.get("price"), criteria.getMaxPrice()));
+        }
+        Path<Integer> stock = product.get("stock");
+        int lowStockLimit = ProductSearchCriteria.StockTier.LOW_STOCK_LIMIT;
+        switch (criteria.getStock()) {
+            case IN_STOCK -> predicates.add(cb.greaterThan(stock, lowStockLimit));
+            case LOW_STOCK -> predicates.add(cb.between(stock, 1, lowStockLimit));
+            case OUT_OF_STOCK -> predicates.add(cb.or(cb.isNull(stock), cb.lessThanOrEqualTo(stock, 0)));
+            case ALL -> { }
+        }
+        return predicates;
+    }
+
+    /**
+     * Rows strictly after (afterPrice or afterName, afterId) in the sort order; id breaks ties so pages never
+     * overlap or skip rows with equal sort keys.
+     */
+    private Predicate keyset(CriteriaBuilder cb, Root<Product> product, ProductSearchCriteria criteria) {
+        ProductSearchCriteria.Sort sort = criteria.getSort();
+        Path<Long> id = product.get("id");
+        Long afterId = criteria.getAfterId();
+        return switch (sort.getAttribute()) {
+            case "price" -> after(cb, product.get("price"), criteria.getAfterPrice(), id, afterId, sort.isAscending());
+            case "name" -> after(cb, product.get("name"), criteria.getAfterName(), id, afterId, sort.isAscending());
+            default -> sort.isAscending() ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId);
+        };
+    }
+
+    private <T extends Comparable<? super T>> Predicate after(CriteriaBuilder cb, Path<T> key, T value,
+                                                              Path<Long> id, Long afterId, boolean ascending) {
+        if (ascending) {
+            return cb.or(cb.greaterThan(key, value), cb.and(cb.equal(key, value), cb.greaterThan(id, afterId)));
+        }
+        return cb.or(cb.lessThan(key, value), cb.and(cb.equal(key, value), cb.lessThan(id, afterId)));
+    }
+
+    private List<Order> orderBy(CriteriaBuilder cb, Root<Product> product, ProductSearchCriteria.Sort sort) {
+        Path<Object> id = product.get("id");
+        if ("id".equals(sort.getAttribute())) {
+            return List.of(sort.isAscending() ? cb.asc(id) : cb.desc(id));
+        }
+        Path<Object> key = product.get(sort.getAttribute());
+        return sort.isAscending()
+                ? List.of(cb.asc(key), cb.asc(id))
+                : List.of(cb.desc(key), cb.desc(id));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
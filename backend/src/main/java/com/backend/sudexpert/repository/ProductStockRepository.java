@@ -0,0 +1,16 @@
+package com.backend.sudexpert.repository;
+
+import java.util.Map;
+
+public interface ProductStockRepository {
+
+    /**
+     * Takes the given quantities (product id to quantity) out of stock with a single conditional
+     * UPDATE. A product is only decremented if it has at least the requested quantity; products
+     * with no stock figure (null) are not tracked and always match. Must run in a transaction.
+     *
+     * @return the number of products updated; less than {@code quantities.size()} means at least
+     * one product was short and the caller has to roll back
+     */
+    int reserveStock(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,44 @@
+package com.backend.sudexpert.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Builds {@code update Product p set p.stock = p.stock - case p.id when ... end
+     * where p.id in (...) and (p.stock is null or p.stock >= case p.id when ... end)}, so a basket
+     * costs one statement however many lines it has. Only the matching rows are locked, and a
+     * concurrent buyer of the same product waits for that row alone.
+     */
+    @Override
+    public int reserveStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+        StringBuilder quantity = new StringBuilder("case p.id");
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        for (int i = 0; i < ids.size(); i++) {
+            quantity.append(" when :id").append(i).append(" then :qty").append(i);
+        }
+        quantity.append(" end");
+
+        Query update = entityManager.createQuery("update Product p set p.stock = p.stock - " + quantity
+                + " where p.id in :ids and (p.stock is null or p.stock >= " + quantity + ")");
+        for (int i = 0; i < ids.size(); i++) {
+            update.setParameter("id" + i, ids.get(i));
+            update.setParameter("qty" + i, quantities.get(ids.get(i)));
+        }
+        update.setParameter("ids", ids);
+        entityManager.flush();
+        return update.executeUpdate();
+    }
+}
@@ -0,0 +1,13 @@
+package com.backend.sudexpert.repository;
+
+import com.backend.sudexpert.domain.SchemaMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Set;
+
+public interface SchemaMigrationRepository extends JpaRepository<SchemaMigration, Integer> {
+
+    @Query("select m.version from SchemaMigration m")
+    Set<Integer> findAppliedVersions();
+}
@@ -0,0 +1,91 @@
+package com.backend.sudexpert.repository;
+
+import com.backend.sudexpert.domain.StripeWebhookEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent, Long>,
+        LeasedQueue<StripeWebhookEvent> {
+
+    boolean existsByEventId(String eventId);
+
+    Optional<StripeWebhookEvent> findByEventId(String eventId);
+
+    @Override
+    Optional<StripeWebhookEvent> findById(Long id);
+
+    /**
+     * Due events, leaving out any whose order still has an older event waiting (or in flight), so
+     * each order sees its events in arrival order and a held-back event never takes up the limit.
+     */
+    @Query("select e.id from StripeWebhookEvent e "
+            + "where e.status = com.backend.sudexpert.domain.WebhookEventStatus.PENDING "
+            + "and e.nextAttemptAt <= :now "
+            + "and not exists (select earlier.id from StripeWebhookEvent earlier "
+            + "where earlier.orderId = e.orderId and earlier.id < e.id "
+            + "and earlier.status = com.backend.sudexpert.domain.WebhookEventStatus.PENDING) "
+            + "order by e.id")
+    @Override
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Override
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StripeWebhookEvent e set e.nextAttemptAt = :leaseUntil, e.attempts = e.attempts + 1 "
+            + "where e.id = :id and e.status = com.backend.sudexpert.domain.WebhookEventStatus.PENDING "
+            + "and e.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Override
+    default int markDone(Long id, LocalDateTime doneAt) {
+        return markProcessed(id, doneAt);
+    }
+
+    @Override
+    default int markGivenUp(Long id, String error) {
+        return markFailed(id, error);
+    }
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StripeWebhookEvent e set e.status = com.backend.sudexpert.domain.WebhookEventStatus.PROCESSED, "
+            + "e.processedAt = :processedAt, e.lastError = null where e.id = :id")
+    int markProcessed(@Param("id") Long id, @Param("processedAt") LocalDateTime processedAt);
+
+    @Override
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StripeWebhookEvent e set e.nextAttemptAt = :nextAttemptAt, e.lastError = :error where e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StripeWebhookEvent e set e.status = com.backend.sudexpert.domain.WebhookEventStatus.FAILED, "
+            + "e.lastError = :error where e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("error") String error);
+
+    /**
+     * Puts a stored event back in the queue, whatever its current state.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StripeWebhookEvent e set e.status = com.backend.sudexpert.domain.WebhookEventStatus.PENDING, "
+            + "e.attempts = 0, e.nextAttemptAt = :now, e.lastError = null where e.eventId = :eventId")
+    int replay(@Param("eventId") String eventId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StripeWebhookEvent e set e.status = com.backend.sudexpert.domain.WebhookEventStatus.PENDING, "
+            + "e.attempts = 0, e.nextAttemptAt = :now, e.lastError = null "
+            + "where e.status = com.backend.sudexpert.domain.WebhookEventStatus.FAILED")
+    int replayFailed(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,74 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.dto.ProductSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the product list serialized as JSON (plain and gzip) so the storefront listing can be
+ * served as raw bytes. A new snapshot is built only when the cached catalog list is replaced,
+ * i.e. after a catalog write or cache expiry; otherwise every request reuses the same bytes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSnapshotService {
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+
+    private volatile CatalogSnapshot current;
+
+    public CatalogSnapshot getProductsSnapshot() {
+        List<ProductSummary> products = productService.getAllProducts();
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null || snapshot.getSource() != products) {
+            snapshot = build(products);
+            current = snapshot;
+        }
+        return snapshot;
+    }
+
+    private CatalogSnapshot build(List<ProductSummary> products) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(products);
+            byte[] gzip = gzip(json);
+            String hash = DigestUtils.md5DigestAsHex(json);
+            log.debug("Built catalog snapshot {} ({} products, {} bytes, {} gzipped)",
+                    hash, products.size(), json.length, gzip.length);
+            return new CatalogSnapshot(products, json, gzip, "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog snapshot", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Value
+    public static class CatalogSnapshot {
+        List<ProductSummary> source;
+        byte[] json;
+        byte[] gzipJson;
+        String etag;
+        String gzipEtag;
+    }
+}
@@ -1,8 +1,12 @@
 package com.backend.sudexpert.service;
 
+import com.backend.sudexpert.config.CacheConfig;
 import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.dto.CategorySummary;
 import com.backend.sudexpert.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,15 +17,17 @@ public class CategoryService {
 
     private final CategoryRepository repository;
 
-    public List<Category> getAllCategories() {
-        return repository.findAll();
+    @Cacheable(CacheConfig.CATEGORIES)
+    public List<CategorySummary> getAllCategories() {
+        return repository.findAllSummaries();
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public Category createCategory(Category category) {
         return repository.save(category);
     }
 
-    public Category getCategoryById(Long id) {
-        return repository.findById(id).orElseThrow(() -> new RuntimeException("Category not found"));
+    public CategorySummary getCategoryById(Long id) {
+        return repository.findSummaryById(id).orElseThrow(() -> new RuntimeException("Category not found"));
     }
 }
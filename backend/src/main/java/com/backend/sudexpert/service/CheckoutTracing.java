@@ -0,0 +1,93 @@
+package com.backend.sudexpert.service;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Spans along the checkout path: order creation, payment provider calls, webhook events and
+ * order emails. Webhooks and emails are handled by pollers, so each starts its own trace; the
+ * order code, tagged as order.code on every span that concerns an order, is what ties a checkout
+ * request to its webhook and its email when searching traces.
+ * <p>
+ * Spans nest under whatever span is current (the HTTP request, a poller worker's span), and the
+ * JDBC statements run inside them nest in turn (see DataSourceConfig). With tracing disabled the
+ * tracer is a no-op and so is everything here.
+ */
+@Component
+public class CheckoutTracing {
+
+    static final String ORDER_CODE = "order.code";
+
+    private final Tracer tracer;
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    public CheckoutTracing(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    public <T> T inSpan(String name, Supplier<T> work) {
+        return inSpan(tracer.nextSpan().name(name).start(), work);
+    }
+
+    public void inSpan(String name, Runnable work) {
+        inSpan(name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * A span for a call to another system (Stripe, the SMTP server).
+     */
+    public <T> T inClientSpan(String name, String remoteService, Supplier<T> work) {
+        Span span = tracer.spanBuilder()
+                .name(name)
+                .kind(Span.Kind.CLIENT)
+                .remoteServiceName(remoteService)
+                .start();
+        return inSpan(span, work);
+    }
+
+    public void inClientSpan(String name, String remoteService, Runnable work) {
+        inClientSpan(name, remoteService, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Tags the innermost span opened here on this thread, if any. Not the tracer's current span:
+     * inside a transaction that is the JDBC connection's span.
+     */
+    public void tag(String key, String value) {
+        Span span = current.get();
+        if (span != null && value != null) {
+            span.tag(key, value);
+        }
+    }
+
+    public void tagOrder(String orderCode) {
+        tag(ORDER_CODE, orderCode);
+    }
+
+    private <T> T inSpan(Span span, Supplier<T> work) {
+        Span outer = current.get();
+        current.set(span);
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            return work.get();
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+            if (outer != null) {
+                current.set(outer);
+            } else {
+                current.remove();
+            }
+        }
+    }
+}
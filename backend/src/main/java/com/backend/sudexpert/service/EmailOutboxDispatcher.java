@@ -0,0 +1,75 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.EmailOutbox;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Drains the email outbox.
+ * <p>
+ * The claiming, worker pool and retry bookkeeping live in {@link LeasedQueueDispatcher}; a failed
+ * send is retried with exponential backoff and after {@code max-attempts} the row is marked DEAD
+ * and left in the table for inspection.
+ */
+@Service
+public class EmailOutboxDispatcher {
+
+    private final OrderService orderService;
+    private final EmailService emailService;
+    private final CheckoutTracing tracing;
+    private final LeasedQueueDispatcher<EmailOutbox> dispatcher;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository repository,
+                                 OrderService orderService,
+                                 EmailService emailService,
+                                 CheckoutTracing tracing,
+                                 MeterRegistry registry,
+                                 @Value("${application.email.outbox.workers:2}") int workerCount,
+                                 @Value("${application.email.outbox.queue-capacity:50}") int queueCapacity,
+                                 @Value("${application.email.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${application.email.outbox.lease:2m}") Duration lease,
+                                 @Value("${application.email.outbox.backoff-base:30s}") Duration backoffBase,
+                                 @Value("${application.email.outbox.backoff-max:1h}") Duration backoffMax) {
+        this.orderService = orderService;
+        this.emailService = emailService;
+        this.tracing = tracing;
+        this.dispatcher = new LeasedQueueDispatcher<>("email-outbox", "email.outbox", "outbox emails",
+                repository, this::handle,
+                new LeasedQueueDispatcher.Settings(workerCount, queueCapacity, maxAttempts, lease, backoffBase,
+                        backoffMax),
+                registry);
+    }
+
+    @Scheduled(fixedDelayString = "${application.email.outbox.poll-interval:2s}")
+    public void dispatchDue() {
+        dispatcher.dispatchDue();
+    }
+
+    /**
+     * Sends one claimed entry and records the outcome. Runs on a worker thread.
+     */
+    void send(Long id) {
+        dispatcher.process(id);
+    }
+
+    private void handle(EmailOutbox entry) {
+        tracing.inSpan("email.outbox.send", () -> {
+            tracing.tag("email.outbox.attempt", String.valueOf(entry.getAttempts()));
+            OrderResponse order = orderService.getOrderDetails(entry.getOrderId());
+            tracing.tagOrder(order.getOrderCode());
+            emailService.sendOrderEmail(entry.getType(), order);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+}
@@ -0,0 +1,37 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.EmailOutbox;
+import com.backend.sudexpert.domain.EmailOutboxStatus;
+import com.backend.sudexpert.domain.EmailType;
+import com.backend.sudexpert.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository repository;
+
+    /**
+     * Queues an order email. Must run inside the transaction that changes the order's status, so
+     * the email is queued if and only if that change commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(EmailType type, Long orderId) {
+        repository.save(EmailOutbox.builder()
+                .type(type)
+                .orderId(orderId)
+                .status(EmailOutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+        log.debug("Queued {} email for order {}", type, orderId);
+    }
+}
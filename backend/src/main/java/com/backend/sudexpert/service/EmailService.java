@@ -1,199 +1,202 @@
 package com.backend.sudexpert.service;
 
+import com.backend.sudexpert.config.PooledMailSender;
+import com.backend.sudexpert.config.PooledMailSender.SendResult;
+import com.backend.sudexpert.domain.EmailType;
 import com.backend.sudexpert.dto.OrderResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private static final DateTimeFormatter ORDER_DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    private static final int ESTIMATED_ROW_LENGTH = 450;
+
+    private final PooledMailSender mailSender;
+    private final EmailTemplates templates;
+    private final MeterRegistry registry;
+    private final CheckoutTracing tracing;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
 
-    public void sendOrderConfirmationEmail(OrderResponse order) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(order.getDeliveryEmail());
-            helper.setSubject("Confirmare Comandă #" + order.getOrderCode() + " - Sudexpert");
-            helper.setText(buildOrderConfirmationEmail(order), true);
+    public void sendOrderEmail(EmailType type, OrderResponse order) {
+        tracing.inClientSpan("email.send", "smtp", () -> {
+            tracing.tagOrder(order.getOrderCode());
+            tracing.tag("email.type", type.name());
+            send(type, order);
+        });
+    }
 
-            mailSender.send(message);
-            log.info("Order confirmation email sent to {} for order {}", order.getDeliveryEmail(), order.getOrderCode());
+    private void send(EmailType type, OrderResponse order) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            mailSender.send(buildOrderEmail(type, order));
+            outcome = "sent";
+            log.info("{} email sent to {} for order {}", type, order.getDeliveryEmail(), order.getOrderCode());
         } catch (MessagingException e) {
-            log.error("Failed to send order confirmation email: {}", e.getMessage());
+            log.error("Failed to send {} email: {}", type, e.getMessage());
             throw new RuntimeException("Failed to send email", e);
+        } finally {
+            record("email.send", type, outcome, start);
         }
     }
 
-    private String buildOrderConfirmationEmail(OrderResponse order) {
-        StringBuilder itemsHtml = new StringBuilder();
-        BigDecimal total = BigDecimal.ZERO;
-
-        for (OrderResponse.OrderItemResponse item : order.getItems()) {
-            BigDecimal subtotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-            total = total.add(subtotal);
-            
-            itemsHtml.append(String.format(
-                "<tr>" +
-                "  <td style='padding: 12px; border-bottom: 1px solid #e5e7eb;'>%s</td>" +
-                "  <td style='padding: 12px; border-bottom: 1px solid #e5e7eb; text-align: center;'>%d</td>" +
-                "  <td style='padding: 12px; border-bottom: 1px solid #e5e7eb; text-align: right;'>%.2f RON</td>" +
-                "  <td style='padding: 12px; border-bottom: 1px solid #e5e7eb; text-align: right; font-weight: 600;'>%.2f RON</td>" +
-                "</tr>",
-                item.getProductName(),
-                item.getQuantity(),
-                item.getPrice(),
-                subtotal
-            ));
+    /**
+     * Sends one email per order over a single pooled SMTP session. The result at index {@code i}
+     * belongs to {@code orders.get(i)}; an order whose email cannot even be built (bad address)
+     * gets a failed result with no message.
+     */
+    public List<SendResult> sendAll(EmailType type, List<OrderResponse> orders) {
+        return tracing.inClientSpan("email.send.batch", "smtp", () -> {
+            tracing.tag("email.type", type.name());
+            tracing.tag("email.count", String.valueOf(orders.size()));
+            return sendBatch(type, orders);
+        });
+    }
+
+    private List<SendResult> sendBatch(EmailType type, List<OrderResponse> orders) {
+        long start = System.nanoTime();
+        SendResult[] results = new SendResult[orders.size()];
+        List<MimeMessage> messages = new ArrayList<>(orders.size());
+        int[] positions = new int[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            try {
+                positions[messages.size()] = i;
+                messages.add(buildOrderEmail(type, orders.get(i)));
+            } catch (MessagingException e) {
+                results[i] = SendResult.failed(null, e);
+            }
+        }
+        List<SendResult> sent = mailSender.sendAll(messages);
+        int failures = 0;
+        for (int j = 0; j < sent.size(); j++) {
+            results[positions[j]] = sent.get(j);
+        }
+        for (SendResult result : results) {
+            if (!result.isSent()) {
+                failures++;
+            }
+        }
+        log.info("{} batch: {} of {} emails sent", type, orders.size() - failures, orders.size());
+        record("email.send.batch", type, failures == 0 ? "sent" : "partial", start);
+        return Arrays.asList(results);
+    }
+
+    private void record(String name, EmailType type, String outcome, long start) {
+        Timer.builder(name)
+                .tag("type", type.name())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private MimeMessage buildOrderEmail(EmailType type, OrderResponse order) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(fromEmail);
+        helper.setTo(order.getDeliveryEmail());
+        helper.setSubject(subject(type, order));
+        helper.setText(renderOrderEmail(type, order), true);
+        return message;
+    }
+
+    public String renderOrderEmail(EmailType type, OrderResponse order) {
+        EmailTemplate template = templates.orderEmail(type);
+        EmailTemplate row = templates.orderItemRow();
+        StringBuilder out = new StringBuilder(template.literalLength()
+                + order.getItems().size() * ESTIMATED_ROW_LENGTH);
+
+        Map<String, Object> values = new HashMap<>(32);
+        values.put("heading", heading(type));
+        values.put("orderCode", order.getOrderCode());
+        values.put("orderDate", order.getCreatedAt() != null ? ORDER_DATE_FORMAT.format(order.getCreatedAt()) : "");
+        putStatus(values, type);
+        values.put("total", money(order.getTotal()));
+        values.put("deliveryName", order.getDeliveryName());
+        values.put("deliveryAddress", order.getDeliveryAddress());
+        values.put("deliveryCity", order.getDeliveryCity());
+        values.put("deliveryCounty", order.getDeliveryCounty() != null ? order.getDeliveryCounty() : "");
+        values.put("deliveryPostalCode", order.getDeliveryPostalCode() != null ? order.getDeliveryPostalCode() : "");
+        values.put("deliveryCountry", order.getDeliveryCountry());
+        values.put("deliveryPhone", order.getDeliveryPhone());
+        values.put("deliveryEmail", order.getDeliveryEmail());
+        values.put("items", (EmailTemplate.Fragment) rows -> {
+            Map<String, Object> itemValues = new HashMap<>(8);
+            for (OrderResponse.OrderItemResponse item : order.getItems()) {
+                BigDecimal subtotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+                itemValues.put("productName", item.getProductName());
+                itemValues.put("quantity", item.getQuantity());
+                itemValues.put("price", money(item.getPrice()));
+                itemValues.put("subtotal", money(subtotal));
+                row.renderTo(rows, itemValues);
+            }
+        });
+
+        template.renderTo(out, values);
+        return out.toString();
+    }
+
+    private static String subject(EmailType type, OrderResponse order) {
+        return switch (type) {
+            case ORDER_CONFIRMATION -> "Confirmare Comandă #" + order.getOrderCode() + " - Sudexpert";
+            case ORDER_SHIPPED -> "Comanda #" + order.getOrderCode() + " a fost expediată - Sudexpert";
+            case ORDER_CANCELLED -> "Comanda #" + order.getOrderCode() + " a fost anulată - Sudexpert";
+        };
+    }
+
+    private static String heading(EmailType type) {
+        return switch (type) {
+            case ORDER_CONFIRMATION -> "Confirmare Comandă";
+            case ORDER_SHIPPED -> "Comandă expediată";
+            case ORDER_CANCELLED -> "Comandă anulată";
+        };
+    }
+
+    private static void putStatus(Map<String, Object> values, EmailType type) {
+        switch (type) {
+            case ORDER_CONFIRMATION -> {
+                values.put("statusLabel", "În procesare");
+                values.put("statusBackground", "#dbeafe");
+                values.put("statusColor", "#1e40af");
+            }
+            case ORDER_SHIPPED -> {
+                values.put("statusLabel", "Expediată");
+                values.put("statusBackground", "#dcfce7");
+                values.put("statusColor", "#166534");
+            }
+            case ORDER_CANCELLED -> {
+                values.put("statusLabel", "Anulată");
+                values.put("statusBackground", "#fee2e2");
+                values.put("statusColor", "#991b1b");
+            }
         }
+    }
 
-        String orderDate = order.getCreatedAt() != null 
-            ? order.getCreatedAt().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"))
-            : "";
-
-        return String.format("""
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <meta charset="UTF-8">
-                <meta name="viewport" content="width=device-width, initial-scale=1.0">
-            </head>
-            <body style="margin: 0; padding: 0; font-family: Arial, sans-serif; background-color: #f3f4f6;">
-                <table width="100%%" cellpadding="0" cellspacing="0" style="background-color: #f3f4f6; padding: 20px;">
-                    <tr>
-                        <td align="center">
-                            <table width="600" cellpadding="0" cellspacing="0" style="background-color: #ffffff; border-radius: 8px; overflow: hidden; box-shadow: 0 2px 4px rgba(0,0,0,0.1);">
-                                <!-- Header -->
-                                <tr>
-                                    <td style="background: linear-gradient(135deg, #1f2937 0%%, #111827 100%%); padding: 40px 30px; text-align: center;">
-                                        <h1 style="color: #ffffff; margin: 0; font-size: 28px; font-weight: bold;">SUDEXPERT</h1>
-                                        <p style="color: #f97316; margin: 10px 0 0 0; font-size: 16px;">Confirmare Comandă</p>
-                                    </td>
-                                </tr>
-                                
-                                <!-- Content -->
-                                <tr>
-                                    <td style="padding: 40px 30px;">
-                                        <h2 style="color: #111827; margin: 0 0 20px 0; font-size: 24px;">Mulțumim pentru comandă!</h2>
-                                        <p style="color: #4b5563; margin: 0 0 30px 0; line-height: 1.6;">
-                                            Comanda dumneavoastră a fost înregistrată cu succes și este în curs de procesare. 
-                                            Veți primi un email de confirmare când comanda va fi expediată.
-                                        </p>
-                                        
-                                        <!-- Order Details -->
-                                        <table width="100%%" cellpadding="0" cellspacing="0" style="margin-bottom: 30px;">
-                                            <tr>
-                                                <td style="padding: 15px; background-color: #f9fafb; border-radius: 6px;">
-                                                    <table width="100%%" cellpadding="0" cellspacing="0">
-                                                        <tr>
-                                                            <td style="color: #6b7280; font-size: 14px; padding-bottom: 8px;">Număr comandă:</td>
-                                                            <td style="color: #111827; font-size: 14px; font-weight: 600; text-align: right; padding-bottom: 8px;">%s</td>
-                                                        </tr>
-                                                        <tr>
-                                                            <td style="color: #6b7280; font-size: 14px; padding-bottom: 8px;">Data:</td>
-                                                            <td style="color: #111827; font-size: 14px; text-align: right; padding-bottom: 8px;">%s</td>
-                                                        </tr>
-                                                        <tr>
-                                                            <td style="color: #6b7280; font-size: 14px;">Status:</td>
-                                                            <td style="text-align: right;">
-                                                                <span style="background-color: #dbeafe; color: #1e40af; padding: 4px 12px; border-radius: 12px; font-size: 12px; font-weight: 600;">
-                                                                    În procesare
-                                                                </span>
-                                                            </td>
-                                                        </tr>
-                                                    </table>
-                                                </td>
-                                            </tr>
-                                        </table>
-                                        
-                                        <!-- Order Items -->
-                                        <h3 style="color: #111827; margin: 0 0 15px 0; font-size: 18px;">Produse comandate</h3>
-                                        <table width="100%%" cellpadding="0" cellspacing="0" style="border: 1px solid #e5e7eb; border-radius: 6px; overflow: hidden; margin-bottom: 30px;">
-                                            <thead>
-                                                <tr style="background-color: #f9fafb;">
-                                                    <th style="padding: 12px; text-align: left; color: #6b7280; font-size: 12px; font-weight: 600; text-transform: uppercase;">Produs</th>
-                                                    <th style="padding: 12px; text-align: center; color: #6b7280; font-size: 12px; font-weight: 600; text-transform: uppercase;">Cantitate</th>
-                                                    <th style="padding: 12px; text-align: right; color: #6b7280; font-size: 12px; font-weight: 600; text-transform: uppercase;">Preț</th>
-                                                    <th style="padding: 12px; text-align: right; color: #6b7280; font-size: 12px; font-weight: 600; text-transform: uppercase;">Subtotal</th>
-                                                </tr>
-                                            </thead>
-                                            <tbody>
-                                                %s
-                                                <tr>
-                                                    <td colspan="3" style="padding: 15px; text-align: right; font-weight: 600; color: #111827; font-size: 16px; border-top: 2px solid #e5e7eb;">Total:</td>
-                                                    <td style="padding: 15px; text-align: right; font-weight: 700; color: #f97316; font-size: 18px; border-top: 2px solid #e5e7eb;">%.2f RON</td>
-                                                </tr>
-                                            </tbody>
-                                        </table>
-                                        
-                                        <!-- Delivery Address -->
-                                        <h3 style="color: #111827; margin: 0 0 15px 0; font-size: 18px;">Adresă de livrare</h3>
-                                        <div style="padding: 15px; background-color: #f9fafb; border-radius: 6px; margin-bottom: 30px;">
-                                            <p style="margin: 0 0 8px 0; color: #111827; font-weight: 600;">%s</p>
-                                            <p style="margin: 0 0 5px 0; color: #4b5563;">%s</p>
-                                            <p style="margin: 0 0 5px 0; color: #4b5563;">%s, %s %s</p>
-                                            <p style="margin: 0 0 5px 0; color: #4b5563;">%s</p>
-                                            <p style="margin: 0 0 5px 0; color: #4b5563;">Tel: %s</p>
-                                            <p style="margin: 0; color: #4b5563;">Email: %s</p>
-                                        </div>
-                                        
-                                        <!-- Contact Info -->
-                                        <div style="padding: 20px; background-color: #fef3c7; border-left: 4px solid #f59e0b; border-radius: 6px;">
-                                            <p style="margin: 0 0 10px 0; color: #92400e; font-weight: 600;">Aveți întrebări?</p>
-                                            <p style="margin: 0; color: #92400e; font-size: 14px; line-height: 1.6;">
-                                                Echipa noastră este aici să vă ajute! Contactați-ne la 
-                                                <a href="mailto:contact@sudexpert.ro" style="color: #f59e0b; text-decoration: none;">contact@sudexpert.ro</a>
-                                            </p>
-                                        </div>
-                                    </td>
-                                </tr>
-                                
-                                <!-- Footer -->
-                                <tr>
-                                    <td style="background-color: #f9fafb; padding: 30px; text-align: center; border-top: 1px solid #e5e7eb;">
-                                        <p style="margin: 0 0 10px 0; color: #6b7280; font-size: 14px;">
-                                            © 2024 Sudexpert. Toate drepturile rezervate.
-                                        </p>
-                                        <p style="margin: 0; color: #9ca3af; font-size: 12px;">
-                                            Acest email a fost trimis automat. Vă rugăm să nu răspundeți la acest mesaj.
-                                        </p>
-                                    </td>
-                                </tr>
-                            </table>
-                        </td>
-                    </tr>
-                </table>
-            </body>
-            </html>
-            """,
-            order.getOrderCode(),
-            orderDate,
-            itemsHtml.toString(),
-            order.getTotal(),
-            order.getDeliveryName(),
-            order.getDeliveryAddress(),
-            order.getDeliveryCity(),
-            order.getDeliveryCounty() != null ? order.getDeliveryCounty() : "",
-            order.getDeliveryPostalCode() != null ? order.getDeliveryPostalCode() : "",
-            order.getDeliveryCountry(),
-            order.getDeliveryPhone(),
-            order.getDeliveryEmail()
-        );
+    private static String money(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).toPlainString() : "";
     }
 }
@@ -0,0 +1,137 @@
+package com.backend.sudexpert.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An HTML email template parsed once into literal and placeholder segments, so rendering is a
+ * single pass of appends into the caller's {@link StringBuilder}.
+ * <p>
+ * Syntax: {@code {{name}}} is HTML-escaped, {@code {{{name}}}} is written as-is, and
+ * {@code {{> partial}}} inlines another template's source at compile time. A value that is a
+ * {@link Fragment} is rendered straight into the output (used for repeated rows).
+ */
+public final class EmailTemplate {
+
+    /**
+     * A value that writes itself into the output instead of being converted to a string first.
+     */
+    @FunctionalInterface
+    public interface Fragment {
+        void renderTo(StringBuilder out);
+    }
+
+    private static final int MAX_INCLUDE_DEPTH = 10;
+
+    private final String[] literals;
+    private final String[] names;
+    private final boolean[] escaped;
+    private final int literalLength;
+
+    private EmailTemplate(List<String> literals, List<String> names, List<Boolean> escaped) {
+        this.literals = literals.toArray(String[]::new);
+        this.names = names.toArray(String[]::new);
+        this.escaped = new boolean[escaped.size()];
+        for (int i = 0; i < escaped.size(); i++) {
+            this.escaped[i] = escaped.get(i);
+        }
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * Parses a template, resolving {@code {{> partial}}} includes through the given lookup.
+     */
+    public static EmailTemplate compile(String source, Function<String, String> partials) {
+        String expanded = expandIncludes(source, partials, 0);
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Boolean> escaped = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = expanded.indexOf("{{", position);
+            if (open < 0) {
+                literals.add(expanded.substring(position));
+                return new EmailTemplate(literals, names, escaped);
+            }
+            boolean raw = expanded.startsWith("{{{", open);
+            String closing = raw ? "}}}" : "}}";
+            int nameStart = open + (raw ? 3 : 2);
+            int close = expanded.indexOf(closing, nameStart);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            literals.add(expanded.substring(position, open));
+            names.add(expanded.substring(nameStart, close).trim());
+            escaped.add(!raw);
+            position = close + closing.length();
+        }
+    }
+
+    /**
+     * Upper bound of the static text, for sizing the output buffer.
+     */
+    public int literalLength() {
+        return literalLength;
+    }
+
+    public void renderTo(StringBuilder out, Map<String, ?> values) {
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            Object value = values.get(names[i]);
+            if (value instanceof Fragment fragment) {
+                fragment.renderTo(out);
+            } else if (value != null) {
+                if (escaped[i]) {
+                    appendEscaped(out, value.toString());
+                } else {
+                    out.append(value);
+                }
+            }
+        }
+        out.append(literals[names.length]);
+    }
+
+    static void appendEscaped(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static String expandIncludes(String source, Function<String, String> partials, int depth) {
+        if (depth > MAX_INCLUDE_DEPTH) {
+            throw new IllegalArgumentException("Template includes nested too deeply");
+        }
+        StringBuilder out = new StringBuilder(source.length());
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{>", position);
+            if (open < 0) {
+                return out.append(source, position, source.length()).toString();
+            }
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed include at offset " + open);
+            }
+            String name = source.substring(open + 3, close).trim();
+            String partial = partials.apply(name);
+            if (partial == null) {
+                throw new IllegalArgumentException("Unknown template include: " + name);
+            }
+            if (partial.endsWith("\n")) {
+                partial = partial.substring(0, partial.length() - 1);
+            }
+            out.append(source, position, open).append(expandIncludes(partial, partials, depth + 1));
+            position = close + 2;
+        }
+    }
+}
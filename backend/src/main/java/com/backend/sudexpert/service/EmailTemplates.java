@@ -0,0 +1,58 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.EmailType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Email templates from {@code classpath:email-templates/}, compiled once at startup so a missing
+ * file or a syntax error fails the boot rather than the first send. Line indentation in the files
+ * is only for editing and is stripped before compiling, so it is never copied into an email.
+ */
+@Component
+@Slf4j
+public class EmailTemplates {
+
+    private static final String LOCATION = "email-templates/";
+    private static final Pattern INDENTATION = Pattern.compile("(?m)^[ \\t]+");
+
+    private final Map<EmailType, EmailTemplate> orderEmails = new EnumMap<>(EmailType.class);
+    private final EmailTemplate orderItemRow;
+
+    public EmailTemplates() {
+        orderEmails.put(EmailType.ORDER_CONFIRMATION, compile("order-confirmation"));
+        orderEmails.put(EmailType.ORDER_SHIPPED, compile("order-shipped"));
+        orderEmails.put(EmailType.ORDER_CANCELLED, compile("order-cancelled"));
+        orderItemRow = compile("order-item-row");
+        log.info("Compiled {} email templates", orderEmails.size() + 1);
+    }
+
+    public EmailTemplate orderEmail(EmailType type) {
+        return orderEmails.get(type);
+    }
+
+    public EmailTemplate orderItemRow() {
+        return orderItemRow;
+    }
+
+    private static EmailTemplate compile(String name) {
+        return EmailTemplate.compile(read(name), EmailTemplates::read);
+    }
+
+    private static String read(String name) {
+        try (InputStream in = new ClassPathResource(LOCATION + name + ".html").getInputStream()) {
+            return INDENTATION.matcher(new String(in.readAllBytes(), StandardCharsets.UTF_8)).replaceAll("");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read email template " + name, e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.backend.sudexpert.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for Stripe, for load tests and local runs without network access
+ * (application.payments.gateway=fake). Each call sleeps for {@code latency} to imitate the
+ * provider round trip, and every intent it created reports {@code status} when retrieved, unless
+ * it was cancelled.
+ * Idempotency keys behave like Stripe's: a repeated key returns the original intent.
+ */
+public class FakePaymentGateway implements PaymentGateway {
+
+    private static final String CANCELED = "canceled";
+    private static final Set<String> UNCANCELABLE = Set.of("processing", "succeeded");
+
+    private final Duration latency;
+    private final String status;
+    private final Map<String, PaymentIntentDetails> intents = new ConcurrentHashMap<>();
+    private final Map<String, PaymentIntentDetails> byIdempotencyKey = new ConcurrentHashMap<>();
+
+    public FakePaymentGateway(Duration latency, String status) {
+        this.latency = latency;
+        this.status = status;
+    }
+
+    @Override
+    public PaymentIntentDetails createPaymentIntent(long amountInCents, String currency, Long orderId,
+                                                    String idempotencyKey) {
+        pause();
+        return byIdempotencyKey.computeIfAbsent(idempotencyKey, key -> {
+            String id = "pi_fake_" + UUID.randomUUID().toString().replace("-", "");
+            PaymentIntentDetails intent = new PaymentIntentDetails(id, id + "_secret_fake",
+                    "requires_payment_method", orderId.toString());
+            intents.put(id, intent);
+            return intent;
+        });
+    }
+
+    @Override
+    public PaymentIntentDetails retrievePaymentIntent(String paymentIntentId) {
+        pause();
+        PaymentIntentDetails intent = intent(paymentIntentId);
+        if (CANCELED.equals(intent.getStatus())) {
+            return intent;
+        }
+        return new PaymentIntentDetails(intent.getId(), intent.getClientSecret(), status, intent.getOrderId());
+    }
+
+    @Override
+    public PaymentIntentDetails cancelPaymentIntent(String paymentIntentId) {
+        pause();
+        PaymentIntentDetails intent = intent(paymentIntentId);
+        if (CANCELED.equals(intent.getStatus()) || UNCANCELABLE.contains(status)) {
+            throw new PaymentGatewayException("Payment intent " + paymentIntentId + " cannot be cancelled", false, null);
+        }
+        PaymentIntentDetails cancelled = new PaymentIntentDetails(intent.getId(), intent.getClientSecret(), CANCELED,
+                intent.getOrderId());
+        intents.put(paymentIntentId, cancelled);
+        return cancelled;
+    }
+
+    private PaymentIntentDetails intent(String paymentIntentId) {
+        PaymentIntentDetails intent = intents.get(paymentIntentId);
+        if (intent == null) {
+            throw new PaymentGatewayException("No such payment intent: " + paymentIntentId, false, null);
+        }
+        return intent;
+    }
+
+    private void pause() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted", true, e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.backend.sudexpert.service;
+
+/**
+ * An order asked for more of a product than is in stock. Nothing was reserved.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,139 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.LeasedRow;
+import com.backend.sudexpert.repository.LeasedQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Works off a {@link LeasedQueue}, for EmailOutboxDispatcher and StripeWebhookDispatcher.
+ * <p>
+ * Each poll claims due rows (never more than the worker queue has room for) and hands them to a
+ * small pool of {@code workers} daemon threads. Claiming pushes a row's nextAttemptAt out by
+ * {@code lease}, so a worker that dies mid-way leaves the row to be retried once the lease expires. A failed row is retried with exponential backoff
+ * ({@code base * 2^(attempt-1)}, capped at {@code backoffMax}); after {@code maxAttempts} it is
+ * given up on and left in the table for inspection.
+ * <p>
+ * The pool's queue and active counts are exported as {@code <metricPrefix>.workers.queue} and
+ * {@code <metricPrefix>.workers.active}.
+ */
+@Slf4j
+public class LeasedQueueDispatcher<T extends LeasedRow> {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * The work for one claimed row. An exception schedules a retry.
+     */
+    @FunctionalInterface
+    public interface Handler<T> {
+        void handle(T row) throws Exception;
+    }
+
+    public record Settings(int workers, int queueCapacity, int maxAttempts, Duration lease, Duration backoffBase,
+                           Duration backoffMax) {
+    }
+
+    private final String name;
+    private final LeasedQueue<T> queue;
+    private final Handler<T> handler;
+    private final ThreadPoolExecutor workers;
+    private final Settings settings;
+
+    /**
+     * @param name names the worker threads ({@code <name>-1}, ...) and the rows in log messages
+     * @param rows what the rows are, for the gauge descriptions (e.g. "outbox emails")
+     */
+    public LeasedQueueDispatcher(String name, String metricPrefix, String rows, LeasedQueue<T> queue,
+                                 Handler<T> handler, Settings settings, MeterRegistry registry) {
+        this.name = name;
+        this.queue = queue;
+        this.handler = handler;
+        this.settings = settings;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(settings.workers(), settings.workers(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder(metricPrefix + ".workers.queue", workers, pool -> pool.getQueue().size())
+                .description("Claimed " + rows + " waiting for a worker")
+                .register(registry);
+        Gauge.builder(metricPrefix + ".workers.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Claimed " + rows + " being worked on")
+                .register(registry);
+    }
+
+    public void dispatchDue() {
+        int room = settings.queueCapacity() - workers.getQueue().size();
+        if (room <= 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = queue.findDueIds(now, Limit.of(room));
+        for (Long id : due) {
+            if (queue.claim(id, now, now.plus(settings.lease())) == 0) {
+                continue;
+            }
+            try {
+                workers.execute(() -> process(id));
+            } catch (RejectedExecutionException e) {
+                log.warn("{} workers full, row {} will be retried after its lease", name, id);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Works on one claimed row and records the outcome. Runs on a worker thread.
+     */
+    void process(Long id) {
+        T row = queue.findById(id).orElse(null);
+        if (row == null) {
+            return;
+        }
+        try {
+            handler.handle(row);
+            queue.markDone(id, LocalDateTime.now());
+        } catch (Exception e) {
+            String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+            if (row.getAttempts() >= settings.maxAttempts()) {
+                queue.markGivenUp(id, error);
+                log.error("{} row {} given up after {} attempts: {}", name, id, row.getAttempts(), error);
+            } else {
+                Duration delay = backoff(row.getAttempts());
+                queue.reschedule(id, LocalDateTime.now().plus(delay), error);
+                log.warn("{} row {} failed (attempt {}), retrying in {}s: {}",
+                        name, id, row.getAttempts(), delay.toSeconds(), error);
+            }
+        }
+    }
+
+    Duration backoff(int attempt) {
+        int exponent = Math.min(Math.max(attempt - 1, 0), 30);
+        Duration delay = settings.backoffBase().multipliedBy(1L << exponent);
+        return delay.compareTo(settings.backoffMax()) > 0 ? settings.backoffMax() : delay;
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -0,0 +1,125 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.OrderCodeSequence;
+import com.backend.sudexpert.repository.OrderCodeSequenceRepository;
+import com.backend.sudexpert.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out order codes of the form ORD-yyyyMMdd-NNNN.
+ * <p>
+ * Numbers come from a per-day counter row in {@code order_code_sequence}. Each instance reserves
+ * a block of numbers with a single atomic update and serves codes from that block in memory, so
+ * generating a code is O(1) and never collides, even across concurrent checkouts or several
+ * machines. Unused numbers in a block are lost on restart, which only leaves gaps in the sequence.
+ */
+@Service
+@Slf4j
+public class OrderCodeAllocator {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final OrderCodeSequenceRepository sequenceRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private String blockDate;
+    private long nextNumber;
+    private long blockEnd;
+
+    public OrderCodeAllocator(OrderCodeSequenceRepository sequenceRepository,
+                              OrderRepository orderRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${application.orders.code-block-size:20}") int blockSize) {
+        this.sequenceRepository = sequenceRepository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    public String nextOrderCode() {
+        String date = LocalDate.now().format(DATE_FORMAT);
+        lock.lock();
+        try {
+            if (!date.equals(blockDate) || nextNumber > blockEnd) {
+                long allocatedUpTo = reserveBlock(date);
+                blockDate = date;
+                nextNumber = allocatedUpTo - blockSize + 1;
+                blockEnd = allocatedUpTo;
+            }
+            return String.format("ORD-%s-%04d", date, nextNumber++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves the next block for the given day in its own short transaction, so the counter row
+     * lock is released before the caller's checkout transaction continues.
+     */
+    private long reserveBlock(String date) {
+        Long allocatedUpTo = transactionTemplate.execute(status -> advance(date));
+        if (allocatedUpTo != null) {
+            return allocatedUpTo;
+        }
+        createSequence(date);
+        allocatedUpTo = transactionTemplate.execute(status -> advance(date));
+        if (allocatedUpTo == null) {
+            throw new IllegalStateException("Order code sequence missing for " + date);
+        }
+        return allocatedUpTo;
+    }
+
+    private Long advance(String date) {
+        if (sequenceRepository.advance(date, blockSize) == 0) {
+            return null;
+        }
+        return sequenceRepository.findById(date)
+                .map(OrderCodeSequence::getAllocatedUpTo)
+                .orElse(null);
+    }
+
+    /**
+     * Creates the day's counter, continuing after any codes already issued that day (e.g. before
+     * this allocator existed). Losing the insert race to another instance is fine.
+     */
+    private void createSequence(String date) {
+        String prefix = "ORD-" + date + "-";
+        long start = orderRepository.findOrderCodesWithPrefixHighestFirst(prefix, Limit.of(1)).stream()
+                .findFirst()
+                .map(code -> parseSequenceNumber(code, prefix))
+                .orElse(0L);
+        try {
+            transactionTemplate.executeWithoutResult(status -> sequenceRepository.saveAndFlush(
+                    OrderCodeSequence.builder()
+                            .sequenceDate(date)
+                            .allocatedUpTo(start)
+                            .build()));
+            log.info("Started order code sequence for {} at {}", date, start);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Order code sequence for {} created concurrently", date);
+        }
+    }
+
+    private long parseSequenceNumber(String code, String prefix) {
+        try {
+            return Long.parseLong(code.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order checkout latency (orders.create, by outcome) and order status transitions
+ * (orders.status.transitions, by from/to status; "NEW" for a created order).
+ */
+@Component
+public class OrderMetrics {
+
+    static final String NEW = "NEW";
+
+    private final MeterRegistry registry;
+
+    public OrderMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordCreate(String outcome, long startNanos) {
+        Timer.builder("orders.create")
+                .description("OrderService.createOrder, stock reservation included")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a status change. Inside a transaction it is counted only once the transaction
+     * commits, so a rolled-back payment or cancellation does not show up.
+     */
+    public void transition(OrderStatus from, OrderStatus to) {
+        Counter counter = Counter.builder("orders.status.transitions")
+                .description("Order status changes")
+                .tag("from", from != null ? from.name() : NEW)
+                .tag("to", to.name())
+                .register(registry);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter.increment();
+                }
+            });
+        } else {
+            counter.increment();
+        }
+    }
+}
@@ -5,45 +5,135 @@ import com.backend.sudexpert.domain.OrderItem;
 import com.backend.sudexpert.domain.OrderStatus;
 import com.backend.sudexpert.domain.Product;
 import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.dto.OrderHistoryResponse;
 import com.backend.sudexpert.dto.OrderRequest;
 import com.backend.sudexpert.dto.OrderResponse;
 import com.backend.sudexpert.repository.OrderRepository;
 import com.backend.sudexpert.repository.ProductRepository;
 import com.backend.sudexpert.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class OrderService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 50;
+
     private final OrderRepository repository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final OrderCodeAllocator orderCodeAllocator;
+    private final StockReservationService stockReservationService;
+    private final OrderMetrics orderMetrics;
+    private final CheckoutTracing tracing;
+    private final TransactionTemplate transactionTemplate;
 
-    public List<Order> getOrdersByUser(String email) {
-        User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
-        return repository.findByUserId(user.getId());
+    public OrderService(OrderRepository repository,
+                        UserRepository userRepository,
+                        ProductRepository productRepository,
+                        OrderCodeAllocator orderCodeAllocator,
+                        StockReservationService stockReservationService,
+                        OrderMetrics orderMetrics,
+                        CheckoutTracing tracing,
+                        PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.orderCodeAllocator = orderCodeAllocator;
+        this.stockReservationService = stockReservationService;
+        this.orderMetrics = orderMetrics;
+        this.tracing = tracing;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * One page of the user's orders, newest first. Always two statements: the page of ids by
+     * keyset on (createdAt, id), then the orders with their items and products in one fetch.
+     */
+    public OrderHistoryResponse getOrderHistory(String email, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Long> ids;
+        if (cursor != null && !cursor.isBlank()) {
+            HistoryCursor after = decodeHistoryCursor(cursor);
+            ids = repository.findHistoryIdsBefore(email, after.getCreatedAt(), after.getId(), limit);
+        } else {
+            ids = repository.findHistoryIds(email, limit);
+        }
+        boolean hasMore = ids.size() > pageSize;
+        List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+        if (pageIds.isEmpty()) {
+            return OrderHistoryResponse.builder().items(List.of()).build();
+        }
+
+        Map<Long, Order> orders = repository.findDetailedByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        List<OrderResponse> items = pageIds.stream()
+                .map(orders::get)
+                .map(this::mapToOrderResponse)
+                .toList();
+        OrderResponse last = items.get(items.size() - 1);
+
+        return OrderHistoryResponse.builder()
+                .items(items)
+                .nextCursor(hasMore ? encodeHistoryCursor(last.getCreatedAt(), last.getId()) : null)
+                .build();
     }
 
-    @Transactional
+    /**
+     * The order code is allocated before the transaction opens: the allocator reserves codes in
+     * its own short transaction, which must not wait for a second pooled connection while this one
+     * holds a first. Stock is then reserved and the order and its items saved in one transaction,
+     * so an order exists exactly when its stock is held. A basket that cannot be filled costs
+     * an order code, which only leaves a gap in the sequence.
+     *
+     * @throws InsufficientStockException if any product is short
+     */
     public OrderResponse createOrder(OrderRequest request, String email) {
+        return tracing.inSpan("order.create", () -> {
+            long start = System.nanoTime();
+            try {
+                OrderResponse response = placeOrder(request, email);
+                orderMetrics.recordCreate("created", start);
+                return response;
+            } catch (InsufficientStockException e) {
+                orderMetrics.recordCreate("insufficient_stock", start);
+                throw e;
+            } catch (RuntimeException e) {
+                orderMetrics.recordCreate("error", start);
+                throw e;
+            }
+        });
+    }
+
+    private OrderResponse placeOrder(OrderRequest request, String email) {
         User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
 
+        Map<Long, Product> products = loadProducts(request.getItems());
+
+        String orderCode = orderCodeAllocator.nextOrderCode();
+        tracing.tagOrder(orderCode);
         Order order = Order.builder()
                 .user(user)
                 .total(BigDecimal.ZERO)
                 .status(OrderStatus.PENDING)
-                .orderCode(generateOrderCode())
+                .orderCode(orderCode)
                 .deliveryName(request.getDeliveryName())
                 .deliveryEmail(request.getDeliveryEmail())
                 .deliveryPhone(request.getDeliveryPhone())
@@ -56,8 +146,7 @@ public class OrderService {
                 .build();
 
         List<OrderItem> orderItems = request.getItems().stream().map(itemRequest -> {
-            Product product = productRepository.findById(itemRequest.getProduct().getId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            Product product = products.get(itemRequest.getProduct().getId());
             int quantity = itemRequest.getQuantity() != null && itemRequest.getQuantity() > 0
                     ? itemRequest.getQuantity() : 1;
             return OrderItem.builder()
@@ -73,49 +162,97 @@ public class OrderService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         order.setTotal(total);
         order.setItems(orderItems);
-        Order savedOrder = repository.save(order);
+        Order savedOrder = transactionTemplate.execute(status -> {
+            stockReservationService.reserve(order);
+            Order saved = repository.save(order);
+            orderMetrics.transition(null, OrderStatus.PENDING);
+            return saved;
+        });
         
         log.info("Created order {} for user {}", savedOrder.getOrderCode(), email);
         
         return mapToOrderResponse(savedOrder);
     }
 
+    /**
+     * Fetches every product in the basket with one query and fails if any ID is unknown,
+     * instead of one lookup per line item.
+     */
+    private Map<Long, Product> loadProducts(List<OrderRequest.OrderItemRequest> items) {
+        Set<Long> productIds = items.stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (products.size() != productIds.size()) {
+            List<Long> missing = productIds.stream().filter(id -> !products.containsKey(id)).toList();
+            log.warn("Order references unknown products {}", missing);
+            throw new RuntimeException("Product not found");
+        }
+        return products;
+    }
+
     public OrderResponse getOrderById(Long id, String email) {
-        User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
-        Order order = repository.findById(id)
+        Order order = repository.findDetailedById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         
-        if (!order.getUser().getId().equals(user.getId())) {
+        if (!order.getUser().getEmail().equals(email)) {
             throw new RuntimeException("Unauthorized access to order");
         }
         
         return mapToOrderResponse(order);
     }
 
+    /**
+     * Loads an order without an ownership check, for internal callers such as the email outbox.
+     */
+    public OrderResponse getOrderDetails(Long id) {
+        return repository.findDetailedById(id)
+                .map(this::mapToOrderResponse)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+    }
+
     public OrderResponse getOrderByCode(String orderCode, String email) {
-        User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
-        Order order = repository.findByOrderCode(orderCode)
+        Order order = repository.findDetailedByOrderCode(orderCode)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         
-        if (!order.getUser().getId().equals(user.getId())) {
+        if (!order.getUser().getEmail().equals(email)) {
             throw new RuntimeException("Unauthorized access to order");
         }
         
         return mapToOrderResponse(order);
     }
 
-    private String generateOrderCode() {
-        String dateStr = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String prefix = "ORD-" + dateStr + "-";
-        List<Order> todayOrders = repository.findAll().stream()
-                .filter(o -> o.getOrderCode() != null && o.getOrderCode().startsWith(prefix))
-                .collect(Collectors.toList());
-        
-        int nextNumber = todayOrders.size() + 1;
-        return String.format("%s%04d", prefix, nextNumber);
+    private static String encodeHistoryCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static HistoryCursor decodeHistoryCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    @Value
+    private static class HistoryCursor {
+        LocalDateTime createdAt;
+        Long id;
     }
 
-    private OrderResponse mapToOrderResponse(Order order) {
+    /**
+     * Maps a loaded order, items and products included, to its API view. Public for
+     * OrderMappingBenchmark.
+     */
+    public OrderResponse mapToOrderResponse(Order order) {
         List<OrderResponse.OrderItemResponse> itemResponses = order.getItems().stream()
                 .map(item -> OrderResponse.OrderItemResponse.builder()
                         .id(item.getId())
@@ -0,0 +1,37 @@
+package com.backend.sudexpert.service;
+
+/**
+ * The payment provider calls StripeService needs, behind an interface so the resilience wrapper
+ * and the load-test fake can stand in for Stripe.
+ * <p>
+ * Implementations throw {@link PaymentGatewayException} for every provider failure.
+ */
+public interface PaymentGateway {
+
+    /**
+     * The parts of a payment intent the shop uses.
+     */
+    @lombok.Value
+    class PaymentIntentDetails {
+        String id;
+        String clientSecret;
+        String status;
+        /** The orderId metadata set at creation, or null. */
+        String orderId;
+    }
+
+    /**
+     * Creates a payment intent for an order. Repeating the call with the same idempotency key
+     * returns the intent created the first time instead of a new one.
+     */
+    PaymentIntentDetails createPaymentIntent(long amountInCents, String currency, Long orderId, String idempotencyKey);
+
+    PaymentIntentDetails retrievePaymentIntent(String paymentIntentId);
+
+    /**
+     * Cancels an intent the customer abandoned, so it can no longer be paid. The provider refuses
+     * (a non-retryable {@link PaymentGatewayException}) once the payment is processing, has
+     * succeeded or was already cancelled.
+     */
+    PaymentIntentDetails cancelPaymentIntent(String paymentIntentId);
+}
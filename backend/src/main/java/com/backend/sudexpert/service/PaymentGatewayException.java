@@ -0,0 +1,20 @@
+package com.backend.sudexpert.service;
+
+/**
+ * A payment provider call failed. {@link #isRetryable()} is true for failures that may succeed on
+ * a later attempt (network errors, rate limiting, provider 5xx) and false when the request itself
+ * was refused (invalid parameters, unknown intent, declined card).
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public PaymentGatewayException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,12 @@
+package com.backend.sudexpert.service;
+
+/**
+ * The payment provider was not called, or not waited for: the circuit is open, the bulkhead is
+ * full or the call deadline passed. Mapped to 503 by the payment endpoints.
+ */
+public class PaymentGatewayUnavailableException extends PaymentGatewayException {
+
+    public PaymentGatewayUnavailableException(String message) {
+        super(message, true, null);
+    }
+}
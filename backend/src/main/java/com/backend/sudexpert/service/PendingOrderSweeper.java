@@ -0,0 +1,174 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.OrderStatus;
+import com.backend.sudexpert.dto.StalePendingOrder;
+import com.backend.sudexpert.repository.OrderRepository;
+import com.backend.sudexpert.service.PaymentGateway.PaymentIntentDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cancels orders left PENDING longer than {@code application.orders.pending-ttl}, typically
+ * because the customer abandoned Stripe checkout, and puts back the stock they hold.
+ * <p>
+ * Each run reads the oldest stale orders a page at a time from the (status, createdAt) index and
+ * cancels each in its own short transaction. Pages are keyed on (createdAt, id), so the next page
+ * starts after the last order of the previous one whether it was cancelled or not: orders that
+ * keep failing (Stripe unavailable, a database error) are retried on every run but never hold back
+ * the abandoned orders behind them. A run stops at a short page or after
+ * {@code sweep-max-batches} pages, and the rest of a large backlog is left to the next run. An
+ * order paid while the sweep runs is no longer PENDING and is skipped by the conditional cancel.
+ * <p>
+ * An order with a payment intent has the intent cancelled at Stripe before the order itself, so
+ * the customer cannot pay for it afterwards. Stripe refuses when the payment is already processing
+ * or has succeeded; the intent's state is then recorded, which takes the order out of the stale
+ * set, and the payment confirmation decides its fate.
+ */
+@Service
+@Slf4j
+public class PendingOrderSweeper {
+
+    private static final String CANCELED = "canceled";
+
+    private final OrderRepository orderRepository;
+    private final PaymentGateway paymentGateway;
+    private final StockReservationService stockReservationService;
+    private final OrderMetrics orderMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration pendingTtl;
+    private final int batchSize;
+    private final int maxBatches;
+
+    private final Timer runTimer;
+    private final Counter swept;
+    private final Counter stockReleased;
+    private final Counter paymentInProgress;
+    private final Counter failed;
+
+    public PendingOrderSweeper(OrderRepository orderRepository,
+                               PaymentGateway paymentGateway,
+                               StockReservationService stockReservationService,
+                               OrderMetrics orderMetrics,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry registry,
+                               @Value("${application.orders.pending-ttl:30m}") Duration pendingTtl,
+                               @Value("${application.orders.sweep-batch-size:100}") int batchSize,
+                               @Value("${application.orders.sweep-max-batches:50}") int maxBatches) {
+        this.orderRepository = orderRepository;
+        this.paymentGateway = paymentGateway;
+        this.stockReservationService = stockReservationService;
+        this.orderMetrics = orderMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pendingTtl = pendingTtl;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+
+        this.runTimer = Timer.builder("orders.sweeper.run")
+                .description("Time spent per sweep of stale PENDING orders")
+                .register(registry);
+        this.swept = Counter.builder("orders.sweeper.swept")
+                .description("Stale PENDING orders cancelled by the sweeper")
+                .register(registry);
+        this.stockReleased = Counter.builder("orders.sweeper.stock.released")
+                .description("Swept orders whose held stock was put back")
+                .register(registry);
+        this.paymentInProgress = Counter.builder("orders.sweeper.payment.in.progress")
+                .description("Stale orders left PENDING because Stripe would not cancel their payment")
+                .register(registry);
+        this.failed = Counter.builder("orders.sweeper.failed")
+                .description("Stale orders the sweeper failed to cancel; retried on the next run")
+                .register(registry);
+    }
+
+    /**
+     * @return the number of orders cancelled by this run
+     */
+    @Scheduled(fixedDelayString = "${application.orders.sweep-interval:1m}")
+    public int sweep() {
+        return runTimer.record(() -> {
+            LocalDateTime cutoff = LocalDateTime.now().minus(pendingTtl);
+            int cancelled = 0;
+            List<StalePendingOrder> orders = orderRepository.findStalePendingOrders(cutoff, Limit.of(batchSize));
+            for (int batch = 1; ; batch++) {
+                for (StalePendingOrder order : orders) {
+                    if (cancel(order)) {
+                        cancelled++;
+                    }
+                }
+                if (orders.size() < batchSize || batch >= maxBatches) {
+                    break;
+                }
+                StalePendingOrder last = orders.get(orders.size() - 1);
+                orders = orderRepository.findStalePendingOrdersAfter(cutoff, last.getCreatedAt(), last.getId(),
+                        Limit.of(batchSize));
+            }
+            if (cancelled > 0) {
+                log.info("Cancelled {} PENDING orders older than {}", cancelled, cutoff);
+            }
+            return cancelled;
+        });
+    }
+
+    private boolean cancel(StalePendingOrder order) {
+        Long id = order.getId();
+        try {
+            if (order.getPaymentIntentId() != null && !cancelPayment(order)) {
+                paymentInProgress.increment();
+                log.info("Order {} left PENDING, its payment {} could not be cancelled", id, order.getPaymentIntentId());
+                return false;
+            }
+            Boolean released = transactionTemplate.execute(status -> {
+                if (orderRepository.cancelIfPending(id) == 0) {
+                    return null;
+                }
+                return stockReservationService.release(id);
+            });
+            if (released == null) {
+                return false;
+            }
+            swept.increment();
+            orderMetrics.transition(OrderStatus.PENDING, OrderStatus.CANCELLED);
+            if (released) {
+                stockReleased.increment();
+            }
+            log.debug("Order {} cancelled by the sweeper", id);
+            return true;
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Failed to sweep order {}: {}", id, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Cancels the order's payment intent, outside any transaction. A refusal from Stripe means the
+     * intent moved on (or was already cancelled), so its current state is fetched and recorded.
+     *
+     * @return true if the intent is cancelled, so the order may be too
+     */
+    private boolean cancelPayment(StalePendingOrder order) {
+        PaymentIntentDetails intent;
+        try {
+            intent = paymentGateway.cancelPaymentIntent(order.getPaymentIntentId());
+        } catch (PaymentGatewayException e) {
+            if (e.isRetryable()) {
+                throw e;
+            }
+            intent = paymentGateway.retrievePaymentIntent(order.getPaymentIntentId());
+        }
+        orderRepository.updatePaymentState(order.getId(), intent.getId(), intent.getStatus(), LocalDateTime.now());
+        return CANCELED.equals(intent.getStatus());
+    }
+}
@@ -0,0 +1,371 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.dto.ProductSummary;
+import com.backend.sudexpert.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name, category and description used for storefront
+ * text search.
+ * <p>
+ * Text is lower-cased and stripped of diacritics, so "sârmă", "sarma" and "SÂRMĂ" are the same
+ * term. Each query term matches the exact term and any indexed term it is a prefix of; terms
+ * with no such match fall back to trigram similarity, which covers inflections like
+ * "electrozi" vs "electrod". Every query term has to match, and results are ranked with BM25
+ * where name hits weigh more than description hits.
+ * <p>
+ * The index is built from the database once at startup and then updated per product, so
+ * searches never touch the database. Updates that land while a rebuild is reading the database
+ * are replayed onto the new index before it is swapped in.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final double MIN_FUZZY_SIMILARITY = 0.5;
+    private static final double FUZZY_WEIGHT = 0.6;
+
+    private final ProductRepository repository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Index index = new Index();
+    /** Updates made while a rebuild reads the database, replayed onto the rebuilt index. */
+    private List<Consumer<Index>> updatesDuringRebuild;
+    private volatile boolean ready;
+
+    /**
+     * Builds a fresh index from the database and swaps it in. Searches keep using the old index
+     * while the products are read; updates arriving meanwhile go to both, so none is lost. If
+     * reading fails the old index stays in place. Concurrent rebuilds run one after the other.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // not synchronized: a monitor held across the database read would pin a virtual thread's carrier
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                updatesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Index rebuilt = new Index();
+            List<ProductSummary> products;
+            try {
+                products = repository.findAllSummaries();
+                products.forEach(rebuilt::add);
+            } catch (RuntimeException e) {
+                swapIn(null);
+                throw e;
+            }
+            swapIn(rebuilt);
+            ready = true;
+            log.info("Product search index built with {} products and {} terms", products.size(),
+                    rebuilt.postings.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Replays the updates recorded during the rebuild onto the rebuilt index and makes it current;
+     * with {@code null} only stops recording.
+     */
+    private void swapIn(Index rebuilt) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilt != null) {
+                updatesDuringRebuild.forEach(update -> update.accept(rebuilt));
+                index = rebuilt;
+            }
+            updatesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds the products to the index, replacing any earlier version of the same ids.
+     */
+    public void index(Collection<ProductSummary> products) {
+        List<ProductSummary> snapshot = List.copyOf(products);
+        update(target -> {
+            for (ProductSummary product : snapshot) {
+                target.remove(product.getId());
+                target.add(product);
+            }
+        });
+    }
+
+    public void remove(Long productId) {
+        update(target -> target.remove(productId));
+    }
+
+    private void update(Consumer<Index> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(index);
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all products matching every term of the query, best match first.
+     */
+    public List<ProductSummary> search(String query) {
+        List<String> terms = List.copyOf(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(fold(text)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static Set<String> trigrams(String term) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            grams.add(term.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    @Value
+    private static class Document {
+        ProductSummary product;
+        Map<String, Integer> termFrequencies;
+        int length;
+    }
+
+    @Value
+    private static class ScoredProduct {
+        ProductSummary product;
+        double score;
+    }
+
+    /**
+     * Index state. Mutated only under the write lock, read under the read lock.
+     */
+    private static final class Index {
+
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+        private long totalLength;
+
+        void add(ProductSummary product) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            addField(frequencies, product.getName(), NAME_WEIGHT);
+            addField(frequencies, product.getCategory() != null ? product.getCategory().getName() : null, CATEGORY_WEIGHT);
+            addField(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+            int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+            documents.put(product.getId(), new Document(product, frequencies, length));
+            totalLength += length;
+            frequencies.forEach((term, frequency) -> {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    posting = new HashMap<>();
+                    postings.put(term, posting);
+                    for (String gram : trigrams(term)) {
+                        termsByTrigram.computeIfAbsent(gram, key -> new HashSet<>()).add(term);
+                    }
+                }
+                posting.put(product.getId(), frequency);
+            });
+        }
+
+        void remove(Long productId) {
+            Document document = documents.remove(productId);
+            if (document == null) {
+                return;
+            }
+            totalLength -= document.getLength();
+            for (String term : document.getTermFrequencies().keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    for (String gram : trigrams(term)) {
+                        Set<String> terms = termsByTrigram.get(gram);
+                        terms.remove(term);
+                        if (terms.isEmpty()) {
+                            termsByTrigram.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<ProductSummary> search(List<String> queryTerms) {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+            List<Map<String, Double>> expansions = new ArrayList<>(queryTerms.size());
+            for (String queryTerm : queryTerms) {
+                Map<String, Double> expansion = expand(queryTerm);
+                if (expansion.isEmpty()) {
+                    return List.of();
+                }
+                expansions.add(expansion);
+            }
+            // Start from the rarest term and only probe the surviving candidates for the rest
+            expansions.sort(Comparator.comparingInt(this::postingCount));
+            double averageLength = (double) totalLength / documents.size();
+
+            Map<Long, Double> scores = new HashMap<>();
+            expansions.get(0).forEach((term, weight) -> {
+                Map<Long, Integer> posting = postings.get(term);
+                double idf = idf(posting.size());
+                posting.forEach((productId, frequency) -> scores.merge(productId,
+                        weight * idf * saturate(frequency, documents.get(productId).getLength(), averageLength),
+                        Math::max));
+            });
+            for (Map<String, Double> expansion : expansions.subList(1, expansions.size())) {
+                scores.entrySet().removeIf(entry -> {
+                    double best = termScore(expansion, entry.getKey(), averageLength);
+                    entry.setValue(entry.getValue() + best);
+                    return best == 0;
+                });
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<ScoredProduct> ranked = new ArrayList<>(scores.size());
+            scores.forEach((productId, score) -> ranked.add(new ScoredProduct(documents.get(productId).getProduct(), score)));
+            ranked.sort(Comparator.comparingDouble(ScoredProduct::getScore).reversed()
+                    .thenComparing(scored -> scored.getProduct().getId()));
+            return ranked.stream().map(ScoredProduct::getProduct).toList();
+        }
+
+        private double termScore(Map<String, Double> expansion, Long productId, double averageLength) {
+            double best = 0;
+            for (Map.Entry<String, Double> match : expansion.entrySet()) {
+                Map<Long, Integer> posting = postings.get(match.getKey());
+                Integer frequency = posting.get(productId);
+                if (frequency != null) {
+                    double score = match.getValue() * idf(posting.size())
+                            * saturate(frequency, documents.get(productId).getLength(), averageLength);
+                    best = Math.max(best, score);
+                }
+            }
+            return best;
+        }
+
+        private int postingCount(Map<String, Double> expansion) {
+            return expansion.keySet().stream().mapToInt(term -> postings.get(term).size()).sum();
+        }
+
+        /**
+         * Maps a query term to the indexed terms it matches and the weight of each match.
+         */
+        private Map<String, Double> expand(String queryTerm) {
+            Map<String, Double> matches = new HashMap<>();
+            if (queryTerm.length() < MIN_PREFIX_LENGTH) {
+                if (postings.containsKey(queryTerm)) {
+                    matches.put(queryTerm, 1.0);
+                }
+                return matches;
+            }
+            for (String term : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).keySet()) {
+                matches.put(term, term.equals(queryTerm) ? 1.0 : PREFIX_WEIGHT);
+            }
+            if (matches.isEmpty() && queryTerm.length() >= MIN_FUZZY_LENGTH) {
+                Set<String> queryGrams = trigrams(queryTerm);
+                Map<String, Integer> shared = new HashMap<>();
+                for (String gram : queryGrams) {
+                    for (String term : termsByTrigram.getOrDefault(gram, Set.of())) {
+                        shared.merge(term, 1, Integer::sum);
+                    }
+                }
+                shared.forEach((term, count) -> {
+                    double similarity = 2.0 * count / (queryGrams.size() + trigrams(term).size());
+                    if (similarity >= MIN_FUZZY_SIMILARITY) {
+                        matches.put(term, FUZZY_WEIGHT * similarity);
+                    }
+                });
+            }
+            return matches;
+        }
+
+        private double idf(int documentFrequency) {
+            return Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        }
+
+        private static double saturate(int frequency, int length, double averageLength) {
+            return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+        }
+
+        private static void addField(Map<String, Integer> frequencies, String text, int weight) {
+            for (String token : tokenize(text)) {
+                frequencies.merge(token, weight, Integer::sum);
+            }
+        }
+    }
+}
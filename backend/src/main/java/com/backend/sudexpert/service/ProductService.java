@@ -1,31 +1,168 @@
 package com.backend.sudexpert.service;
 
+import com.backend.sudexpert.config.CacheConfig;
 import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.ProductSearchCriteria;
+import com.backend.sudexpert.dto.ProductSearchResponse;
+import com.backend.sudexpert.dto.ProductSummary;
 import com.backend.sudexpert.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final ProductRepository repository;
+    private final ProductSearchIndex searchIndex;
 
-    public List<Product> getAllProducts() {
-        return repository.findAll();
+    @Cacheable(CacheConfig.PRODUCTS)
+    public List<ProductSummary> getAllProducts() {
+        return repository.findAllSummaries();
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.PRODUCTS, CacheConfig.PRODUCT_BY_ID, CacheConfig.PRODUCTS_BY_CATEGORY},
+            allEntries = true)
     public Product createProduct(Product product) {
-        return repository.save(product);
+        Product saved = repository.save(product);
+        searchIndex.index(repository.findSummariesByIdIn(List.of(saved.getId())));
+        return saved;
+    }
+
+    @Cacheable(CacheConfig.PRODUCT_BY_ID)
+    public ProductSummary getProductById(Long id) {
+        return repository.findSummaryById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+    }
+
+    @Cacheable(CacheConfig.PRODUCTS_BY_CATEGORY)
+    public List<ProductSummary> getProductsByCategory(Long categoryId) {
+        return repository.findSummariesByCategoryId(categoryId);
+    }
+
+    /**
+     * Text queries are answered from the in-memory search index once it is built; everything
+     * else (and text queries during startup) goes to the database with keyset paging.
+     */
+    public ProductSearchResponse searchProducts(ProductSearchCriteria criteria, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE);
+        if (criteria.getQuery() != null && !criteria.getQuery().isBlank() && searchIndex.isReady()) {
+            return searchIndexed(criteria, cursor, pageSize);
+        }
+        ProductSearchCriteria pageCriteria = cursor != null && !cursor.isBlank()
+                ? applyCursor(criteria, cursor)
+                : criteria;
+
+        List<ProductSummary> rows = repository.search(pageCriteria, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        return ProductSearchResponse.builder()
+                .items(items)
+                .total(repository.count(criteria))
+                .nextCursor(hasMore ? encodeCursor(criteria.getSort(), items.get(items.size() - 1)) : null)
+                .build();
+    }
+
+    private ProductSearchResponse searchIndexed(ProductSearchCriteria criteria, String cursor, int pageSize) {
+        List<ProductSummary> matches = searchIndex.search(criteria.getQuery()).stream()
+                .filter(criteria::matchesFilters)
+                .toList();
+        if (criteria.getSort() != ProductSearchCriteria.Sort.DEFAULT) {
+            matches = matches.stream().sorted(comparator(criteria.getSort())).toList();
+        }
+        int offset = cursor != null && !cursor.isBlank() ? decodeRankCursor(criteria.getSort(), cursor) : 0;
+        int end = Math.min(offset + pageSize, matches.size());
+
+        return ProductSearchResponse.builder()
+                .items(offset < end ? matches.subList(offset, end) : List.of())
+                .total(matches.size())
+                .nextCursor(end < matches.size() ? encodeRankCursor(criteria.getSort(), end) : null)
+                .build();
+    }
+
+    private static Comparator<ProductSummary> comparator(ProductSearchCriteria.Sort sort) {
+        Comparator<ProductSummary> byKey = switch (sort.getAttribute()) {
+            case "price" -> Comparator.comparing(ProductSummary::getPrice);
+            case "name" -> Comparator.comparing(ProductSummary::getName);
+            default -> Comparator.comparing(ProductSummary::getId);
+        };
+        byKey = byKey.thenComparing(ProductSummary::getId);
+        return sort.isAscending() ? byKey : byKey.reversed();
+    }
+
+    /**
+     * Index results are ranked in memory, so their cursor is just rank|sort|offset.
+     */
+    private static String encodeRankCursor(ProductSearchCriteria.Sort sort, int offset) {
+        String raw = "rank|" + sort.getParam() + "|" + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeRankCursor(ProductSearchCriteria.Sort sort, String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !parts[0].equals("rank") || !parts[1].equals(sort.getParam())) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            int offset = Integer.parseInt(parts[2]);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
     }
 
-    public Product getProductById(Long id) {
-        return repository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
+    /**
+     * Cursor format (base64url): sort|sortValue|id of the last row on the previous page.
+     * The sort is embedded so a cursor cannot be replayed against a different ordering.
+     */
+    private static String encodeCursor(ProductSearchCriteria.Sort sort, ProductSummary last) {
+        String value = switch (sort.getAttribute()) {
+            case "price" -> last.getPrice().toPlainString();
+            case "name" -> last.getName();
+            default -> "";
+        };
+        String raw = sort.getParam() + "|" + value + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
-    public List<Product> getProductsByCategory(Long categoryId) {
-        return repository.findByCategoryId(categoryId);
+    /**
+     * Decodes the cursor into the criteria's keyset position. Every part is validated here (a
+     * price that is not a number included), so a tampered cursor is a bad request rather than a
+     * failure in the query.
+     */
+    private static ProductSearchCriteria applyCursor(ProductSearchCriteria criteria, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf('|');
+            int last = raw.lastIndexOf('|');
+            if (first < 0 || first == last || !raw.substring(0, first).equals(criteria.getSort().getParam())) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String value = raw.substring(first + 1, last);
+            ProductSearchCriteria.ProductSearchCriteriaBuilder after = criteria.toBuilder()
+                    .afterId(Long.parseLong(raw.substring(last + 1)));
+            switch (criteria.getSort().getAttribute()) {
+                case "price" -> after.afterPrice(new BigDecimal(value));
+                case "name" -> after.afterName(value);
+                default -> { }
+            }
+            return after.build();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
     }
 }
@@ -0,0 +1,202 @@
+package com.backend.sudexpert.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Keeps payment provider calls from tying up request threads.
+ * <ul>
+ *   <li>Bulkhead: calls run on a dedicated pool of {@code threads} with {@code queueCapacity}
+ *   waiting slots; beyond that they are refused immediately.</li>
+ *   <li>Deadline: the caller waits at most {@code deadline} for a call, retries included.</li>
+ *   <li>Retries: retryable failures are tried again, up to {@code maxAttempts}, with jittered
+ *   exponential backoff that never runs past the deadline. Creates carry an idempotency key,
+ *   so a retry cannot create a second intent.</li>
+ *   <li>Circuit breaker: after repeated provider failures calls are refused for a while
+ *   instead of queueing behind a provider that is down.</li>
+ * </ul>
+ * Refusals, timeouts and an open circuit surface as {@link PaymentGatewayUnavailableException}.
+ * Latency is recorded in the {@code payments.gateway.call} histogram by operation and outcome,
+ * and each call is a client span ({@code payments.gateway.create}, ...) tagged with its outcome.
+ */
+@Slf4j
+public class ResilientPaymentGateway implements PaymentGateway {
+
+    private final PaymentGateway delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration deadline;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry registry;
+    private final CheckoutTracing tracing;
+
+    public ResilientPaymentGateway(PaymentGateway delegate, int threads, int queueCapacity, Duration deadline,
+                                   int maxAttempts, Duration retryBackoff, CircuitBreaker circuitBreaker,
+                                   MeterRegistry registry, CheckoutTracing tracing) {
+        this.delegate = delegate;
+        this.deadline = deadline;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.circuitBreaker = circuitBreaker;
+        this.registry = registry;
+        this.tracing = tracing;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-gateway-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("payments.gateway.bulkhead.queue", executor, pool -> pool.getQueue().size())
+                .description("Payment provider calls waiting for a gateway thread")
+                .register(registry);
+        Gauge.builder("payments.gateway.bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Payment provider calls in progress")
+                .register(registry);
+        Gauge.builder("payments.gateway.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .register(registry);
+    }
+
+    @Override
+    public PaymentIntentDetails createPaymentIntent(long amountInCents, String currency, Long orderId,
+                                                    String idempotencyKey) {
+        return call("create", () -> delegate.createPaymentIntent(amountInCents, currency, orderId, idempotencyKey));
+    }
+
+    @Override
+    public PaymentIntentDetails retrievePaymentIntent(String paymentIntentId) {
+        return call("retrieve", () -> delegate.retrievePaymentIntent(paymentIntentId));
+    }
+
+    @Override
+    public PaymentIntentDetails cancelPaymentIntent(String paymentIntentId) {
+        return call("cancel", () -> delegate.cancelPaymentIntent(paymentIntentId));
+    }
+
+    /**
+     * Called by Spring on context shutdown (inferred destroy method).
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T call(String operation, Supplier<T> request) {
+        return tracing.inClientSpan("payments.gateway." + operation, "stripe",
+                () -> callWithinDeadline(operation, request));
+    }
+
+    private <T> T callWithinDeadline(String operation, Supplier<T> request) {
+        long start = System.nanoTime();
+        long deadlineAt = start + deadline.toNanos();
+        if (!circuitBreaker.tryAcquire()) {
+            record(operation, "circuit_open", start);
+            throw new PaymentGatewayUnavailableException("Payment provider circuit is open");
+        }
+        Future<T> result;
+        try {
+            result = executor.submit(() -> withRetries(operation, request, deadlineAt));
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.onIgnored();
+            record(operation, "rejected", start);
+            log.warn("Payment gateway bulkhead full ({} queued), refusing {}", executor.getQueue().size(), operation);
+            throw new PaymentGatewayUnavailableException("Too many payment requests in progress");
+        }
+        try {
+            T value = result.get(deadlineAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess();
+            record(operation, "success", start);
+            return value;
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            circuitBreaker.onFailure();
+            record(operation, "timeout", start);
+            log.warn("Payment gateway {} exceeded its {}ms deadline", operation, deadline.toMillis());
+            throw new PaymentGatewayUnavailableException("Payment provider did not answer in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            circuitBreaker.onIgnored();
+            throw new PaymentGatewayUnavailableException("Interrupted while waiting for the payment provider");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PaymentGatewayException failure) {
+                if (failure.isRetryable()) {
+                    circuitBreaker.onFailure();
+                    record(operation, "failure", start);
+                } else {
+                    circuitBreaker.onSuccess();
+                    record(operation, "client_error", start);
+                }
+                throw failure;
+            }
+            circuitBreaker.onFailure();
+            record(operation, "failure", start);
+            throw new PaymentGatewayException("Payment gateway " + operation + " failed", false, e.getCause());
+        }
+    }
+
+    private <T> T withRetries(String operation, Supplier<T> request, long deadlineAt) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return request.get();
+            } catch (PaymentGatewayException e) {
+                if (!e.isRetryable() || attempt >= maxAttempts) {
+                    throw e;
+                }
+                long delay = backoffNanos(attempt);
+                if (System.nanoTime() + delay >= deadlineAt) {
+                    throw e;
+                }
+                Counter.builder("payments.gateway.retries")
+                        .tag("operation", operation)
+                        .register(registry)
+                        .increment();
+                log.warn("Payment gateway {} attempt {} failed, retrying: {}", operation, attempt, e.getMessage());
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * {@code retryBackoff * 2^(attempt-1)}, with the upper half randomised so concurrent
+     * retries spread out.
+     */
+    private long backoffNanos(int attempt) {
+        long delay = retryBackoff.toNanos() << Math.min(attempt - 1, 16);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void record(String operation, String outcome, long start) {
+        tracing.tag("outcome", outcome);
+        Timer.builder("payments.gateway.call")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,141 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.config.CacheConfig;
+import com.backend.sudexpert.domain.Order;
+import com.backend.sudexpert.domain.OrderItem;
+import com.backend.sudexpert.dto.ProductSummary;
+import com.backend.sudexpert.repository.OrderRepository;
+import com.backend.sudexpert.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Holds product stock for PENDING orders.
+ * <p>
+ * An order's quantities are taken out of stock in the same transaction that saves the order, by
+ * one conditional UPDATE that only matches products with enough left (see
+ * {@code ProductStockRepository}). The database row lock on each product is the only
+ * coordination, so two buyers racing for the last unit cannot both succeed, and buyers of
+ * different products never wait for each other.
+ * <p>
+ * The stock goes back when the order is cancelled, by the customer's payment failing or by
+ * {@link PendingOrderSweeper} once it is abandoned. The order's {@code stockReserved} flag is
+ * cleared with a conditional update first, so a reservation is released once even if two
+ * cancellations race.
+ */
+@Service
+@Slf4j
+public class StockReservationService {
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final ProductSearchIndex searchIndex;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public StockReservationService(ProductRepository productRepository,
+                                   OrderRepository orderRepository,
+                                   ProductSearchIndex searchIndex,
+                                   CacheManager cacheManager,
+                                   PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.searchIndex = searchIndex;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Takes the order's quantities out of stock and marks the order as holding them. Must be
+     * called in the transaction that saves the order, so a failed save puts the stock back.
+     *
+     * @throws InsufficientStockException if any product is short; nothing is reserved
+     */
+    public void reserve(Order order) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Stock must be reserved in the order's transaction");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        int reserved = productRepository.reserveStock(quantities);
+        if (reserved < quantities.size()) {
+            throw new InsufficientStockException("Insufficient stock for products " + quantities.keySet());
+        }
+        order.setStockReserved(true);
+        refreshCatalogAfterCommit(quantities.keySet());
+    }
+
+    /**
+     * Puts the order's stock back if it is still held. Joins the caller's transaction if there
+     * is one.
+     *
+     * @return false if the order held no stock (never reserved or already released)
+     */
+    public boolean release(Long orderId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (orderRepository.clearStockReservation(orderId) == 0) {
+                return false;
+            }
+            List<Long> productIds = productRepository.findProductIdsByOrderId(orderId);
+            productRepository.releaseStock(orderId);
+            refreshCatalogAfterCommit(productIds);
+            log.info("Released stock held by order {}", orderId);
+            return true;
+        }));
+    }
+
+    /**
+     * Every catalog view shows stock, so once the new stock is committed the touched products are
+     * evicted from the product, category and full catalog caches (the catalog snapshot and its
+     * ETag are rebuilt from the next list) and re-indexed for search.
+     */
+    private void refreshCatalogAfterCommit(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refreshCatalog(productIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshCatalog(productIds);
+            }
+        });
+    }
+
+    private void refreshCatalog(Collection<Long> productIds) {
+        List<ProductSummary> products = productRepository.findSummariesByIdIn(productIds);
+        Cache productById = cacheManager.getCache(CacheConfig.PRODUCT_BY_ID);
+        if (productById != null) {
+            productIds.forEach(productById::evict);
+        }
+        Cache productsByCategory = cacheManager.getCache(CacheConfig.PRODUCTS_BY_CATEGORY);
+        if (productsByCategory != null) {
+            products.stream()
+                    .filter(product -> product.getCategory() != null)
+                    .map(product -> product.getCategory().getId())
+                    .distinct()
+                    .forEach(productsByCategory::evict);
+        }
+        Cache allProducts = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (allProducts != null) {
+            allProducts.clear();
+        }
+        searchIndex.index(products);
+    }
+}
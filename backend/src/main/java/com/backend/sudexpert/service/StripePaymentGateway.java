@@ -0,0 +1,88 @@
+package com.backend.sudexpert.service;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCancelParams;
+import com.stripe.param.PaymentIntentCreateParams;
+
+import java.time.Duration;
+
+/**
+ * Calls the Stripe API. Every request gets connect and read timeouts of {@code attemptTimeout},
+ * and the SDK's own network retries are off because {@link ResilientPaymentGateway} retries.
+ */
+public class StripePaymentGateway implements PaymentGateway {
+
+    private final int attemptTimeoutMillis;
+
+    public StripePaymentGateway(Duration attemptTimeout) {
+        this.attemptTimeoutMillis = Math.toIntExact(attemptTimeout.toMillis());
+    }
+
+    @Override
+    public PaymentIntentDetails createPaymentIntent(long amountInCents, String currency, Long orderId,
+                                                    String idempotencyKey) {
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(amountInCents)
+                .setCurrency(currency)
+                .putMetadata("orderId", orderId.toString())
+                .setAutomaticPaymentMethods(
+                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                                .setEnabled(true)
+                                .build()
+                )
+                .build();
+        try {
+            return details(PaymentIntent.create(params, options(idempotencyKey)));
+        } catch (StripeException e) {
+            throw translate("create", e);
+        }
+    }
+
+    @Override
+    public PaymentIntentDetails retrievePaymentIntent(String paymentIntentId) {
+        try {
+            return details(PaymentIntent.retrieve(paymentIntentId, options(null)));
+        } catch (StripeException e) {
+            throw translate("retrieve", e);
+        }
+    }
+
+    @Override
+    public PaymentIntentDetails cancelPaymentIntent(String paymentIntentId) {
+        PaymentIntentCancelParams params = PaymentIntentCancelParams.builder()
+                .setCancellationReason(PaymentIntentCancelParams.CancellationReason.ABANDONED)
+                .build();
+        try {
+            return details(PaymentIntent.retrieve(paymentIntentId, options(null)).cancel(params, options(null)));
+        } catch (StripeException e) {
+            throw translate("cancel", e);
+        }
+    }
+
+    private RequestOptions options(String idempotencyKey) {
+        return RequestOptions.builder()
+                .setIdempotencyKey(idempotencyKey)
+                .setConnectTimeout(attemptTimeoutMillis)
+                .setReadTimeout(attemptTimeoutMillis)
+                .setMaxNetworkRetries(0)
+                .build();
+    }
+
+    private static PaymentIntentDetails details(PaymentIntent intent) {
+        String orderId = intent.getMetadata() != null ? intent.getMetadata().get("orderId") : null;
+        return new PaymentIntentDetails(intent.getId(), intent.getClientSecret(), intent.getStatus(), orderId);
+    }
+
+    private static PaymentGatewayException translate(String operation, StripeException e) {
+        boolean retryable = e instanceof ApiConnectionException
+                || e instanceof RateLimitException
+                || e instanceof ApiException
+                || (e.getStatusCode() != null && e.getStatusCode() >= 500);
+        return new PaymentGatewayException("Stripe " + operation + " failed: " + e.getMessage(), retryable, e);
+    }
+}
@@ -1,46 +1,69 @@
 package com.backend.sudexpert.service;
 
+import com.backend.sudexpert.domain.EmailType;
 import com.backend.sudexpert.domain.Order;
 import com.backend.sudexpert.domain.OrderStatus;
+import com.backend.sudexpert.domain.StripeWebhookEvent;
 import com.backend.sudexpert.dto.PaymentIntentRequest;
 import com.backend.sudexpert.dto.PaymentIntentResponse;
 import com.backend.sudexpert.repository.OrderRepository;
-import com.stripe.exception.SignatureVerificationException;
-import com.stripe.exception.StripeException;
-import com.stripe.model.Event;
-import com.stripe.model.PaymentIntent;
-import com.stripe.net.Webhook;
-import com.stripe.param.PaymentIntentCreateParams;
-import lombok.RequiredArgsConstructor;
+import com.backend.sudexpert.service.PaymentGateway.PaymentIntentDetails;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Slf4j
 public class StripeService {
 
-    private final OrderRepository orderRepository;
-    private final OrderService orderService;
-    private final EmailService emailService;
+    private static final String SUCCEEDED = "succeeded";
+    private static final String CANCELED = "canceled";
+    private static final Set<String> FAILED_STATUSES = Set.of("requires_payment_method", CANCELED);
+    private static final Set<String> FINAL_STATUSES = Set.of(SUCCEEDED, CANCELED);
+    private static final Set<OrderStatus> UNPAID_STATUSES = EnumSet.of(OrderStatus.PENDING, OrderStatus.CANCELLED);
 
-    @Value("${stripe.webhook.secret:}")
-    private String webhookSecret;
+    private final OrderRepository orderRepository;
+    private final PaymentGateway paymentGateway;
+    private final EmailOutboxService emailOutboxService;
+    private final StockReservationService stockReservationService;
+    private final OrderMetrics orderMetrics;
+    private final CheckoutTracing tracing;
+    private final TransactionTemplate transactionTemplate;
 
-    public StripeService(OrderRepository orderRepository, OrderService orderService, EmailService emailService) {
+    public StripeService(OrderRepository orderRepository,
+                         PaymentGateway paymentGateway,
+                         EmailOutboxService emailOutboxService,
+                         StockReservationService stockReservationService,
+                         OrderMetrics orderMetrics,
+                         CheckoutTracing tracing,
+                         PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
-        this.orderService = orderService;
-        this.emailService = emailService;
+        this.paymentGateway = paymentGateway;
+        this.emailOutboxService = emailOutboxService;
+        this.stockReservationService = stockReservationService;
+        this.orderMetrics = orderMetrics;
+        this.tracing = tracing;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public PaymentIntentResponse createPaymentIntent(PaymentIntentRequest request, String userEmail) throws StripeException {
+    public PaymentIntentResponse createPaymentIntent(PaymentIntentRequest request, String userEmail) {
+        return tracing.inSpan("payment.intent.create", () -> requestPaymentIntent(request, userEmail));
+    }
+
+    private PaymentIntentResponse requestPaymentIntent(PaymentIntentRequest request, String userEmail) {
         if (request.getOrderId() == null) {
             throw new IllegalArgumentException("Order ID is required");
         }
         Order order = orderRepository.findById(request.getOrderId())
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+        tracing.tagOrder(order.getOrderCode());
         if (!order.getUser().getEmail().equals(userEmail)) {
             throw new IllegalArgumentException("Order does not belong to user");
         }
@@ -52,20 +75,15 @@ public class StripeService {
         String currency = request.getCurrency() != null && !request.getCurrency().isBlank()
                 ? request.getCurrency() : "ron";
 
-        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                .setAmount(amountInCents)
-                .setCurrency(currency)
-                .putMetadata("orderId", order.getId().toString())
-                .setAutomaticPaymentMethods(
-                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
-                                .setEnabled(true)
-                                .build()
-                )
-                .build();
+        // Same order, amount and currency -> same key, so a retry or a double click gets the
+        // intent created the first time rather than a second one.
+        String idempotencyKey = "order-" + order.getId() + "-" + amountInCents + "-" + currency;
+        PaymentIntentDetails paymentIntent = paymentGateway.createPaymentIntent(
+                amountInCents, currency, order.getId(), idempotencyKey);
 
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
+        recordPaymentState(order.getId(), paymentIntent);
 
-        log.info("Created payment intent: {} for order {} amount: {} {}", 
+        log.info("Created payment intent: {} for order {} amount: {} {}",
                 paymentIntent.getId(), order.getOrderCode(), order.getTotal(), currency);
 
         return PaymentIntentResponse.builder()
@@ -74,136 +92,219 @@ public class StripeService {
                 .build();
     }
 
+    /**
+     * Confirms a payment from the return page. When a webhook (or an earlier call) already
+     * recorded the intent as succeeded, the order is confirmed from that local state; Stripe is
+     * only asked when the state is missing or not yet succeeded.
+     */
     public void handlePaymentSuccess(String paymentIntentId, String userEmail) {
-        PaymentIntent paymentIntent;
-        try {
-            paymentIntent = PaymentIntent.retrieve(paymentIntentId);
-        } catch (StripeException e) {
-            log.error("Failed to retrieve payment intent: {}", e.getMessage());
-            throw new IllegalArgumentException("Invalid payment intent");
-        }
-        if (!"succeeded".equals(paymentIntent.getStatus())) {
-            throw new IllegalArgumentException("Payment has not succeeded");
+        tracing.inSpan("payment.confirm", () -> confirmPayment(paymentIntentId, userEmail));
+    }
+
+    private void confirmPayment(String paymentIntentId, String userEmail) {
+        Long orderId = finalPaymentState(paymentIntentId)
+                .filter(order -> SUCCEEDED.equals(order.getPaymentStatus()))
+                .map(Order::getId)
+                .orElse(null);
+        boolean confirmedLocally = orderId != null;
+        if (!confirmedLocally) {
+            PaymentIntentDetails paymentIntent = retrieve(paymentIntentId);
+            orderId = orderIdOf(paymentIntent);
+            recordPaymentState(orderId, paymentIntent);
+            if (!SUCCEEDED.equals(paymentIntent.getStatus())) {
+                throw new IllegalArgumentException("Payment has not succeeded");
+            }
         }
-        String orderIdStr = paymentIntent.getMetadata().get("orderId");
-        if (orderIdStr == null) {
-            throw new IllegalArgumentException("Payment intent has no order");
+        Long paidOrderId = orderId;
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findById(paidOrderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+            if (!order.getUser().getEmail().equals(userEmail)) {
+                throw new IllegalArgumentException("Order does not belong to user");
+            }
+            markPaid(order);
+        });
+        log.info("Order {} marked as PROCESSING after successful payment ({})",
+                orderId, confirmedLocally ? "local state" : "Stripe");
+    }
+
+    /**
+     * Cancels the order from the return page after a failed payment. Only a recorded
+     * {@code canceled} state is trusted as is: a {@code requires_payment_method} on record may be
+     * the one written when the intent was created, and the customer may have paid since, so
+     * Stripe is asked.
+     */
+    public void handlePaymentFailure(String paymentIntentId, String userEmail) {
+        tracing.inSpan("payment.fail", () -> failPayment(paymentIntentId, userEmail));
+    }
+
+    private void failPayment(String paymentIntentId, String userEmail) {
+        Long orderId = finalPaymentState(paymentIntentId)
+                .filter(order -> CANCELED.equals(order.getPaymentStatus()))
+                .map(Order::getId)
+                .orElse(null);
+        if (orderId == null) {
+            PaymentIntentDetails paymentIntent = retrieve(paymentIntentId);
+            orderId = orderIdOf(paymentIntent);
+            recordPaymentState(orderId, paymentIntent);
+            if (!FAILED_STATUSES.contains(paymentIntent.getStatus())) {
+                throw new IllegalArgumentException("Payment status does not indicate failure");
+            }
         }
-        Long orderId = Long.parseLong(orderIdStr);
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found"));
-        if (!order.getUser().getEmail().equals(userEmail)) {
-            throw new IllegalArgumentException("Order does not belong to user");
+        Long failedOrderId = orderId;
+        boolean cancelled = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Order order = orderRepository.findById(failedOrderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+            if (!order.getUser().getEmail().equals(userEmail)) {
+                throw new IllegalArgumentException("Order does not belong to user");
+            }
+            return cancel(order);
+        }));
+        if (cancelled) {
+            log.info("Order {} marked as CANCELLED after payment failure", orderId);
         }
+    }
 
-        order.setStatus(OrderStatus.PROCESSING);
-        orderRepository.save(order);
-        log.info("Order {} marked as PROCESSING after successful payment", orderId);
+    /**
+     * The order paid by this intent, if its recorded status is final (succeeded or canceled) and
+     * so can be trusted without asking Stripe. Any other status may be out of date.
+     */
+    private Optional<Order> finalPaymentState(String paymentIntentId) {
+        return orderRepository.findByPaymentIntentId(paymentIntentId)
+                .filter(order -> FINAL_STATUSES.contains(order.getPaymentStatus()));
+    }
 
-        try {
-            com.backend.sudexpert.dto.OrderResponse orderResponse =
-                    orderService.getOrderById(orderId, order.getUser().getEmail());
-            emailService.sendOrderConfirmationEmail(orderResponse);
-        } catch (Exception emailError) {
-            log.error("Failed to send confirmation email for order {}: {}", orderId, emailError.getMessage());
+    private void recordPaymentState(Long orderId, PaymentIntentDetails paymentIntent) {
+        orderRepository.updatePaymentState(orderId, paymentIntent.getId(), paymentIntent.getStatus(),
+                LocalDateTime.now());
+    }
+
+    private static Long orderIdOf(PaymentIntentDetails paymentIntent) {
+        String orderIdStr = paymentIntent.getOrderId();
+        if (orderIdStr == null) {
+            throw new IllegalArgumentException("Payment intent has no order");
         }
+        return Long.parseLong(orderIdStr);
     }
 
-    public void handlePaymentFailure(String paymentIntentId, String userEmail) {
-        PaymentIntent paymentIntent;
+    /**
+     * Retrieves an intent, turning a provider refusal (e.g. unknown id) into a bad request.
+     * Provider outages propagate as {@link PaymentGatewayException} so the caller can answer 503.
+     */
+    private PaymentIntentDetails retrieve(String paymentIntentId) {
         try {
-            paymentIntent = PaymentIntent.retrieve(paymentIntentId);
-        } catch (StripeException e) {
+            return paymentGateway.retrievePaymentIntent(paymentIntentId);
+        } catch (PaymentGatewayException e) {
+            if (e.isRetryable()) {
+                throw e;
+            }
             log.error("Failed to retrieve payment intent: {}", e.getMessage());
             throw new IllegalArgumentException("Invalid payment intent");
         }
-        String status = paymentIntent.getStatus();
-        if (!"requires_payment_method".equals(status) && !"canceled".equals(status)) {
-            throw new IllegalArgumentException("Payment status does not indicate failure");
+    }
+
+    /**
+     * Applies a stored, already verified webhook event, using the fields extracted when it was
+     * received. Every payment_intent event also refreshes the order's recorded payment state.
+     * Called by StripeWebhookDispatcher, which retries on an exception, so every branch must be
+     * safe to run twice.
+     */
+    public void applyWebhookEvent(StripeWebhookEvent event) {
+        Long orderId = event.getOrderId();
+        if (orderId == null) {
+            log.debug("Webhook event {} has no order, nothing to do", event.getType());
+            return;
         }
-        String orderIdStr = paymentIntent.getMetadata().get("orderId");
-        if (orderIdStr == null) {
-            throw new IllegalArgumentException("Payment intent has no order");
+        switch (event.getType()) {
+            case "payment_intent.succeeded" -> applyPaymentSuccess(orderId);
+            case "payment_intent.payment_failed" -> applyPaymentFailure(orderId);
+            default -> log.debug("Unhandled webhook event type: {}", event.getType());
         }
-        Long orderId = Long.parseLong(orderIdStr);
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found"));
-        if (!order.getUser().getEmail().equals(userEmail)) {
-            throw new IllegalArgumentException("Order does not belong to user");
+        if (event.getPaymentIntentId() != null && event.getPaymentStatus() != null) {
+            orderRepository.updatePaymentState(orderId, event.getPaymentIntentId(), event.getPaymentStatus(),
+                    LocalDateTime.now());
         }
+    }
 
-        order.setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
-        log.info("Order {} marked as CANCELLED after payment failure", orderId);
+    private void applyPaymentSuccess(Long orderId) {
+        boolean updated = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null) return false;
+            markPaid(order);
+            return true;
+        }));
+        if (updated) {
+            log.info("Order {} marked as PROCESSING via webhook", orderId);
+        }
     }
 
     /**
-     * Process webhook event from Stripe. Verifies signature before processing.
+     * Moves a PENDING or CANCELLED order to PROCESSING and queues its confirmation email in the
+     * caller's transaction. Any other status means the order was already paid (e.g. /success after
+     * the webhook, or a replayed event for a SHIPPED order), so it is left alone and the customer
+     * gets one email.
+     * <p>
+     * The move is a conditional UPDATE, like cancelIfPending, so a sweep or payment failure that
+     * commits after the order was read is seen rather than overwritten. The order is then read
+     * again under the row lock that UPDATE holds: if a cancel already put its stock back, the
+     * stock is taken again; if that stock is gone the InsufficientStockException rolls the caller
+     * back and the order stays CANCELLED for a refund.
      */
-    public void processWebhookEvent(String payload, String sigHeader) {
-        if (webhookSecret == null || webhookSecret.isBlank()) {
-            log.warn("Stripe webhook secret not configured - skipping signature verification");
-            return;
-        }
-        if (sigHeader == null || sigHeader.isBlank()) {
-            throw new IllegalArgumentException("Missing Stripe-Signature header");
-        }
-        Event event;
-        try {
-            event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
-        } catch (SignatureVerificationException e) {
-            log.error("Invalid Stripe webhook signature: {}", e.getMessage());
-            throw new IllegalArgumentException("Invalid webhook signature");
-        }
-        String type = event.getType();
-        Object dataObject = event.getDataObjectDeserializer().getObject().orElse(null);
-        if (dataObject == null) {
-            log.warn("Webhook event {} has no data object", type);
+    private void markPaid(Order order) {
+        tracing.tagOrder(order.getOrderCode());
+        OrderStatus from = moveToProcessing(order.getId());
+        if (from == null) {
+            log.debug("Order {} already paid", order.getId());
             return;
         }
-        if ("payment_intent.succeeded".equals(type) && dataObject instanceof PaymentIntent pi) {
-            processPaymentSuccessFromWebhook(pi);
-        } else if ("payment_intent.payment_failed".equals(type) && dataObject instanceof PaymentIntent pi) {
-            processPaymentFailureFromWebhook(pi);
-        } else {
-            log.debug("Unhandled webhook event type: {}", type);
+        Order confirmed = orderRepository.findById(order.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+        if (!Boolean.TRUE.equals(confirmed.getStockReserved())) {
+            stockReservationService.reserve(confirmed);
         }
+        orderMetrics.transition(from, OrderStatus.PROCESSING);
+        emailOutboxService.enqueue(EmailType.ORDER_CONFIRMATION, confirmed.getId());
     }
 
-    private void processPaymentSuccessFromWebhook(PaymentIntent paymentIntent) {
-        String orderIdStr = paymentIntent.getMetadata().get("orderId");
-        if (orderIdStr == null) return;
-        try {
-            Long orderId = Long.parseLong(orderIdStr);
-            Order order = orderRepository.findById(orderId).orElse(null);
-            if (order == null) return;
-            order.setStatus(OrderStatus.PROCESSING);
-            orderRepository.save(order);
-            log.info("Order {} marked as PROCESSING via webhook", orderId);
-            try {
-                var orderResponse = orderService.getOrderById(orderId, order.getUser().getEmail());
-                emailService.sendOrderConfirmationEmail(orderResponse);
-            } catch (Exception e) {
-                log.error("Failed to send confirmation email for order {}: {}", orderId, e.getMessage());
+    /**
+     * @return the status the order was confirmed from, or null if it was not unpaid
+     */
+    private OrderStatus moveToProcessing(Long orderId) {
+        for (OrderStatus from : UNPAID_STATUSES) {
+            if (orderRepository.markProcessingIf(orderId, from) == 1) {
+                return from;
             }
-        } catch (Exception e) {
-            log.error("Error processing webhook payment success: {}", e.getMessage());
         }
+        return null;
     }
 
-    private void processPaymentFailureFromWebhook(PaymentIntent paymentIntent) {
-        String orderIdStr = paymentIntent.getMetadata().get("orderId");
-        if (orderIdStr == null) return;
-        try {
-            Long orderId = Long.parseLong(orderIdStr);
+    private void applyPaymentFailure(Long orderId) {
+        boolean updated = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
             Order order = orderRepository.findById(orderId).orElse(null);
-            if (order == null) return;
-            order.setStatus(OrderStatus.CANCELLED);
-            orderRepository.save(order);
+            if (order == null) return false;
+            return cancel(order);
+        }));
+        if (updated) {
             log.info("Order {} marked as CANCELLED via webhook", orderId);
-        } catch (Exception e) {
-            log.error("Error processing webhook payment failure: {}", e.getMessage());
         }
     }
-}
 
+    /**
+     * Cancels the order and puts back any stock it holds, in the caller's transaction, the way
+     * PendingOrderSweeper does. Only a PENDING order is cancelled: a failure event that arrives
+     * after the order was paid (e.g. a declined first attempt delivered late) leaves it and its
+     * stock alone. The conditional update detaches {@code order}, so it must not be saved after.
+     *
+     * @return false if the order was no longer PENDING
+     */
+    private boolean cancel(Order order) {
+        tracing.tagOrder(order.getOrderCode());
+        if (orderRepository.cancelIfPending(order.getId()) == 0) {
+            log.info("Order {} is {}, not cancelling it after a payment failure", order.getId(), order.getStatus());
+            return false;
+        }
+        orderMetrics.transition(OrderStatus.PENDING, OrderStatus.CANCELLED);
+        stockReservationService.release(order.getId());
+        return true;
+    }
+}
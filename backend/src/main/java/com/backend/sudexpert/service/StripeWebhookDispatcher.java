@@ -0,0 +1,73 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.StripeWebhookEvent;
+import com.backend.sudexpert.repository.StripeWebhookEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Applies stored webhook events.
+ * <p>
+ * Works like EmailOutboxDispatcher on a {@link LeasedQueueDispatcher}: a scheduled poll claims due
+ * rows in arrival order and hands them to a small worker pool, failures are retried with capped
+ * exponential backoff and end up FAILED after {@code max-attempts}. In addition an event is held
+ * back while an older event for the same order is still pending, so each order sees its events in
+ * the order Stripe sent them.
+ */
+@Service
+public class StripeWebhookDispatcher {
+
+    private final StripeService stripeService;
+    private final CheckoutTracing tracing;
+    private final LeasedQueueDispatcher<StripeWebhookEvent> dispatcher;
+
+    public StripeWebhookDispatcher(StripeWebhookEventRepository repository,
+                                   StripeService stripeService,
+                                   CheckoutTracing tracing,
+                                   MeterRegistry registry,
+                                   @Value("${application.payments.webhook.workers:2}") int workerCount,
+                                   @Value("${application.payments.webhook.queue-capacity:50}") int queueCapacity,
+                                   @Value("${application.payments.webhook.max-attempts:8}") int maxAttempts,
+                                   @Value("${application.payments.webhook.lease:2m}") Duration lease,
+                                   @Value("${application.payments.webhook.backoff-base:5s}") Duration backoffBase,
+                                   @Value("${application.payments.webhook.backoff-max:30m}") Duration backoffMax) {
+        this.stripeService = stripeService;
+        this.tracing = tracing;
+        this.dispatcher = new LeasedQueueDispatcher<>("stripe-webhook", "payments.webhook", "webhook events",
+                repository, this::handle,
+                new LeasedQueueDispatcher.Settings(workerCount, queueCapacity, maxAttempts, lease, backoffBase,
+                        backoffMax),
+                registry);
+    }
+
+    @Scheduled(fixedDelayString = "${application.payments.webhook.poll-interval:1s}")
+    public void dispatchDue() {
+        dispatcher.dispatchDue();
+    }
+
+    /**
+     * Applies one claimed event and records the outcome. Runs on a worker thread.
+     */
+    void apply(Long id) {
+        dispatcher.process(id);
+    }
+
+    private void handle(StripeWebhookEvent event) {
+        tracing.inSpan("payments.webhook.apply", () -> {
+            tracing.tag("webhook.event.id", event.getEventId());
+            tracing.tag("webhook.event.type", event.getType());
+            tracing.tag("webhook.attempt", String.valueOf(event.getAttempts()));
+            stripeService.applyWebhookEvent(event);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+}
@@ -0,0 +1,114 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.StripeWebhookEvent;
+import com.backend.sudexpert.domain.WebhookEventStatus;
+import com.backend.sudexpert.repository.StripeWebhookEventRepository;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.Webhook;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Webhook ingestion: verify the signature, store the event once, answer Stripe. The events are
+ * applied later by StripeWebhookDispatcher.
+ */
+@Service
+@Slf4j
+public class StripeWebhookService {
+
+    private final StripeWebhookEventRepository repository;
+    private final String webhookSecret;
+
+    public StripeWebhookService(StripeWebhookEventRepository repository,
+                                @Value("${stripe.webhook.secret:}") String webhookSecret) {
+        this.repository = repository;
+        this.webhookSecret = webhookSecret;
+    }
+
+    /**
+     * Verifies and stores a delivery.
+     *
+     * @return false if the event was already stored (a Stripe retry or duplicate delivery)
+     * @throws IllegalArgumentException if the signature is missing or wrong
+     */
+    public boolean receive(String payload, String sigHeader) {
+        if (webhookSecret == null || webhookSecret.isBlank()) {
+            log.warn("Stripe webhook secret not configured - skipping signature verification");
+            return false;
+        }
+        if (sigHeader == null || sigHeader.isBlank()) {
+            throw new IllegalArgumentException("Missing Stripe-Signature header");
+        }
+        Event event;
+        try {
+            event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
+        } catch (SignatureVerificationException e) {
+            log.error("Invalid Stripe webhook signature: {}", e.getMessage());
+            throw new IllegalArgumentException("Invalid webhook signature");
+        }
+        if (repository.existsByEventId(event.getId())) {
+            log.debug("Duplicate webhook event {} ignored", event.getId());
+            return false;
+        }
+        PaymentIntent paymentIntent = event.getDataObjectDeserializer().getObject().orElse(null)
+                instanceof PaymentIntent pi ? pi : null;
+        try {
+            repository.saveAndFlush(StripeWebhookEvent.builder()
+                    .eventId(event.getId())
+                    .type(event.getType())
+                    .orderId(orderId(paymentIntent))
+                    .paymentIntentId(paymentIntent != null ? paymentIntent.getId() : null)
+                    .paymentStatus(paymentIntent != null ? paymentIntent.getStatus() : null)
+                    .payload(payload)
+                    .status(WebhookEventStatus.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Duplicate webhook event {} ignored (concurrent delivery)", event.getId());
+            return false;
+        }
+        log.debug("Stored webhook event {} ({})", event.getId(), event.getType());
+        return true;
+    }
+
+    /**
+     * Queues a stored event to be applied again.
+     *
+     * @return false if no event with that id was ever received
+     */
+    public boolean replay(String eventId) {
+        boolean found = repository.replay(eventId, LocalDateTime.now()) > 0;
+        if (found) {
+            log.info("Webhook event {} queued for replay", eventId);
+        }
+        return found;
+    }
+
+    /**
+     * Queues every FAILED event to be applied again.
+     */
+    public int replayFailed() {
+        int count = repository.replayFailed(LocalDateTime.now());
+        log.info("{} failed webhook events queued for replay", count);
+        return count;
+    }
+
+    private static Long orderId(PaymentIntent paymentIntent) {
+        if (paymentIntent != null && paymentIntent.getMetadata() != null) {
+            String orderId = paymentIntent.getMetadata().get("orderId");
+            try {
+                return orderId != null ? Long.valueOf(orderId) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
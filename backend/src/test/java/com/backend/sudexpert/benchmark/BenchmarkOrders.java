@@ -0,0 +1,96 @@
+package com.backend.sudexpert.benchmark;
+
+import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.domain.Order;
+import com.backend.sudexpert.domain.OrderItem;
+import com.backend.sudexpert.domain.OrderStatus;
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.OrderResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The order every benchmark works on: a typical delivery address and {@code items} lines of
+ * welding consumables, as a loaded entity or as its API view.
+ */
+final class BenchmarkOrders {
+
+    private static final Category CATEGORY = Category.builder().id(1L).name("Electrozi").build();
+
+    private BenchmarkOrders() {
+    }
+
+    static Product product(int i) {
+        return Product.builder()
+                .id((long) i + 1)
+                .name("Electrod rutilic E6013 " + i)
+                .description("Electrod rutilic pentru sudura otelurilor carbon, diametru 2.5 mm, pachet 5 kg.")
+                .price(new BigDecimal("12.50").add(BigDecimal.valueOf(i)))
+                .stock(100 + i)
+                .imageUrl("https://cdn.sudexpert.ro/products/e6013-" + i + ".jpg")
+                .category(CATEGORY)
+                .build();
+    }
+
+    static Order order(int items) {
+        Order order = Order.builder()
+                .id(1L)
+                .orderCode("ORD-20250314-0042")
+                .total(new BigDecimal("1234.50"))
+                .status(OrderStatus.PROCESSING)
+                .createdAt(LocalDateTime.of(2025, 3, 14, 9, 5))
+                .deliveryName("Ion Popescu")
+                .deliveryEmail("ion@example.com")
+                .deliveryPhone("0712345678")
+                .deliveryAddress("Strada Test 123")
+                .deliveryCity("Brăila")
+                .deliveryCounty("Brăila")
+                .deliveryPostalCode("810000")
+                .deliveryCountry("Romania")
+                .build();
+        List<OrderItem> lines = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            Product product = product(i);
+            lines.add(OrderItem.builder()
+                    .id((long) i + 1)
+                    .order(order)
+                    .product(product)
+                    .quantity(i % 5 + 1)
+                    .price(product.getPrice())
+                    .build());
+        }
+        order.setItems(lines);
+        return order;
+    }
+
+    static OrderResponse response(int items) {
+        Order order = order(items);
+        return OrderResponse.builder()
+                .id(order.getId())
+                .orderCode(order.getOrderCode())
+                .total(order.getTotal())
+                .status(order.getStatus())
+                .createdAt(order.getCreatedAt())
+                .deliveryName(order.getDeliveryName())
+                .deliveryEmail(order.getDeliveryEmail())
+                .deliveryPhone(order.getDeliveryPhone())
+                .deliveryAddress(order.getDeliveryAddress())
+                .deliveryCity(order.getDeliveryCity())
+                .deliveryCounty(order.getDeliveryCounty())
+                .deliveryPostalCode(order.getDeliveryPostalCode())
+                .deliveryCountry(order.getDeliveryCountry())
+                .items(order.getItems().stream()
+                        .map(item -> OrderResponse.OrderItemResponse.builder()
+                                .id(item.getId())
+                                .productName(item.getProduct().getName())
+                                .quantity(item.getQuantity())
+                                .price(item.getPrice())
+                                .subtotal(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                                .build())
+                        .toList())
+                .build();
+    }
+}
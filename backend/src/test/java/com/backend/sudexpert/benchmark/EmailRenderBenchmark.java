@@ -0,0 +1,58 @@
+package com.backend.sudexpert.benchmark;
+
+import com.backend.sudexpert.domain.EmailType;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.service.CheckoutTracing;
+import com.backend.sudexpert.service.EmailService;
+import com.backend.sudexpert.service.EmailTemplates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order confirmation rendering: the old String.format implementation against the precompiled
+ * template; the gc profiler's gc.alloc.rate.norm is the bytes allocated per email.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailRenderBenchmark {
+
+    @Param({"3", "20"})
+    private int items;
+
+    private EmailService emailService;
+    private OrderResponse order;
+
+    @Setup
+    public void setUp() {
+        emailService = new EmailService(null, new EmailTemplates(), new SimpleMeterRegistry(),
+                new CheckoutTracing(Tracer.NOOP));
+        order = BenchmarkOrders.response(items);
+    }
+
+    @Benchmark
+    public String legacyStringFormat() {
+        return LegacyOrderEmailRenderer.render(order);
+    }
+
+    @Benchmark
+    public String precompiledTemplate() {
+        return emailService.renderOrderEmail(EmailType.ORDER_CONFIRMATION, order);
+    }
+}
@@ -0,0 +1,96 @@
+package com.backend.sudexpert.benchmark;
+
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.CategorySummary;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.dto.ProductSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Response bodies as Spring MVC writes them, with an ObjectMapper configured like Boot's:
+ * a Product entity (POST /api/products), a cached ProductSummary (GET /api/products/{id}), a page
+ * of summaries (GET /api/products/category/{id}) and an OrderResponse with {@code items} lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private ProductSummary summary;
+    private List<ProductSummary> page;
+
+    /**
+     * Only the order benchmark varies with the basket size.
+     */
+    @State(Scope.Benchmark)
+    public static class Basket {
+
+        @Param({"3", "20"})
+        private int items;
+
+        private OrderResponse order;
+
+        @Setup
+        public void setUp() {
+            order = BenchmarkOrders.response(items);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        product = BenchmarkOrders.product(0);
+        summary = summary(product);
+        page = IntStream.range(0, PAGE_SIZE).mapToObj(i -> summary(BenchmarkOrders.product(i))).toList();
+    }
+
+    @Benchmark
+    public byte[] productEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] productSummary() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] productPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] orderResponse(Basket basket) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(basket.order);
+    }
+
+    private static ProductSummary summary(Product product) {
+        return new ProductSummary(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getStock(), product.getImageUrl(),
+                new CategorySummary(product.getCategory().getId(), product.getCategory().getName()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.backend.sudexpert.benchmark;
+
+import com.backend.sudexpert.config.JwtService;
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a JWT.
+ * <ul>
+ *   <li>{@code legacyThreeParses} – what JwtAuthenticationFilter used to do: extractUsername and
+ *   isTokenValid (subject + expiration), each decoding the key and building a new parser.</li>
+ *   <li>{@code validateUncached} – one parse with the shared key and parser; tokens rotate through
+ *   more distinct values than the LRU holds, so every call misses.</li>
+ *   <li>{@code validateCached} – a token seen before, served from the verified-token LRU.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final int DISTINCT_TOKENS = 1024;
+
+    private JwtService uncachedService;
+    private JwtService cachedService;
+    private String token;
+    private String[] rotatingTokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        uncachedService = new JwtService(SECRET, 86400000, 16);
+        cachedService = new JwtService(SECRET, 86400000, 1024);
+        token = cachedService.generateToken(user("bench@example.com"));
+        cachedService.validateToken(token);
+        rotatingTokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            rotatingTokens[i] = uncachedService.generateToken(user("bench" + i + "@example.com"));
+        }
+    }
+
+    @Benchmark
+    public boolean legacyThreeParses() {
+        String username = legacyParse().getSubject();
+        boolean sameUser = username.equals(legacyParse().getSubject());
+        return sameUser && !legacyParse().getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public Claims validateUncached() {
+        next = (next + 1) % DISTINCT_TOKENS;
+        return uncachedService.validateToken(rotatingTokens[next]).orElseThrow();
+    }
+
+    @Benchmark
+    public Claims validateCached() {
+        return cachedService.validateToken(token).orElseThrow();
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .email(email)
+                .password("password")
+                .role(Role.USER)
+                .build();
+    }
+
+    private Claims legacyParse() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
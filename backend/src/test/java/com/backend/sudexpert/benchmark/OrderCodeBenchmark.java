@@ -0,0 +1,89 @@
+package com.backend.sudexpert.benchmark;
+
+import com.backend.sudexpert.domain.OrderCodeSequence;
+import com.backend.sudexpert.repository.OrderCodeSequenceRepository;
+import com.backend.sudexpert.service.OrderCodeAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OrderCodeAllocator.nextOrderCode with the default block of 20 codes. The counter row is an
+ * in-memory stand-in, so this is the allocator's own cost (lock, date, formatting) plus the
+ * amortised bookkeeping of a block reservation, not the database round trip it saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderCodeBenchmark {
+
+    private static final int BLOCK_SIZE = 20;
+
+    private OrderCodeAllocator allocator;
+
+    @Setup
+    public void setUp() {
+        allocator = new OrderCodeAllocator(inMemorySequence(), null, new NoTransactions(), BLOCK_SIZE);
+    }
+
+    @Benchmark
+    public String nextOrderCode() {
+        return allocator.nextOrderCode();
+    }
+
+    /**
+     * Answers advance and findById for a single counter that every day shares; the allocator calls
+     * nothing else once the row exists.
+     */
+    private static OrderCodeSequenceRepository inMemorySequence() {
+        AtomicLong allocatedUpTo = new AtomicLong();
+        return (OrderCodeSequenceRepository) Proxy.newProxyInstance(OrderCodeSequenceRepository.class.getClassLoader(),
+                new Class<?>[]{OrderCodeSequenceRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "advance" -> {
+                        allocatedUpTo.addAndGet((Long) args[1]);
+                        yield 1;
+                    }
+                    case "findById" -> Optional.of(OrderCodeSequence.builder()
+                            .sequenceDate((String) args[0])
+                            .allocatedUpTo(allocatedUpTo.get())
+                            .build());
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static final class NoTransactions implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
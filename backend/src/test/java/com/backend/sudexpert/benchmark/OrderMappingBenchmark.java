@@ -0,0 +1,53 @@
+package com.backend.sudexpert.benchmark;
+
+import com.backend.sudexpert.domain.Order;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.service.CheckoutTracing;
+import com.backend.sudexpert.service.OrderMetrics;
+import com.backend.sudexpert.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.mapToOrderResponse, which every order read (details, history page, email) goes
+ * through, for a small and a large basket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMappingBenchmark {
+
+    @Param({"3", "20"})
+    private int items;
+
+    private OrderService orderService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        orderService = new OrderService(null, null, null, null, null,
+                new OrderMetrics(new SimpleMeterRegistry()), new CheckoutTracing(Tracer.NOOP), null);
+        order = BenchmarkOrders.order(items);
+    }
+
+    @Benchmark
+    public OrderResponse mapToOrderResponse() {
+        return orderService.mapToOrderResponse(order);
+    }
+}
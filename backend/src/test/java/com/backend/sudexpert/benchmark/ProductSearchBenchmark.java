@@ -0,0 +1,81 @@
+package com.backend.sudexpert.benchmark;
+
+import com.backend.sudexpert.dto.CategorySummary;
+import com.backend.sudexpert.dto.ProductSummary;
+import com.backend.sudexpert.repository.ProductRepository;
+import com.backend.sudexpert.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductSearchIndex.search over a catalog of {@code products} welding products, for a query
+ * whose terms match exactly after folding ("sarma inox") and one that needs the trigram
+ * fallback ("electrozi rutilici" against "Electrod rutilic").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] NAMES = {"Electrod rutilic", "Electrod bazic", "Sârmă MIG", "Sârmă inox", "Invertor",
+            "Mască", "Clește"};
+    private static final CategorySummary ELECTROZI = new CategorySummary(1L, "Electrozi");
+    private static final CategorySummary SARMA = new CategorySummary(2L, "Sârmă sudură");
+
+    @Param({"5000"})
+    private int products;
+
+    private ProductSearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        List<ProductSummary> catalog = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            catalog.add(new ProductSummary(id, NAMES[(int) (id % NAMES.length)] + " model " + id,
+                    "Echipament profesional pentru sudură, seria " + (id % 97), new BigDecimal("10.00"), 10, null,
+                    id % 2 == 0 ? ELECTROZI : SARMA));
+        }
+        searchIndex = new ProductSearchIndex(catalogOf(catalog));
+        searchIndex.rebuild();
+    }
+
+    @Benchmark
+    public List<ProductSummary> exactTerms() {
+        return searchIndex.search("sarma inox");
+    }
+
+    @Benchmark
+    public List<ProductSummary> fuzzyTerms() {
+        return searchIndex.search("electrozi rutilici");
+    }
+
+    /**
+     * Answers findAllSummaries, the only call a rebuild makes.
+     */
+    private static ProductRepository catalogOf(List<ProductSummary> catalog) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllSummaries" -> catalog;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
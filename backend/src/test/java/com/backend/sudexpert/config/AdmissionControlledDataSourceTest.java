@@ -0,0 +1,95 @@
+package com.backend.sudexpert.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlledDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    private AdmissionControlledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new AdmissionControlledDataSource(target, 2, Duration.ofMillis(100));
+    }
+
+    @Test
+    void getConnection_WhenAllPermitsTaken_ShouldFailAfterTimeout() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        assertEquals(2, dataSource.getInUse());
+        assertEquals(1, dataSource.getRejected());
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void close_ShouldReturnPermitOnceToWaitingCaller() throws Exception {
+        dataSource = new AdmissionControlledDataSource(target, 1, Duration.ofSeconds(5));
+        when(target.getConnection()).thenReturn(connection);
+        Connection first = dataSource.getConnection();
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 2000;
+        while (dataSource.getWaiting() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, dataSource.getWaiting());
+
+        first.close();
+        first.close();
+
+        assertNotNull(waiting.get(2, TimeUnit.SECONDS));
+        assertEquals(1, dataSource.getInUse());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_WhenPoolFails_ShouldReturnPermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(0, dataSource.getInUse());
+    }
+
+    @Test
+    void proxy_ShouldForwardCallsAndKeepIdentity() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(false);
+        Connection admitted = dataSource.getConnection();
+
+        assertFalse(admitted.getAutoCommit());
+        assertEquals(admitted, admitted);
+        assertNotEquals(admitted, connection);
+    }
+}
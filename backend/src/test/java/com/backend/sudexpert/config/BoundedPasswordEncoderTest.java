@@ -0,0 +1,94 @@
+package com.backend.sudexpert.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private SimpleMeterRegistry registry;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 4, 2, 4, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_ShouldRunOnHashingPoolAndRecordTime() {
+        String hash = encoder.encode("password123");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, registry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, registry.get("auth.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void upgradeEncoding_ShouldFlagHashesWithDifferentCost() {
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password123")));
+        assertTrue(encoder.upgradeEncoding("$2b$10$abcdefghijklmnopqrstuu5x6aC6dtyYK8SjPH3Y8Kqf3P2ZxT8Xu"));
+        assertFalse(encoder.upgradeEncoding("plain"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    void encode_WhenPoolAndQueueAreFull_ShouldRejectImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        SimpleMeterRegistry saturatedRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(slow, 4, 1, 1, saturatedRegistry);
+        List<CompletableFuture<String>> inFlight = new ArrayList<>();
+        try {
+            inFlight.add(CompletableFuture.supplyAsync(() -> bounded.encode("a")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            inFlight.add(CompletableFuture.supplyAsync(() -> bounded.encode("b")));
+            waitForQueueDepth(saturatedRegistry, 1);
+
+            assertThrows(PasswordHashingRejectedException.class, () -> bounded.encode("c"));
+            assertEquals(1.0, saturatedRegistry.get("auth.password.hash.rejected").counter().count());
+
+            release.countDown();
+            for (CompletableFuture<String> future : inFlight) {
+                assertEquals("hash", future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+            bounded.shutdown();
+        }
+    }
+
+    private static void waitForQueueDepth(SimpleMeterRegistry registry, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("auth.password.hash.queue").gauge().value() != expected) {
+            assertTrue(System.nanoTime() < deadline, "Queue never reached " + expected);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -8,7 +8,6 @@ import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.security.Key;
 import java.util.Date;
@@ -26,9 +25,7 @@ class JwtServiceTest {
 
     @BeforeEach
     void setUp() {
-        jwtService = new JwtService();
-        ReflectionTestUtils.setField(jwtService, "secretKey", secretKey);
-        ReflectionTestUtils.setField(jwtService, "jwtExpiration", jwtExpiration);
+        jwtService = new JwtService(secretKey, jwtExpiration, 16);
 
         testUser = User.builder()
                 .id(1L)
@@ -131,5 +128,47 @@ class JwtServiceTest {
 
         assertEquals("test@example.com", subject);
     }
-}
 
+    @Test
+    void validateToken_ShouldReturnClaimsFromSingleParse() {
+        String token = jwtService.generateToken(testUser);
+
+        Claims claims = jwtService.validateToken(token).orElseThrow();
+
+        assertEquals("test@example.com", claims.getSubject());
+        assertNotNull(claims.getIssuedAt());
+        assertSame(claims, jwtService.validateToken(token).orElseThrow());
+    }
+
+    @Test
+    void validateToken_WithTamperedToken_ShouldReturnEmpty() {
+        String token = jwtService.generateToken(testUser);
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+
+        assertTrue(jwtService.validateToken(forged).isEmpty());
+        assertTrue(jwtService.validateToken("not-a-jwt").isEmpty());
+        assertFalse(jwtService.isTokenValid(forged, testUser));
+    }
+
+    @Test
+    void validateToken_WithTokenSignedByOtherKey_ShouldReturnEmpty() {
+        JwtService otherService = new JwtService(
+                "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437", jwtExpiration, 16);
+        String token = otherService.generateToken(testUser);
+
+        assertTrue(jwtService.validateToken(token).isEmpty());
+    }
+
+    @Test
+    void validateToken_WithExpiredToken_ShouldReturnEmptyEvenAfterEarlierSuccess() throws InterruptedException {
+        JwtService shortLived = new JwtService(secretKey, 1000, 16);
+        String token = shortLived.generateToken(testUser);
+        assertTrue(shortLived.validateToken(token).isPresent());
+
+        Thread.sleep(1100);
+
+        assertTrue(shortLived.validateToken(token).isEmpty());
+        assertFalse(shortLived.isTokenValid(token, testUser));
+    }
+}
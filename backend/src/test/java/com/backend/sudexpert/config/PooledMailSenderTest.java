@@ -0,0 +1,174 @@
+package com.backend.sudexpert.config;
+
+import com.backend.sudexpert.config.PooledMailSender.SendResult;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledMailSenderTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private PooledMailSender sender;
+
+    @AfterEach
+    void tearDown() {
+        if (sender != null) {
+            sender.shutdown();
+        }
+    }
+
+    @Test
+    void sendAll_ShouldDeliverWholeBatchOverOneConnection() throws Exception {
+        sender = sender(2, Duration.ofMinutes(1), 100);
+
+        List<SendResult> results = sender.sendAll(messages(20));
+
+        assertEquals(20, results.size());
+        assertTrue(results.stream().allMatch(SendResult::isSent));
+        assertEquals(20, greenMail.getReceivedMessages().length);
+        assertEquals(1, sender.connectionsOpened());
+    }
+
+    @Test
+    void send_ShouldReusePooledSessionAcrossCalls() throws Exception {
+        sender = sender(2, Duration.ofMinutes(1), 100);
+
+        for (MimeMessage message : messages(5)) {
+            sender.send(message);
+        }
+
+        assertEquals(5, greenMail.getReceivedMessages().length);
+        assertEquals(1, sender.connectionsOpened());
+    }
+
+    @Test
+    void sendAll_ShouldReportRefusedMessageAndCarryOn() throws Exception {
+        sender = sender(1, Duration.ofMinutes(1), 100);
+        List<MimeMessage> batch = messages(3);
+        batch.set(1, sender.createMimeMessage());
+
+        List<SendResult> results = sender.sendAll(batch);
+
+        assertTrue(results.get(0).isSent());
+        assertFalse(results.get(1).isSent());
+        assertInstanceOf(SendFailedException.class, results.get(1).getError());
+        assertTrue(results.get(2).isSent());
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertEquals(1, sender.connectionsOpened());
+    }
+
+    @Test
+    void send_ShouldThrowMailSendExceptionForRefusedMessage() throws Exception {
+        sender = sender(1, Duration.ofMinutes(1), 100);
+        MimeMessage noRecipients = sender.createMimeMessage();
+
+        MailSendException e = assertThrows(MailSendException.class, () -> sender.send(noRecipients));
+
+        assertTrue(e.getFailedMessages().containsKey(noRecipients));
+    }
+
+    @Test
+    void sendAll_ShouldRetireSessionAfterMaxMessages() throws Exception {
+        sender = sender(1, Duration.ofMinutes(1), 5);
+
+        List<SendResult> results = sender.sendAll(messages(12));
+
+        assertTrue(results.stream().allMatch(SendResult::isSent));
+        assertEquals(12, greenMail.getReceivedMessages().length);
+        assertEquals(3, sender.connectionsOpened());
+    }
+
+    @Test
+    void send_ShouldNotReuseSessionIdleLongerThanTimeout() throws Exception {
+        sender = sender(1, Duration.ZERO, 100);
+
+        sender.send(messages(1).get(0));
+        sender.send(messages(1).get(0));
+
+        assertEquals(2, sender.connectionsOpened());
+    }
+
+    @Test
+    void send_ShouldReconnectWhenServerDroppedPooledSession() throws Exception {
+        sender = sender(1, Duration.ofMinutes(1), 100);
+        sender.send(messages(1).get(0));
+
+        greenMail.reset();
+        sender.send(messages(1).get(0));
+
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(2, sender.connectionsOpened());
+    }
+
+    @Test
+    void sendAll_ShouldFailWholeBatchWhenServerIsUnreachable() throws Exception {
+        sender = sender(1, Duration.ofMinutes(1), 100);
+        sender.setPort(1);
+
+        List<SendResult> results = sender.sendAll(messages(3));
+
+        assertTrue(results.stream().noneMatch(SendResult::isSent));
+        assertEquals(0, sender.connectionsOpened());
+    }
+
+    @Test
+    void sendAll_ShouldNeverOpenMoreSessionsThanPoolSize() throws Exception {
+        sender = sender(2, Duration.ofMinutes(1), 100);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<List<SendResult>>> batches = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                List<MimeMessage> batch = messages(10);
+                batches.add(callers.submit(() -> sender.sendAll(batch)));
+            }
+            for (Future<List<SendResult>> batch : batches) {
+                assertTrue(batch.get().stream().allMatch(SendResult::isSent));
+            }
+        } finally {
+            callers.shutdown();
+        }
+
+        assertEquals(60, greenMail.getReceivedMessages().length);
+        assertTrue(sender.connectionsOpened() <= 2);
+    }
+
+    private static PooledMailSender sender(int maxSessions, Duration idleTimeout, int maxMessagesPerSession) {
+        PooledMailSender sender = new PooledMailSender(maxSessions, idleTimeout, maxMessagesPerSession,
+                Duration.ofSeconds(10));
+        sender.setHost("localhost");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        return sender;
+    }
+
+    private List<MimeMessage> messages(int count) throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MimeMessage message = sender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+            helper.setFrom("comenzi@sudexpert.ro");
+            helper.setTo("client" + i + "@example.com");
+            helper.setSubject("Comanda #" + i);
+            helper.setText("<p>Comanda " + i + "</p>", true);
+            messages.add(message);
+        }
+        return messages;
+    }
+}
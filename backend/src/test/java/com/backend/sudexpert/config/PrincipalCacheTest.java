@@ -0,0 +1,114 @@
+package com.backend.sudexpert.config;
+
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private PrincipalCache principalCache;
+    private User testUser;
+    private AtomicInteger loads;
+    private Supplier<UserDetails> loader;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        testUser = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .password("$2a$10$hash")
+                .firstName("John")
+                .lastName("Doe")
+                .role(Role.USER)
+                .build();
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return testUser;
+        };
+    }
+
+    @Test
+    void get_ShouldLoadOncePerEmailAndIssueTime() {
+        Date issuedAt = new Date(1_700_000_000_000L);
+
+        UserDetails first = principalCache.get("test@example.com", issuedAt, loader);
+        UserDetails second = principalCache.get("test@example.com", issuedAt, loader);
+        principalCache.get("test@example.com", new Date(1_700_000_060_000L), loader);
+
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+        assertEquals("test@example.com", first.getUsername());
+        assertEquals(Role.USER.name(), first.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void get_ShouldNotKeepPasswordHash() {
+        UserDetails cached = principalCache.get("test@example.com", new Date(), loader);
+
+        assertEquals("", cached.getPassword());
+        assertEquals("$2a$10$hash", testUser.getPassword());
+    }
+
+    @Test
+    void get_WhenLoaderFails_ShouldPropagateAndNotCache() {
+        Date issuedAt = new Date();
+
+        assertThrows(UsernameNotFoundException.class, () -> principalCache.get("missing@example.com", issuedAt,
+                () -> {
+                    throw new UsernameNotFoundException("User not found");
+                }));
+        principalCache.get("missing@example.com", issuedAt, loader);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evictionListener_ShouldEvictEveryTokenOfUserEvenAfterEmailChange() {
+        principalCache.get("test@example.com", new Date(1_000L), loader);
+        principalCache.get("test@example.com", new Date(2_000L), loader);
+        testUser.setEmail("renamed@example.com");
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("principalCache", principalCache));
+        new PrincipalCacheEvictionListener(beans.getBeanProvider(PrincipalCache.class)).onUserChanged(testUser);
+        principalCache.get("test@example.com", new Date(1_000L), loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evictionListener_InTransaction_ShouldEvictOnlyAfterCommit() {
+        principalCache.get("test@example.com", new Date(1_000L), loader);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("principalCache", principalCache));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            new PrincipalCacheEvictionListener(beans.getBeanProvider(PrincipalCache.class)).onUserChanged(testUser);
+            principalCache.get("test@example.com", new Date(1_000L), loader);
+            assertEquals(1, loads.get());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        principalCache.get("test@example.com", new Date(1_000L), loader);
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -1,17 +1,21 @@
 package com.backend.sudexpert.controller;
 
 import com.backend.sudexpert.config.JwtService;
+import com.backend.sudexpert.config.PasswordHashingRejectedException;
+import com.backend.sudexpert.config.PrincipalCache;
 import com.backend.sudexpert.dto.AuthenticationRequest;
 import com.backend.sudexpert.dto.AuthenticationResponse;
 import com.backend.sudexpert.dto.RegisterRequest;
 import com.backend.sudexpert.service.AuthenticationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -21,6 +25,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AuthenticationController.class)
+@Import(SimpleMeterRegistry.class)
 @AutoConfigureMockMvc(addFilters = false)
 class AuthenticationControllerTest {
 
@@ -36,6 +41,9 @@ class AuthenticationControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private PrincipalCache principalCache;
+
     private RegisterRequest registerRequest;
     private AuthenticationRequest authenticationRequest;
     private AuthenticationResponse authenticationResponse;
@@ -125,5 +133,17 @@ class AuthenticationControllerTest {
                 request.getPassword().equals("password123")
         ));
     }
-}
 
+    @Test
+    void authenticate_WhenHashingIsSaturated_ShouldReturnTooManyRequests() throws Exception {
+        when(authenticationService.authenticate(any(AuthenticationRequest.class)))
+                .thenThrow(new PasswordHashingRejectedException());
+
+        mockMvc.perform(post("/api/auth/authenticate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authenticationRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(header().doesNotExist("Set-Cookie"));
+    }
+}
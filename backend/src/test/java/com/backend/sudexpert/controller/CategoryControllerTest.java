@@ -1,15 +1,19 @@
 package com.backend.sudexpert.controller;
 
 import com.backend.sudexpert.config.JwtService;
+import com.backend.sudexpert.config.PrincipalCache;
 import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.dto.CategorySummary;
 import com.backend.sudexpert.service.CategoryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -22,6 +26,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CategoryController.class)
+@Import(SimpleMeterRegistry.class)
 @AutoConfigureMockMvc(addFilters = false)
 class CategoryControllerTest {
 
@@ -37,6 +42,9 @@ class CategoryControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private PrincipalCache principalCache;
+
     private Category testCategory;
 
     @BeforeEach
@@ -53,7 +61,9 @@ class CategoryControllerTest {
                 .id(2L)
                 .name("Sârmă de sudură")
                 .build();
-        List<Category> categories = Arrays.asList(testCategory, category2);
+        List<CategorySummary> categories = Arrays.asList(
+                CategorySummary.builder().id(testCategory.getId()).name(testCategory.getName()).build(),
+                CategorySummary.builder().id(category2.getId()).name(category2.getName()).build());
         when(categoryService.getAllCategories()).thenReturn(categories);
 
         mockMvc.perform(get("/api/categories"))
@@ -94,7 +104,7 @@ class CategoryControllerTest {
 
     @Test
     void getCategoryById_WhenCategoryExists_ShouldReturnCategory() throws Exception {
-        when(categoryService.getCategoryById(1L)).thenReturn(testCategory);
+        when(categoryService.getCategoryById(1L)).thenReturn(new CategorySummary(1L, "Electrozi"));
 
         mockMvc.perform(get("/api/categories/1"))
                 .andExpect(status().isOk())
@@ -1,17 +1,22 @@
 package com.backend.sudexpert.controller;
 
 import com.backend.sudexpert.config.JwtService;
+import com.backend.sudexpert.config.PrincipalCache;
 import com.backend.sudexpert.domain.*;
+import com.backend.sudexpert.dto.OrderHistoryResponse;
 import com.backend.sudexpert.dto.OrderRequest;
 import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.service.InsufficientStockException;
 import com.backend.sudexpert.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -29,6 +34,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(OrderController.class)
+@Import(SimpleMeterRegistry.class)
 class OrderControllerTest {
 
     @Autowired
@@ -43,6 +49,9 @@ class OrderControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private PrincipalCache principalCache;
+
     private Order testOrder;
     private OrderResponse testOrderResponse;
     private User testUser;
@@ -100,19 +109,35 @@ class OrderControllerTest {
     @Test
     @WithMockUser(username = "test@example.com")
     void getMyOrders_ShouldReturnUserOrders() throws Exception {
-        List<Order> orders = Arrays.asList(testOrder);
-        when(orderService.getOrdersByUser("test@example.com")).thenReturn(orders);
+        OrderHistoryResponse history = OrderHistoryResponse.builder()
+                .items(List.of(testOrderResponse))
+                .nextCursor("next")
+                .build();
+        when(orderService.getOrderHistory("test@example.com", null, 20)).thenReturn(history);
 
         mockMvc.perform(get("/api/orders"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(1))
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].total").value(300.00))
-                .andExpect(jsonPath("$[0].status").value("PENDING"));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].total").value(300.00))
+                .andExpect(jsonPath("$.items[0].status").value("PENDING"))
+                .andExpect(jsonPath("$.items[0].items[0].productName").exists())
+                .andExpect(jsonPath("$.items[0].user").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(orderService, times(1)).getOrderHistory("test@example.com", null, 20);
+    }
 
-        verify(orderService, times(1)).getOrdersByUser("test@example.com");
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void getMyOrders_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        when(orderService.getOrderHistory("test@example.com", "bad", 10))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/orders").param("cursor", "bad").param("size", "10"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -149,5 +174,33 @@ class OrderControllerTest {
 
         verify(orderService, times(1)).createOrder(any(OrderRequest.class), eq("test@example.com"));
     }
-}
 
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void createOrder_WhenStockIsShort_ShouldReturnConflict() throws Exception {
+        OrderRequest orderRequest = OrderRequest.builder()
+                .items(Arrays.asList(
+                        OrderRequest.OrderItemRequest.builder()
+                                .product(OrderRequest.ProductReference.builder().id(1L).build())
+                                .quantity(200)
+                                .build()
+                ))
+                .deliveryName("John Doe")
+                .deliveryEmail("test@example.com")
+                .deliveryPhone("0712345678")
+                .deliveryAddress("Strada Test 123")
+                .deliveryCity("București")
+                .deliveryPostalCode("010101")
+                .deliveryCountry("Romania")
+                .build();
+
+        when(orderService.createOrder(any(OrderRequest.class), eq("test@example.com")))
+                .thenThrow(new InsufficientStockException("Insufficient stock for products [1]"));
+
+        mockMvc.perform(post("/api/orders")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isConflict());
+    }
+}
@@ -1,25 +1,44 @@
 package com.backend.sudexpert.controller;
 
 import com.backend.sudexpert.config.JwtService;
+import com.backend.sudexpert.config.PrincipalCache;
 import com.backend.sudexpert.domain.Category;
 import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.CategorySummary;
+import com.backend.sudexpert.dto.ProductSearchCriteria;
+import com.backend.sudexpert.dto.ProductSearchResponse;
+import com.backend.sudexpert.dto.ProductSummary;
+import com.backend.sudexpert.service.CatalogSnapshotService;
 import com.backend.sudexpert.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -27,6 +46,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProductController.class)
+@Import({CatalogSnapshotService.class, SimpleMeterRegistry.class})
 class ProductControllerTest {
 
     @Autowired
@@ -41,6 +61,9 @@ class ProductControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private PrincipalCache principalCache;
+
     private Product testProduct;
     private Category testCategory;
 
@@ -70,7 +93,7 @@ class ProductControllerTest {
                 .name("Sârmă sudură")
                 .price(new BigDecimal("200.00"))
                 .build();
-        List<Product> products = Arrays.asList(testProduct, product2);
+        List<ProductSummary> products = Arrays.asList(summary(testProduct), summary(product2));
         when(productService.getAllProducts()).thenReturn(products);
 
         mockMvc.perform(get("/api/products"))
@@ -81,15 +104,81 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("Electrozi E6013"))
                 .andExpect(jsonPath("$[0].price").value(150.00))
+                .andExpect(jsonPath("$[0].category.id").value(1))
+                .andExpect(jsonPath("$[0].category.name").value("Electrozi"))
                 .andExpect(jsonPath("$[1].id").value(2));
 
         verify(productService, times(1)).getAllProducts();
     }
 
+    @Test
+    @WithMockUser
+    void getAllProducts_ShouldSetEtagAndCacheControl() throws Exception {
+        when(productService.getAllProducts()).thenReturn(List.of(summary(testProduct)));
+
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"));
+    }
+
+    @Test
+    @WithMockUser
+    void getAllProducts_WhenEtagMatches_ShouldReturnNotModified() throws Exception {
+        when(productService.getAllProducts()).thenReturn(List.of(summary(testProduct)));
+        String etag = mockMvc.perform(get("/api/products"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser
+    void getAllProducts_WhenGzipAccepted_ShouldReturnCompressedSnapshot() throws Exception {
+        when(productService.getAllProducts()).thenReturn(List.of(summary(testProduct)));
+        String plain = mockMvc.perform(get("/api/products"))
+                .andReturn().getResponse().getContentAsString();
+
+        MvcResult result = mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(plain, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void getAllProducts_WhenGzipRefusedWithZeroQuality_ShouldReturnPlainSnapshot() throws Exception {
+        when(productService.getAllProducts()).thenReturn(List.of(summary(testProduct)));
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$[0].name").value("Electrozi E6013"));
+    }
+
+    @Test
+    void acceptsGzip_ShouldParseCodingsAndQualities() {
+        assertTrue(ProductController.acceptsGzip("gzip"));
+        assertTrue(ProductController.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(ProductController.acceptsGzip("br;q=1.0, *;q=0.1"));
+        assertFalse(ProductController.acceptsGzip(null));
+        assertFalse(ProductController.acceptsGzip("gzip;q=0"));
+        assertFalse(ProductController.acceptsGzip("gzip; q=0.000, *"));
+        assertFalse(ProductController.acceptsGzip("*;q=0"));
+        assertFalse(ProductController.acceptsGzip("x-nogzip, identity"));
+    }
+
     @Test
     @WithMockUser
     void getProductById_WhenProductExists_ShouldReturnProduct() throws Exception {
-        when(productService.getProductById(1L)).thenReturn(testProduct);
+        when(productService.getProductById(1L)).thenReturn(summary(testProduct));
 
         mockMvc.perform(get("/api/products/1"))
                 .andExpect(status().isOk())
@@ -156,7 +245,7 @@ class ProductControllerTest {
                 .category(testCategory)
                 .price(new BigDecimal("180.00"))
                 .build();
-        List<Product> products = Arrays.asList(testProduct, product2);
+        List<ProductSummary> products = Arrays.asList(summary(testProduct), summary(product2));
         when(productService.getProductsByCategory(1L)).thenReturn(products);
 
         mockMvc.perform(get("/api/products/category/1"))
@@ -169,5 +258,69 @@ class ProductControllerTest {
 
         verify(productService, times(1)).getProductsByCategory(1L);
     }
-}
 
+    @Test
+    @WithMockUser
+    void searchProducts_ShouldPassFiltersAndReturnPage() throws Exception {
+        ProductSearchResponse response = ProductSearchResponse.builder()
+                .items(List.of(summary(testProduct)))
+                .total(1)
+                .nextCursor(null)
+                .build();
+        when(productService.searchProducts(any(ProductSearchCriteria.class), eq(null), eq(12))).thenReturn(response);
+
+        mockMvc.perform(get("/api/products/search")
+                        .param("q", "electrozi")
+                        .param("categoryId", "1")
+                        .param("minPrice", "100")
+                        .param("stock", "in-stock")
+                        .param("sort", "price-asc")
+                        .param("size", "12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Electrozi E6013"));
+
+        verify(productService).searchProducts(argThat(c -> "electrozi".equals(c.getQuery())
+                && c.getCategoryId() == 1L
+                && new BigDecimal("100").equals(c.getMinPrice())
+                && c.getStock() == ProductSearchCriteria.StockTier.IN_STOCK
+                && c.getSort() == ProductSearchCriteria.Sort.PRICE_ASC), eq(null), eq(12));
+    }
+
+    @Test
+    @WithMockUser
+    void searchProducts_WithUnknownSort_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/products/search").param("sort", "popularity"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).searchProducts(any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser
+    void searchProducts_WithMalformedPriceCursor_ShouldReturnBadRequest() throws Exception {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("price-asc|abc|5".getBytes(StandardCharsets.UTF_8));
+        when(productService.searchProducts(any(ProductSearchCriteria.class), eq(cursor), anyInt())).thenCallRealMethod();
+
+        mockMvc.perform(get("/api/products/search").param("sort", "price-asc").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ProductSummary summary(Product product) {
+        return ProductSummary.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .stock(product.getStock())
+                .imageUrl(product.getImageUrl())
+                .category(product.getCategory() != null
+                        ? CategorySummary.builder()
+                                .id(product.getCategory().getId())
+                                .name(product.getCategory().getName())
+                                .build()
+                        : null)
+                .build();
+    }
+}
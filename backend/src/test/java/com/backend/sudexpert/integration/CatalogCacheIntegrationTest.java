@@ -0,0 +1,142 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.config.CacheConfig;
+import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.domain.Order;
+import com.backend.sudexpert.domain.OrderItem;
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.ProductSummary;
+import com.backend.sudexpert.repository.ProductRepository;
+import com.backend.sudexpert.service.CatalogSnapshotService;
+import com.backend.sudexpert.service.CategoryService;
+import com.backend.sudexpert.service.ProductService;
+import com.backend.sudexpert.service.StockReservationService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogCacheIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        clearInvocations(productRepository);
+    }
+
+    @Test
+    void getAllProducts_ShouldHitDatabaseOnceAndThenServeFromCache() {
+        List<ProductSummary> first = productService.getAllProducts();
+        List<ProductSummary> second = productService.getAllProducts();
+
+        assertSame(first, second);
+        verify(productRepository, times(1)).findAllSummaries();
+        CacheStats stats = nativeCache(CacheConfig.PRODUCTS).stats();
+        assertTrue(stats.hitCount() >= 1);
+        assertTrue(stats.missCount() >= 1);
+    }
+
+    @Test
+    void getProductById_ShouldBeCachedPerId() {
+        Long id = productService.getAllProducts().get(0).getId();
+
+        productService.getProductById(id);
+        productService.getProductById(id);
+
+        verify(productRepository, times(1)).findSummaryById(id);
+    }
+
+    @Test
+    void createProduct_ShouldInvalidateProductCaches() {
+        int before = productService.getAllProducts().size();
+        Long categoryId = categoryService.getAllCategories().get(0).getId();
+        productService.getProductsByCategory(categoryId);
+
+        productService.createProduct(Product.builder()
+                .name("Electrod nou")
+                .price(new BigDecimal("10.00"))
+                .stock(5)
+                .category(Category.builder().id(categoryId).build())
+                .build());
+
+        assertEquals(before + 1, productService.getAllProducts().size());
+        productService.getProductsByCategory(categoryId);
+        verify(productRepository, times(2)).findAllSummaries();
+        verify(productRepository, times(2)).findSummariesByCategoryId(categoryId);
+    }
+
+    @Test
+    void reserve_ShouldRefreshCachedListsAndSnapshotAfterCommit() {
+        Long categoryId = categoryService.getAllCategories().get(0).getId();
+        Product product = productService.createProduct(Product.builder()
+                .name("Electrod rezervat")
+                .price(new BigDecimal("10.00"))
+                .stock(5)
+                .category(Category.builder().id(categoryId).build())
+                .build());
+        String etagBefore = catalogSnapshotService.getProductsSnapshot().getEtag();
+        productService.getProductsByCategory(categoryId);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                stockReservationService.reserve(Order.builder()
+                        .items(List.of(OrderItem.builder().product(product).quantity(2).build()))
+                        .build()));
+
+        assertEquals(3, stockOf(productService.getAllProducts(), product.getId()));
+        assertEquals(3, stockOf(productService.getProductsByCategory(categoryId), product.getId()));
+        assertNotEquals(etagBefore, catalogSnapshotService.getProductsSnapshot().getEtag());
+    }
+
+    @Test
+    void createCategory_ShouldInvalidateCategoryCache() {
+        int before = categoryService.getAllCategories().size();
+
+        categoryService.createCategory(Category.builder().name("Categorie " + System.nanoTime()).build());
+
+        assertEquals(before + 1, categoryService.getAllCategories().size());
+    }
+
+    private static int stockOf(List<ProductSummary> products, Long id) {
+        return products.stream().filter(p -> p.getId().equals(id)).findFirst().orElseThrow().getStock();
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
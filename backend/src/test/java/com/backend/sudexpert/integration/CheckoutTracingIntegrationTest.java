@@ -0,0 +1,263 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.config.PooledMailSender;
+import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.domain.EmailOutboxStatus;
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.domain.WebhookEventStatus;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.dto.PaymentIntentRequest;
+import com.backend.sudexpert.repository.CategoryRepository;
+import com.backend.sudexpert.repository.EmailOutboxRepository;
+import com.backend.sudexpert.repository.ProductRepository;
+import com.backend.sudexpert.repository.StripeWebhookEventRepository;
+import com.backend.sudexpert.repository.UserRepository;
+import com.backend.sudexpert.service.EmailOutboxDispatcher;
+import com.backend.sudexpert.service.OrderService;
+import com.backend.sudexpert.service.StripeService;
+import com.backend.sudexpert.service.StripeWebhookDispatcher;
+import com.backend.sudexpert.service.StripeWebhookService;
+import com.stripe.Stripe;
+import com.stripe.net.Webhook;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.backend.sudexpert.integration.OrderRequests.item;
+import static com.backend.sudexpert.integration.OrderRequests.orderRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "stripe.webhook.secret=" + CheckoutTracingIntegrationTest.WEBHOOK_SECRET,
+        "spring.mail.username=comenzi@sudexpert.ro",
+        "management.tracing.sampling.probability=1.0",
+        "application.tracing.exporter=otlp-file",
+        "application.tracing.file=" + CheckoutTracingIntegrationTest.TRACE_FILE
+})
+@AutoConfigureObservability(metrics = false)
+@ActiveProfiles("test")
+class CheckoutTracingIntegrationTest {
+
+    static final String WEBHOOK_SECRET = "whsec_tracing_test";
+    static final String TRACE_FILE = "target/traces/checkout-tracing-test.jsonl";
+    private static final String EMAIL = "tracing@example.com";
+    private static final AttributeKey<String> ORDER_CODE = AttributeKey.stringKey("order.code");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StripeService stripeService;
+
+    @Autowired
+    private StripeWebhookService webhookService;
+
+    @Autowired
+    private StripeWebhookDispatcher webhookDispatcher;
+
+    @Autowired
+    private StripeWebhookEventRepository webhookEventRepository;
+
+    @Autowired
+    private EmailOutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private CollectingSpanExporter spans;
+
+    @MockBean
+    private PooledMailSender mailSender;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        webhookEventRepository.deleteAll();
+        outboxRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("password")
+                .firstName("Ion")
+                .lastName("Popescu")
+                .role(Role.USER)
+                .build()));
+        Category category = categoryRepository.save(Category.builder().name("Tracing " + System.nanoTime()).build());
+        product = productRepository.save(Product.builder()
+                .name("Electrod E6013").price(new BigDecimal("12.50")).stock(100).category(category).build());
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        spans.clear();
+    }
+
+    @Test
+    void createOrder_ShouldTagSpanWithOrderCodeAndNestStatements() {
+        OrderResponse order = createOrder();
+
+        SpanData create = span("order.create", order.getOrderCode());
+        assertTrue(flushed().stream().anyMatch(span -> span.getName().equals("query")
+                        && isDescendant(span, create)),
+                "No JDBC statement span under order.create");
+    }
+
+    @Test
+    void paymentIntent_ShouldRecordClientSpanForProviderCall() {
+        OrderResponse order = createOrder();
+
+        stripeService.createPaymentIntent(PaymentIntentRequest.builder().orderId(order.getId()).build(), EMAIL);
+
+        SpanData paymentIntent = span("payment.intent.create", order.getOrderCode());
+        SpanData call = flushed().stream()
+                .filter(span -> span.getName().equals("payments.gateway.create"))
+                .filter(span -> span.getParentSpanId().equals(paymentIntent.getSpanId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(SpanKind.CLIENT, call.getKind());
+        assertEquals("success", call.getAttributes().get(AttributeKey.stringKey("outcome")));
+    }
+
+    @Test
+    void webhookAndEmail_ShouldEachStartATraceTaggedWithTheOrderCode() throws Exception {
+        OrderResponse order = createOrder();
+        String payload = """
+                {"id": "evt_traced", "object": "event", "api_version": "%s", "type": "payment_intent.succeeded",
+                 "data": {"object": {"id": "pi_traced", "object": "payment_intent", "status": "succeeded",
+                                     "metadata": {"orderId": "%d"}}}}
+                """.formatted(Stripe.API_VERSION, order.getId());
+        long timestamp = System.currentTimeMillis() / 1000;
+        String signature = Webhook.Util.computeHmacSha256(WEBHOOK_SECRET, timestamp + "." + payload);
+        webhookService.receive(payload, "t=" + timestamp + ",v1=" + signature);
+
+        webhookDispatcher.dispatchDue();
+        await(() -> webhookEventRepository.findByEventId("evt_traced").orElseThrow().getStatus()
+                == WebhookEventStatus.PROCESSED);
+        outboxDispatcher.dispatchDue();
+        await(() -> outboxRepository.findAll().stream().allMatch(entry -> entry.getStatus() == EmailOutboxStatus.SENT));
+
+        SpanData webhook = span("payments.webhook.apply", order.getOrderCode());
+        SpanData outbox = span("email.outbox.send", order.getOrderCode());
+        SpanData email = span("email.send", order.getOrderCode());
+        assertEquals(outbox.getSpanId(), email.getParentSpanId());
+        assertEquals(SpanKind.CLIENT, email.getKind());
+        assertNotEquals(webhook.getTraceId(), outbox.getTraceId());
+        assertNotEquals(span("order.create", order.getOrderCode()).getTraceId(), webhook.getTraceId());
+
+        assertTrue(Files.readString(Path.of(TRACE_FILE)).contains(order.getOrderCode()),
+                "OTLP file export is missing the order's spans");
+    }
+
+    private OrderResponse createOrder() {
+        return orderService.createOrder(orderRequest(EMAIL, item(product, 1)), EMAIL);
+    }
+
+    private SpanData span(String name, String orderCode) {
+        return flushed().stream()
+                .filter(span -> span.getName().equals(name))
+                .filter(span -> orderCode.equals(span.getAttributes().get(ORDER_CODE)))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " span for order " + orderCode));
+    }
+
+    private boolean isDescendant(SpanData span, SpanData ancestor) {
+        List<SpanData> all = spans.finished;
+        SpanData current = span;
+        while (current != null && current.getTraceId().equals(ancestor.getTraceId())) {
+            if (current.getParentSpanId().equals(ancestor.getSpanId())) {
+                return true;
+            }
+            String parentId = current.getParentSpanId();
+            current = all.stream().filter(candidate -> candidate.getSpanId().equals(parentId)).findFirst().orElse(null);
+        }
+        return false;
+    }
+
+    private List<SpanData> flushed() {
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        return spans.finished;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the dispatcher");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class SpanCollection {
+
+        @Bean
+        CollectingSpanExporter collectingSpanExporter() {
+            return new CollectingSpanExporter();
+        }
+    }
+
+    static class CollectingSpanExporter implements SpanExporter {
+
+        final List<SpanData> finished = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> batch) {
+            finished.addAll(batch);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        void clear() {
+            finished.clear();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.config.AdmissionControlledDataSource;
+import com.backend.sudexpert.config.MeteredDataSource;
+import com.backend.sudexpert.domain.StripeWebhookEvent;
+import com.backend.sudexpert.domain.WebhookEventStatus;
+import com.backend.sudexpert.repository.OrderRepository;
+import com.backend.sudexpert.repository.StripeWebhookEventRepository;
+import com.backend.sudexpert.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DataSourceMetricsIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StripeWebhookEventRepository webhookEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void dataSource_ShouldWrapTunedHikariPool() throws Exception {
+        assertInstanceOf(MeteredDataSource.class, dataSource);
+        assertTrue(dataSource.isWrapperFor(AdmissionControlledDataSource.class));
+
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        assertEquals(5, hikari.getMaximumPoolSize());
+        assertEquals(20000, hikari.getLeakDetectionThreshold());
+        assertFalse(hikari.isAutoCommit());
+        assertEquals(20, dataSource.unwrap(AdmissionControlledDataSource.class).getMaxPermits());
+    }
+
+    @Test
+    void repositoryCall_ShouldRecordAcquireAndExecutionTimeForItsMethod() {
+        long before = count("db.connection.acquire", "UserRepository", "findByEmail");
+
+        userRepository.findByEmail("nobody@example.com");
+
+        assertEquals(before + 1, count("db.connection.acquire", "UserRepository", "findByEmail"));
+        assertTrue(count("spring.data.repository.invocations", "UserRepository", "findByEmail") > 0);
+    }
+
+    @Test
+    void transaction_ShouldTakeConnectionAtItsFirstRepositoryCall() {
+        long before = count("db.connection.acquire", "OrderRepository", "findByOrderCode");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            orderRepository.findByOrderCode("ORD-20250314-0001");
+            userRepository.findByEmail("nobody@example.com");
+        });
+
+        assertEquals(before + 1, count("db.connection.acquire", "OrderRepository", "findByOrderCode"));
+    }
+
+    @Test
+    void repositoryWritesWithoutCallerTransaction_ShouldStillCommit() {
+        // the way schedulers write: straight repository calls, no surrounding transaction
+        StripeWebhookEvent event = webhookEventRepository.save(StripeWebhookEvent.builder()
+                .eventId("evt_autocommit_" + System.nanoTime())
+                .type("charge.refunded")
+                .payload("{}")
+                .status(WebhookEventStatus.PENDING)
+                .nextAttemptAt(LocalDateTime.now().plusDays(1))
+                .build());
+        assertEquals(1, webhookEventRepository.markProcessed(event.getId(), LocalDateTime.now()));
+
+        // read on another pooled connection: uncommitted work is rolled back when a connection is returned
+        assertEquals("PROCESSED", jdbcTemplate.queryForObject(
+                "select status from stripe_webhook_event where id = ?", String.class, event.getId()));
+    }
+
+    @Test
+    void hikariPool_ShouldPublishPoolMetrics() {
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "sudexpert-db").timer());
+        assertNotNull(meterRegistry.find("db.admission.permits").gauge());
+    }
+
+    private long count(String name, String repository, String method) {
+        return meterRegistry.find(name).tag("repository", repository).tag("method", method).timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
@@ -0,0 +1,95 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.config.DatabaseMigration;
+import com.backend.sudexpert.domain.Order;
+import com.backend.sudexpert.domain.OrderStatus;
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.repository.OrderRepository;
+import com.backend.sudexpert.repository.SchemaMigrationRepository;
+import com.backend.sudexpert.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "application.migration.chunk-size=7")
+@ActiveProfiles("test")
+class DatabaseMigrationIntegrationTest {
+
+    private static final String EMAIL = "migration@example.com";
+
+    @Autowired
+    private DatabaseMigration migration;
+
+    @Autowired
+    private SchemaMigrationRepository migrationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("password")
+                .firstName("Ion")
+                .lastName("Popescu")
+                .role(Role.USER)
+                .build()));
+    }
+
+    @Test
+    void run_ShouldRecordMigrationsAppliedAtStartup() {
+        assertTrue(migrationRepository.findAppliedVersions().containsAll(List.of(1, 2)));
+    }
+
+    @Test
+    void run_ShouldBackfillOrderCodesInChunksOnce() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(orderWithoutCode().getId());
+        }
+        migrationRepository.deleteById(1);
+
+        migration.run();
+
+        for (Long id : ids) {
+            String code = orderRepository.findById(id).orElseThrow().getOrderCode();
+            assertNotNull(code);
+            assertTrue(code.matches("ORD-\\d{8}-\\d{4,}") && code.endsWith(String.format("%04d", id)), code);
+        }
+        assertTrue(migrationRepository.existsById(1));
+
+        Long later = orderWithoutCode().getId();
+
+        migration.run();
+
+        assertNull(orderRepository.findById(later).orElseThrow().getOrderCode(), "Applied migration ran again");
+        jdbcTemplate.update("DELETE FROM _order WHERE id = ?", later);
+    }
+
+    private Order orderWithoutCode() {
+        return orderRepository.save(Order.builder()
+                .user(user)
+                .total(new BigDecimal("10.00"))
+                .status(OrderStatus.CANCELLED)
+                .build());
+    }
+}
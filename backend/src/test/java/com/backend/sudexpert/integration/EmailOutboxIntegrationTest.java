@@ -0,0 +1,212 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.domain.EmailOutbox;
+import com.backend.sudexpert.domain.EmailOutboxStatus;
+import com.backend.sudexpert.domain.EmailType;
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.domain.WebhookEventStatus;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.repository.CategoryRepository;
+import com.backend.sudexpert.repository.EmailOutboxRepository;
+import com.backend.sudexpert.repository.OrderRepository;
+import com.backend.sudexpert.repository.ProductRepository;
+import com.backend.sudexpert.repository.StripeWebhookEventRepository;
+import com.backend.sudexpert.repository.UserRepository;
+import com.backend.sudexpert.service.EmailOutboxDispatcher;
+import com.backend.sudexpert.service.EmailService;
+import com.backend.sudexpert.service.OrderService;
+import com.backend.sudexpert.service.StripeWebhookDispatcher;
+import com.backend.sudexpert.service.StripeWebhookService;
+import com.stripe.Stripe;
+import com.stripe.net.Webhook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static com.backend.sudexpert.integration.OrderRequests.item;
+import static com.backend.sudexpert.integration.OrderRequests.orderRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {
+        "stripe.webhook.secret=" + EmailOutboxIntegrationTest.WEBHOOK_SECRET,
+        "application.email.outbox.poll-interval=1h",
+        "application.payments.webhook.poll-interval=1h",
+        "application.email.outbox.backoff-base=0s"
+})
+@ActiveProfiles("test")
+class EmailOutboxIntegrationTest {
+
+    static final String WEBHOOK_SECRET = "whsec_outbox_test";
+    private static final String EMAIL = "outbox@example.com";
+
+    @Autowired
+    private StripeWebhookService webhookService;
+
+    @Autowired
+    private StripeWebhookDispatcher webhookDispatcher;
+
+    @Autowired
+    private StripeWebhookEventRepository webhookEventRepository;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private OrderResponse order;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        webhookEventRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("password")
+                .firstName("Ion")
+                .lastName("Popescu")
+                .role(Role.USER)
+                .build()));
+        Category category = categoryRepository.save(Category.builder().name("Outbox " + System.nanoTime()).build());
+        Product product = productRepository.save(Product.builder()
+                .name("Electrod E6013").price(new BigDecimal("12.50")).stock(100).category(category).build());
+        order = orderService.createOrder(orderRequest(EMAIL, item(product, 2)), EMAIL);
+    }
+
+    @Test
+    void paymentWebhook_ShouldQueueOneEmailAndReturnWithoutSending() {
+        deliver("evt_1");
+        deliver("evt_2");
+
+        assertEquals("PROCESSING", orderRepository.findById(order.getId()).orElseThrow().getStatus().name());
+        List<EmailOutbox> queued = outboxRepository.findAll();
+        assertEquals(1, queued.size());
+        assertEquals(order.getId(), queued.get(0).getOrderId());
+        assertEquals(EmailOutboxStatus.PENDING, queued.get(0).getStatus());
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void dispatcher_ShouldSendQueuedEmailAndMarkSent() {
+        deliver("evt_1");
+
+        dispatcher.dispatchDue();
+
+        verify(emailService, timeout(5000)).sendOrderEmail(eq(EmailType.ORDER_CONFIRMATION), argThat(sent ->
+                sent.getId().equals(order.getId()) && sent.getItems().size() == 1));
+        EmailOutbox entry = awaitStatus(EmailOutboxStatus.SENT);
+        assertEquals(1, entry.getAttempts());
+        assertNotNull(entry.getSentAt());
+    }
+
+    @Test
+    void dispatcher_ShouldRetryFailedSendAndDeadLetterAfterMaxAttempts() {
+        doThrow(new RuntimeException("SMTP down")).when(emailService).sendOrderEmail(any(), any());
+        deliver("evt_1");
+
+        for (int attempt = 1; attempt <= 8; attempt++) {
+            int expectedAttempts = attempt;
+            dispatcher.dispatchDue();
+            verify(emailService, timeout(5000).times(attempt)).sendOrderEmail(any(), any());
+            awaitEntry(entry -> entry.getAttempts() == expectedAttempts && entry.getLastError() != null
+                    && (entry.getStatus() == EmailOutboxStatus.DEAD
+                    || !entry.getNextAttemptAt().isAfter(LocalDateTime.now())));
+        }
+
+        EmailOutbox dead = awaitStatus(EmailOutboxStatus.DEAD);
+        assertEquals("RuntimeException: SMTP down", dead.getLastError());
+        dispatcher.dispatchDue();
+        verify(emailService, after(300).times(8)).sendOrderEmail(any(), any());
+    }
+
+    /**
+     * Receives a signed payment_intent.succeeded event and applies it, as the webhook endpoint
+     * and the webhook dispatcher would.
+     */
+    private void deliver(String eventId) {
+        webhookService.receive(succeededEvent(eventId), sign(succeededEvent(eventId)));
+        webhookDispatcher.dispatchDue();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (webhookEventRepository.findByEventId(eventId).orElseThrow().getStatus() != WebhookEventStatus.PROCESSED) {
+            assertTrue(System.currentTimeMillis() < deadline, "Webhook event " + eventId + " never processed");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    private EmailOutbox awaitStatus(EmailOutboxStatus status) {
+        return awaitEntry(entry -> entry.getStatus() == status);
+    }
+
+    private EmailOutbox awaitEntry(Predicate<EmailOutbox> condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            EmailOutbox entry = outboxRepository.findAll().get(0);
+            if (condition.test(entry)) {
+                return entry;
+            }
+            assertTrue(System.currentTimeMillis() < deadline, "Outbox entry never matched: " + entry);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    private String succeededEvent(String eventId) {
+        return """
+                {"id": "%s", "object": "event", "api_version": "%s", "type": "payment_intent.succeeded",
+                 "data": {"object": {"id": "pi_outbox", "object": "payment_intent", "status": "succeeded",
+                                     "metadata": {"orderId": "%d"}}}}
+                """.formatted(eventId, Stripe.API_VERSION, order.getId());
+    }
+
+    private static String sign(String payload) {
+        long timestamp = System.currentTimeMillis() / 1000;
+        try {
+            String signature = Webhook.Util.computeHmacSha256(WEBHOOK_SECRET, timestamp + "." + payload);
+            return "t=" + timestamp + ",v1=" + signature;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.dto.OrderRequest;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.repository.CategoryRepository;
+import com.backend.sudexpert.repository.ProductRepository;
+import com.backend.sudexpert.repository.UserRepository;
+import com.backend.sudexpert.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.backend.sudexpert.integration.OrderRequests.item;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Pins the number of JDBC statements each read endpoint issues with an empty catalog cache,
+ * so lazy loading during serialization or N+1 queries show up as test failures. Placing an order
+ * must not issue more statements for a bigger basket: its products are read in one query and its
+ * items inserted in one batch.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointStatementCountIntegrationTest {
+
+    private static final String EMAIL = "statements@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Category category;
+    private List<Product> products;
+    private Product product;
+    private OrderResponse order;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("password")
+                .firstName("Ion")
+                .lastName("Popescu")
+                .role(Role.USER)
+                .build()));
+        category = categoryRepository.save(Category.builder()
+                .name("Statements " + System.nanoTime())
+                .build());
+        products = productRepository.saveAll(List.of(
+                Product.builder().name("Electrod E6013").price(new BigDecimal("12.50")).stock(100).category(category).build(),
+                Product.builder().name("Electrod E7018").price(new BigDecimal("18.75")).stock(100).category(category).build(),
+                Product.builder().name("Sârmă MIG").price(new BigDecimal("45.00")).stock(100).category(category).build()));
+        product = products.get(0);
+        order = orderService.createOrder(orderRequest(products), EMAIL);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void catalogEndpoints_ShouldUseOneStatementEach() throws Exception {
+        assertStatements(1, "/api/products");
+        assertStatements(1, "/api/products/" + product.getId());
+        assertStatements(1, "/api/products/category/" + category.getId());
+        assertStatements(1, "/api/categories");
+        assertStatements(1, "/api/categories/" + category.getId());
+    }
+
+    @Test
+    void productSearch_ShouldUsePageAndCountStatements() throws Exception {
+        assertStatements(2, "/api/products/search?categoryId=" + category.getId() + "&sort=price-asc");
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    void orderEndpoints_ShouldUseFixedStatementCountAndNotExposeUser() throws Exception {
+        assertStatements(2, "/api/orders");
+        assertStatements(2, "/api/orders?size=1");
+        assertStatements(1, "/api/orders/" + order.getId());
+        assertStatements(1, "/api/orders/code/" + order.getOrderCode());
+
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(jsonPath("$.items[0].items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].user").doesNotExist())
+                .andExpect(content().string(org.hamcrest.Matchers.not(org.hamcrest.Matchers.containsString("password"))));
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    void createOrder_StatementCountShouldNotGrowWithBasketSize() throws Exception {
+        long single = orderStatements(products.subList(0, 1));
+        long basket = orderStatements(products);
+
+        // Either order may be the one that reserves the next block of order codes
+        assertTrue(basket <= single + 1,
+                "Statements per order: " + single + " for 1 item, " + basket + " for " + products.size());
+    }
+
+    private long orderStatements(List<Product> basket) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(post("/api/orders")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest(basket))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(basket.size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static OrderRequest orderRequest(List<Product> basket) {
+        return OrderRequests.orderRequest(EMAIL, basket.stream().map(product -> item(product, 1)).toList());
+    }
+
+    private void assertStatements(long expected, String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        assertEquals(expected, statistics.getPrepareStatementCount(), "Statements issued by GET " + url);
+    }
+}
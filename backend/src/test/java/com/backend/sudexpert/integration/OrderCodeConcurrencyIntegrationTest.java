@@ -0,0 +1,103 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.repository.CategoryRepository;
+import com.backend.sudexpert.repository.ProductRepository;
+import com.backend.sudexpert.repository.UserRepository;
+import com.backend.sudexpert.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.backend.sudexpert.integration.OrderRequests.item;
+import static com.backend.sudexpert.integration.OrderRequests.orderRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderCodeConcurrencyIntegrationTest {
+
+    private static final int ORDER_COUNT = 2000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findByEmail("concurrent@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("concurrent@example.com")
+                .password("password")
+                .firstName("Ion")
+                .lastName("Popescu")
+                .role(Role.USER)
+                .build()));
+
+        Category category = categoryRepository.save(Category.builder()
+                .name("Concurrency " + System.nanoTime())
+                .build());
+        product = productRepository.save(Product.builder()
+                .name("Electrod E6013")
+                .price(new BigDecimal("12.50"))
+                .stock(100000)
+                .category(category)
+                .build());
+    }
+
+    @Test
+    void createOrder_WhenCalledConcurrently_ShouldGenerateUniqueOrderCodes() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderResponse>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < ORDER_COUNT; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.createOrder(orderRequest("concurrent@example.com", item(product, 1)),
+                            "concurrent@example.com");
+                }));
+            }
+            start.countDown();
+
+            Set<String> codes = new HashSet<>();
+            for (Future<OrderResponse> future : futures) {
+                codes.add(future.get().getOrderCode());
+            }
+
+            String prefix = "ORD-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-";
+            assertEquals(ORDER_COUNT, codes.size());
+            assertTrue(codes.stream().allMatch(code -> code.startsWith(prefix)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.OrderRequest;
+
+import java.util.List;
+
+/**
+ * The checkout request the integration tests place: a fixed delivery address in Brăila and the
+ * given basket, for the customer placing the order.
+ */
+final class OrderRequests {
+
+    private OrderRequests() {
+    }
+
+    static OrderRequest.OrderItemRequest item(Product product, int quantity) {
+        return OrderRequest.OrderItemRequest.builder()
+                .product(OrderRequest.ProductReference.builder().id(product.getId()).build())
+                .quantity(quantity)
+                .build();
+    }
+
+    static OrderRequest orderRequest(String email, OrderRequest.OrderItemRequest... items) {
+        return orderRequest(email, List.of(items));
+    }
+
+    static OrderRequest orderRequest(String email, List<OrderRequest.OrderItemRequest> items) {
+        return OrderRequest.builder()
+                .items(items)
+                .deliveryName("Ion Popescu")
+                .deliveryEmail(email)
+                .deliveryPhone("0712345678")
+                .deliveryAddress("Strada Test 123")
+                .deliveryCity("Brăila")
+                .deliveryCountry("Romania")
+                .build();
+    }
+}
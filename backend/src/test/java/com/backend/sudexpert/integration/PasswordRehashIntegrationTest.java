@@ -0,0 +1,52 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.dto.AuthenticationRequest;
+import com.backend.sudexpert.repository.UserRepository;
+import com.backend.sudexpert.service.AuthenticationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "application.security.bcrypt.strength=5")
+@ActiveProfiles("test")
+class PasswordRehashIntegrationTest {
+
+    private static final String EMAIL = "rehash@example.com";
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void authenticate_WithHashOfOtherCost_ShouldStoreRehashedPassword() {
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        userRepository.save(User.builder()
+                .email(EMAIL)
+                .password(new BCryptPasswordEncoder(4).encode("password123"))
+                .firstName("Ion")
+                .lastName("Popescu")
+                .role(Role.USER)
+                .build());
+
+        authenticationService.authenticate(AuthenticationRequest.builder()
+                .email(EMAIL)
+                .password("password123")
+                .build());
+
+        String stored = userRepository.findByEmail(EMAIL).orElseThrow().getPassword();
+        assertTrue(stored.startsWith("$2a$05$"), stored);
+        assertTrue(passwordEncoder.matches("password123", stored));
+    }
+}
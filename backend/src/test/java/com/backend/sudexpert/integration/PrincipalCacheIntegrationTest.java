@@ -0,0 +1,83 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.config.JwtService;
+import com.backend.sudexpert.config.PrincipalCache;
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PrincipalCacheIntegrationTest {
+
+    private static final String EMAIL = "principal@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @SpyBean
+    private UserRepository userRepository;
+
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("password")
+                .firstName("Ion")
+                .lastName("Popescu")
+                .role(Role.USER)
+                .build()));
+        token = jwtService.generateToken(user);
+        principalCache.evict(user.getId(), EMAIL);
+        clearInvocations(userRepository);
+    }
+
+    @Test
+    void authenticatedRequests_ShouldLoadUserOnlyOncePerToken() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.email").value(EMAIL));
+        }
+
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void updatingUser_ShouldInvalidateCachedPrincipal() throws Exception {
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        user = userRepository.findByEmail(EMAIL).orElseThrow();
+        user.setFirstName("Vasile " + System.nanoTime());
+        userRepository.save(user);
+        clearInvocations(userRepository);
+
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+    }
+}
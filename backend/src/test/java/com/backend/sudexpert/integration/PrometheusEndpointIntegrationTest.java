@@ -0,0 +1,88 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.config.JwtService;
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "application.metrics.scrape-token=" + PrometheusEndpointIntegrationTest.SCRAPE_TOKEN)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class PrometheusEndpointIntegrationTest {
+
+    static final String SCRAPE_TOKEN = "scrape-token-test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void prometheus_WhenAnonymous_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void prometheus_WhenRegularUser_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + token("metrics-user@example.com", Role.USER)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void prometheus_WhenWrongScrapeToken_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + SCRAPE_TOKEN + "x"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void prometheus_WhenAdmin_ShouldExposeHotPathAndRuntimeMetrics() throws Exception {
+        String admin = token("metrics-admin@example.com", Role.ADMIN);
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + admin))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("auth_jwt_filter_seconds_bucket")))
+                .andExpect(content().string(containsString("cache_gets_total{application=\"sudexpert\",cache=\"principals\"")))
+                .andExpect(content().string(containsString("cache=\"products\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")))
+                .andExpect(content().string(containsString("jvm_memory_used_bytes")))
+                .andExpect(content().string(containsString("jvm_gc_")))
+                .andExpect(content().string(containsString("email_outbox_workers_queue")));
+    }
+
+    @Test
+    void prometheus_WhenScrapeToken_ShouldBeAllowed() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + SCRAPE_TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("jvm_threads_live_threads")));
+    }
+
+    private String token(String email, Role role) {
+        User user = userRepository.findByEmail(email).orElseGet(() -> userRepository.save(User.builder()
+                .email(email)
+                .password("password")
+                .firstName("Ion")
+                .lastName("Popescu")
+                .role(role)
+                .build()));
+        return jwtService.generateToken(user);
+    }
+}
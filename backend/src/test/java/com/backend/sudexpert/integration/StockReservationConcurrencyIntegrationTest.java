@@ -0,0 +1,268 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.domain.Order;
+import com.backend.sudexpert.domain.OrderStatus;
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.StripeWebhookEvent;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.dto.OrderRequest;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.repository.CategoryRepository;
+import com.backend.sudexpert.repository.OrderRepository;
+import com.backend.sudexpert.repository.ProductRepository;
+import com.backend.sudexpert.repository.UserRepository;
+import com.backend.sudexpert.service.CheckoutTracing;
+import com.backend.sudexpert.service.InsufficientStockException;
+import com.backend.sudexpert.service.OrderService;
+import com.backend.sudexpert.service.PendingOrderSweeper;
+import com.backend.sudexpert.service.StockReservationService;
+import com.backend.sudexpert.service.StripeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+import static com.backend.sudexpert.integration.OrderRequests.item;
+import static com.backend.sudexpert.integration.OrderRequests.orderRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationConcurrencyIntegrationTest {
+
+    private static final String EMAIL = "stock@example.com";
+    private static final int THREADS = 32;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private PendingOrderSweeper sweeper;
+
+    @Autowired
+    private StripeService stripeService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @SpyBean
+    private CheckoutTracing tracing;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("password")
+                .firstName("Ion")
+                .lastName("Popescu")
+                .role(Role.USER)
+                .build()));
+        category = categoryRepository.save(Category.builder().name("Stock " + System.nanoTime()).build());
+    }
+
+    @Test
+    void createOrder_WhenBuyersRaceForHotProduct_ShouldNeverOversell() throws Exception {
+        Product inverter = product("Invertor sudură 200A", 40);
+
+        List<Future<OrderResponse>> futures = race(600, i -> orderRequest(EMAIL, item(inverter, 1 + i % 3)));
+
+        int sold = 0;
+        int rejected = 0;
+        for (Future<OrderResponse> future : futures) {
+            try {
+                sold += future.get().getItems().get(0).getQuantity();
+            } catch (ExecutionException e) {
+                assertInstanceOf(InsufficientStockException.class, e.getCause());
+                rejected++;
+            }
+        }
+
+        int left = stock(inverter);
+        assertTrue(left >= 0, "Stock went negative: " + left);
+        assertEquals(40, sold + left);
+        assertTrue(left < 3, "Stock left unsold while buyers were turned away: " + left);
+        assertTrue(rejected > 0);
+    }
+
+    @Test
+    void createOrder_WhenBasketsLockProductsInOppositeOrder_ShouldNeverOversell() throws Exception {
+        Product electrode = product("Electrod E6013", 50);
+        Product wire = product("Sârmă MIG 0.8", 50);
+
+        List<Future<OrderResponse>> futures = race(400, i -> i % 2 == 0
+                ? orderRequest(EMAIL, item(electrode, 1), item(wire, 2))
+                : orderRequest(EMAIL, item(wire, 1), item(electrode, 2)));
+
+        int electrodesSold = 0;
+        int wireSold = 0;
+        for (Future<OrderResponse> future : futures) {
+            try {
+                for (OrderResponse.OrderItemResponse item : future.get().getItems()) {
+                    if (item.getProductName().equals(electrode.getName())) {
+                        electrodesSold += item.getQuantity();
+                    } else {
+                        wireSold += item.getQuantity();
+                    }
+                }
+            } catch (ExecutionException e) {
+                assertInstanceOf(InsufficientStockException.class, e.getCause());
+            }
+        }
+
+        assertEquals(50, electrodesSold + stock(electrode));
+        assertEquals(50, wireSold + stock(wire));
+        assertTrue(stock(electrode) >= 0 && stock(wire) >= 0);
+    }
+
+    @Test
+    void release_ShouldReturnStockOnce() {
+        Product inverter = product("Invertor sudură 160A", 5);
+        OrderResponse order = orderService.createOrder(orderRequest(EMAIL, item(inverter, 2), item(inverter, 1)), EMAIL);
+        assertEquals(2, stock(inverter));
+
+        assertTrue(stockReservationService.release(order.getId()));
+        assertFalse(stockReservationService.release(order.getId()));
+
+        assertEquals(5, stock(inverter));
+    }
+
+    @Test
+    void createOrder_WhenOneLineIsShort_ShouldReserveNothing() {
+        Product electrode = product("Electrod E7018", 10);
+        Product mask = product("Mască automată", 1);
+
+        assertThrows(InsufficientStockException.class,
+                () -> orderService.createOrder(orderRequest(EMAIL, item(electrode, 4), item(mask, 2)), EMAIL));
+
+        assertEquals(10, stock(electrode));
+        assertEquals(1, stock(mask));
+    }
+
+    @Test
+    void sweep_ShouldCancelStalePendingOrdersAndReturnTheirStock() {
+        Product inverter = product("Invertor sudură 250A", 3);
+        OrderResponse stale = orderService.createOrder(orderRequest(EMAIL, item(inverter, 2)), EMAIL);
+        OrderResponse fresh = orderService.createOrder(orderRequest(EMAIL, item(inverter, 1)), EMAIL);
+        Order staleOrder = orderRepository.findById(stale.getId()).orElseThrow();
+        staleOrder.setCreatedAt(LocalDateTime.now().minusHours(1));
+        orderRepository.save(staleOrder);
+
+        assertTrue(sweeper.sweep() >= 1);
+
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(stale.getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(fresh.getId()).orElseThrow().getStatus());
+        assertEquals(2, stock(inverter));
+    }
+
+    @Test
+    void sweep_ShouldLeaveStaleOrdersWhosePaymentIsProcessing() {
+        Product inverter = product("Invertor sudură 200A", 3);
+        OrderResponse paying = orderService.createOrder(orderRequest(EMAIL, item(inverter, 2)), EMAIL);
+        Order payingOrder = orderRepository.findById(paying.getId()).orElseThrow();
+        payingOrder.setCreatedAt(LocalDateTime.now().minusHours(1));
+        orderRepository.save(payingOrder);
+        orderRepository.updatePaymentState(paying.getId(), "pi_processing", "processing", LocalDateTime.now());
+
+        sweeper.sweep();
+
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(paying.getId()).orElseThrow().getStatus());
+        assertEquals(1, stock(inverter));
+    }
+
+    @Test
+    void confirmPayment_WhenSweepCommitsAfterOrderWasRead_ShouldTakeTheStockAgain() {
+        Product inverter = product("Invertor sudură 180A", 3);
+        OrderResponse created = orderService.createOrder(orderRequest(EMAIL, item(inverter, 2)), EMAIL);
+        Order staleOrder = orderRepository.findById(created.getId()).orElseThrow();
+        staleOrder.setCreatedAt(LocalDateTime.now().minusHours(1));
+        orderRepository.save(staleOrder);
+        // markPaid tags the span right after the order was read; sweep it from another thread there
+        AtomicBoolean swept = new AtomicBoolean();
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            if (swept.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(sweeper::sweep).get(30, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(tracing).tagOrder(created.getOrderCode());
+
+        stripeService.applyWebhookEvent(StripeWebhookEvent.builder()
+                .type("payment_intent.succeeded")
+                .orderId(created.getId())
+                .build());
+
+        Order paid = orderRepository.findById(created.getId()).orElseThrow();
+        assertTrue(swept.get());
+        assertEquals(OrderStatus.PROCESSING, paid.getStatus());
+        assertTrue(paid.getStockReserved());
+        assertEquals(1, stock(inverter));
+    }
+
+    private List<Future<OrderResponse>> race(int orders, IntFunction<OrderRequest> request)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderResponse>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < orders; i++) {
+                OrderRequest orderRequest = request.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.createOrder(orderRequest, EMAIL);
+                }));
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            return futures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Product product(String name, int stock) {
+        return productRepository.save(Product.builder()
+                .name(name)
+                .price(new BigDecimal("100.00"))
+                .stock(stock)
+                .category(category)
+                .build());
+    }
+
+    private int stock(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+}
@@ -0,0 +1,201 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.domain.Order;
+import com.backend.sudexpert.domain.OrderStatus;
+import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.domain.Role;
+import com.backend.sudexpert.domain.StripeWebhookEvent;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.domain.WebhookEventStatus;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.repository.CategoryRepository;
+import com.backend.sudexpert.repository.EmailOutboxRepository;
+import com.backend.sudexpert.repository.OrderRepository;
+import com.backend.sudexpert.repository.ProductRepository;
+import com.backend.sudexpert.repository.StripeWebhookEventRepository;
+import com.backend.sudexpert.repository.UserRepository;
+import com.backend.sudexpert.service.OrderService;
+import com.backend.sudexpert.service.StripeWebhookDispatcher;
+import com.backend.sudexpert.service.StripeWebhookService;
+import com.stripe.Stripe;
+import com.stripe.net.Webhook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static com.backend.sudexpert.integration.OrderRequests.item;
+import static com.backend.sudexpert.integration.OrderRequests.orderRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "stripe.webhook.secret=" + StripeWebhookIntegrationTest.WEBHOOK_SECRET,
+        "application.payments.webhook.poll-interval=1h",
+        "application.email.outbox.poll-interval=1h"
+})
+@ActiveProfiles("test")
+class StripeWebhookIntegrationTest {
+
+    static final String WEBHOOK_SECRET = "whsec_webhook_test";
+    private static final String EMAIL = "webhook@example.com";
+
+    @Autowired
+    private StripeWebhookService webhookService;
+
+    @Autowired
+    private StripeWebhookDispatcher dispatcher;
+
+    @Autowired
+    private StripeWebhookEventRepository eventRepository;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private OrderResponse order;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository.deleteAll();
+        outboxRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("password")
+                .firstName("Ion")
+                .lastName("Popescu")
+                .role(Role.USER)
+                .build()));
+        Category category = categoryRepository.save(Category.builder().name("Webhook " + System.nanoTime()).build());
+        Product product = productRepository.save(Product.builder()
+                .name("Electrod E6013").price(new BigDecimal("12.50")).stock(100).category(category).build());
+        order = orderService.createOrder(orderRequest(EMAIL, item(product, 2)), EMAIL);
+    }
+
+    @Test
+    void receive_ShouldStoreEventWithoutApplyingIt() {
+        assertTrue(receive(event("evt_1", "payment_intent.succeeded")));
+
+        StripeWebhookEvent stored = eventRepository.findByEventId("evt_1").orElseThrow();
+        assertEquals(WebhookEventStatus.PENDING, stored.getStatus());
+        assertEquals(order.getId(), stored.getOrderId());
+        assertEquals("payment_intent.succeeded", stored.getType());
+        assertEquals(OrderStatus.PENDING, orderStatus());
+    }
+
+    @Test
+    void receive_ShouldIgnoreRedeliveredEvent() {
+        assertTrue(receive(event("evt_1", "payment_intent.succeeded")));
+        assertFalse(receive(event("evt_1", "payment_intent.succeeded")));
+
+        dispatcher.dispatchDue();
+        awaitStatus("evt_1", WebhookEventStatus.PROCESSED);
+
+        assertEquals(1, eventRepository.count());
+        assertEquals(OrderStatus.PROCESSING, orderStatus());
+        assertEquals(1, outboxRepository.count());
+        Order paid = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals("pi_webhook", paid.getPaymentIntentId());
+        assertEquals("succeeded", paid.getPaymentStatus());
+        assertNotNull(paid.getPaymentStatusUpdatedAt());
+    }
+
+    @Test
+    void receive_ShouldRejectBadSignature() {
+        String payload = event("evt_1", "payment_intent.succeeded");
+
+        assertThrows(IllegalArgumentException.class, () -> webhookService.receive(payload, sign(payload + " ")));
+        assertEquals(0, eventRepository.count());
+    }
+
+    @Test
+    void dispatcher_ShouldApplyEventsForAnOrderInArrivalOrder() {
+        receive(event("evt_failed", "payment_intent.payment_failed"));
+        receive(event("evt_paid", "payment_intent.succeeded"));
+
+        dispatcher.dispatchDue();
+        awaitStatus("evt_failed", WebhookEventStatus.PROCESSED);
+
+        assertEquals(OrderStatus.CANCELLED, orderStatus());
+        assertEquals(WebhookEventStatus.PENDING, eventRepository.findByEventId("evt_paid").orElseThrow().getStatus());
+        assertEquals(0, eventRepository.findByEventId("evt_paid").orElseThrow().getAttempts());
+
+        dispatcher.dispatchDue();
+        awaitStatus("evt_paid", WebhookEventStatus.PROCESSED);
+        assertEquals(OrderStatus.PROCESSING, orderStatus());
+    }
+
+    @Test
+    void replay_ShouldApplyStoredEventAgain() {
+        receive(event("evt_1", "payment_intent.succeeded"));
+        dispatcher.dispatchDue();
+        awaitStatus("evt_1", WebhookEventStatus.PROCESSED);
+        Order stored = orderRepository.findById(order.getId()).orElseThrow();
+        stored.setStatus(OrderStatus.PENDING);
+        orderRepository.save(stored);
+
+        assertTrue(webhookService.replay("evt_1"));
+        assertFalse(webhookService.replay("evt_unknown"));
+        dispatcher.dispatchDue();
+        awaitStatus("evt_1", WebhookEventStatus.PROCESSED);
+
+        assertEquals(OrderStatus.PROCESSING, orderStatus());
+        assertEquals(1, eventRepository.findByEventId("evt_1").orElseThrow().getAttempts());
+    }
+
+    private boolean receive(String payload) {
+        return webhookService.receive(payload, sign(payload));
+    }
+
+    private OrderStatus orderStatus() {
+        return orderRepository.findById(order.getId()).orElseThrow().getStatus();
+    }
+
+    private void awaitStatus(String eventId, WebhookEventStatus status) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (eventRepository.findByEventId(eventId).orElseThrow().getStatus() != status) {
+            assertTrue(System.currentTimeMillis() < deadline, "Webhook event " + eventId + " never reached " + status);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    private String event(String eventId, String type) {
+        return """
+                {"id": "%s", "object": "event", "api_version": "%s", "type": "%s",
+                 "data": {"object": {"id": "pi_webhook", "object": "payment_intent", "status": "succeeded",
+                                     "metadata": {"orderId": "%d"}}}}
+                """.formatted(eventId, Stripe.API_VERSION, type, order.getId());
+    }
+
+    private static String sign(String payload) {
+        long timestamp = System.currentTimeMillis() / 1000;
+        try {
+            String signature = Webhook.Util.computeHmacSha256(WEBHOOK_SECRET, timestamp + "." + payload);
+            return "t=" + timestamp + ",v1=" + signature;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
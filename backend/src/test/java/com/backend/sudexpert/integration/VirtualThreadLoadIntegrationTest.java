@@ -0,0 +1,149 @@
+package com.backend.sudexpert.integration;
+
+import com.backend.sudexpert.SudexpertApplication;
+import com.backend.sudexpert.dto.ProductSearchCriteria;
+import com.backend.sudexpert.dto.ProductSearchResponse;
+import com.backend.sudexpert.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load comparison of the two request threading modes: a burst of requests that each run a catalog
+ * search against the database and then block for {@value #BLOCKING_MILLIS} ms, the way checkout
+ * waits on Stripe. On platform threads Tomcat runs at most {@value #PLATFORM_THREADS} at once and
+ * the rest queue; on virtual threads every open connection proceeds concurrently and the database
+ * admission queue, not Tomcat, bounds the queries. Each mode runs in its own application with its
+ * own in-memory database.
+ * <p>
+ * Tagged {@code load} and left out of the default build; run it with
+ * {@code mvn -Pbenchmarks test -Dgroups=load}.
+ */
+@Tag("load")
+class VirtualThreadLoadIntegrationTest {
+
+    private static final int REQUESTS = 400;
+    private static final int CLIENTS = 200;
+    private static final int PLATFORM_THREADS = 20;
+    private static final long BLOCKING_MILLIS = 500;
+
+    @Test
+    void virtualThreads_ShouldServeBlockingBurstFasterThanPlatformThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        assertEquals("platform", platform.threadKind);
+        assertEquals("virtual", virtual.threadKind);
+        assertEquals(0, platform.admissionRejected);
+        assertEquals(0, virtual.admissionRejected);
+        // Through 20 platform threads the burst takes at least 20 waves of 500 ms.
+        assertTrue(platform.elapsedMillis >= REQUESTS / PLATFORM_THREADS * BLOCKING_MILLIS);
+        assertTrue(virtual.elapsedMillis * 2 < platform.elapsedMillis,
+                "Virtual threads took " + virtual.elapsedMillis + " ms, platform threads " + platform.elapsedMillis + " ms");
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                SudexpertApplication.class, CheckoutLikeEndpoint.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + (virtualThreads ? "virtual" : "platform"),
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "--server.tomcat.max-connections=" + (CLIENTS + 100),
+                        "--server.tomcat.accept-count=" + CLIENTS);
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(clients)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + "/api/products/load-test/checkout"))
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+
+            // Open the keep-alive connections first so the measurement is request handling only.
+            String threadKind = burst(clients, http, request, CLIENTS);
+            long start = System.nanoTime();
+            burst(clients, http, request, REQUESTS);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            double rejected = context.getBean(MeterRegistry.class).get("db.admission.rejected").functionCounter().count();
+            return new Result(elapsedMillis, threadKind, rejected);
+        }
+    }
+
+    /**
+     * Sends the requests from {@value #CLIENTS} concurrent clients, each waiting for its answer
+     * before sending the next one.
+     */
+    private static String burst(ExecutorService clients, HttpClient http, HttpRequest request, int requests)
+            throws Exception {
+        List<Future<String>> workers = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            int share = requests / CLIENTS + (c < requests % CLIENTS ? 1 : 0);
+            workers.add(clients.submit(() -> {
+                String threadKind = null;
+                for (int i = 0; i < share; i++) {
+                    HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                    assertEquals(200, response.statusCode());
+                    threadKind = response.body();
+                }
+                return threadKind;
+            }));
+        }
+        String threadKind = null;
+        for (Future<String> worker : workers) {
+            threadKind = worker.get();
+        }
+        return threadKind;
+    }
+
+    private record Result(long elapsedMillis, String threadKind, double admissionRejected) {
+    }
+
+    /**
+     * Stands in for checkout: a keyset catalog query through the pool and its admission queue,
+     * then a wait on the payment provider with no connection held. Mapped under /api/products so
+     * it is public.
+     */
+    @RestController
+    static class CheckoutLikeEndpoint {
+
+        private final ProductService productService;
+
+        CheckoutLikeEndpoint(ProductService productService) {
+            this.productService = productService;
+        }
+
+        @GetMapping("/api/products/load-test/checkout")
+        String checkout() throws InterruptedException {
+            ProductSearchResponse page = productService.searchProducts(ProductSearchCriteria.builder()
+                    .sort(ProductSearchCriteria.Sort.PRICE_ASC)
+                    .build(), null, 24);
+            assertNotNull(page.getItems());
+            Thread.sleep(BLOCKING_MILLIS);
+            return Thread.currentThread().isVirtual() ? "virtual" : "platform";
+        }
+    }
+}
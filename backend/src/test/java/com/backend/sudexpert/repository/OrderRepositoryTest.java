@@ -1,13 +1,16 @@
 package com.backend.sudexpert.repository;
 
 import com.backend.sudexpert.domain.*;
+import com.backend.sudexpert.dto.StalePendingOrder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -128,5 +131,105 @@ class OrderRepositoryTest {
         assertEquals(1, savedOrder.getItems().size());
         assertEquals(2, savedOrder.getItems().get(0).getQuantity());
     }
-}
 
+    @Test
+    void findHistoryIds_ShouldPageNewestFirstByKeyset() {
+        Order first = persistOrderWithItems("ORD-20231211-0004", 1);
+        Order second = persistOrderWithItems("ORD-20231211-0005", 1);
+        Order third = persistOrderWithItems("ORD-20231211-0006", 1);
+        LocalDateTime sameInstant = LocalDateTime.of(2023, 12, 11, 10, 0);
+        for (Order order : List.of(first, second, third)) {
+            order.setCreatedAt(sameInstant);
+        }
+        first.setCreatedAt(sameInstant.minusDays(1));
+        entityManager.flush();
+
+        List<Long> page1 = orderRepository.findHistoryIds("test@example.com", Limit.of(2));
+        List<Long> page2 = orderRepository.findHistoryIdsBefore("test@example.com", sameInstant, page1.get(1), Limit.of(2));
+
+        assertEquals(List.of(third.getId(), second.getId()), page1);
+        assertEquals(List.of(first.getId()), page2);
+        assertTrue(orderRepository.findHistoryIds("other@example.com", Limit.of(2)).isEmpty());
+    }
+
+    @Test
+    void findOrderCodesWithPrefixHighestFirst_ShouldOrderByNumberPastFourDigits() {
+        persistOrderWithItems("ORD-20231211-9999", 1);
+        persistOrderWithItems("ORD-20231211-10000", 1);
+        persistOrderWithItems("ORD-20231211-0042", 1);
+        persistOrderWithItems("ORD-20231212-20000", 1);
+
+        assertEquals(List.of("ORD-20231211-10000", "ORD-20231211-9999"),
+                orderRepository.findOrderCodesWithPrefixHighestFirst("ORD-20231211-", Limit.of(2)));
+    }
+
+    @Test
+    void findStalePendingOrdersAfter_ShouldPageOldestFirstByKeyset() {
+        Order first = persistOrderWithItems("ORD-20231211-0007", 1);
+        Order second = persistOrderWithItems("ORD-20231211-0008", 1);
+        Order third = persistOrderWithItems("ORD-20231211-0009", 1);
+        LocalDateTime sameInstant = LocalDateTime.of(2023, 12, 11, 10, 0);
+        for (Order order : List.of(first, second, third)) {
+            order.setCreatedAt(sameInstant);
+        }
+        first.setCreatedAt(sameInstant.minusDays(1));
+        entityManager.flush();
+        LocalDateTime cutoff = sameInstant.plusHours(1);
+
+        List<StalePendingOrder> page1 = orderRepository.findStalePendingOrders(cutoff, Limit.of(2));
+        StalePendingOrder last = page1.get(1);
+        List<StalePendingOrder> page2 = orderRepository.findStalePendingOrdersAfter(cutoff, last.getCreatedAt(),
+                last.getId(), Limit.of(2));
+
+        assertEquals(List.of(first.getId(), second.getId()), page1.stream().map(StalePendingOrder::getId).toList());
+        assertEquals(List.of(third.getId()), page2.stream().map(StalePendingOrder::getId).toList());
+    }
+
+    @Test
+    void findDetailedByIdIn_ShouldLoadItemsForEveryOrder() {
+        Order first = persistOrderWithItems("ORD-20231211-0007", 2);
+        Order second = persistOrderWithItems("ORD-20231211-0008", 1);
+        entityManager.clear();
+
+        List<Order> orders = orderRepository.findDetailedByIdIn(List.of(first.getId(), second.getId()));
+        entityManager.clear();
+
+        assertEquals(2, orders.size());
+        assertEquals(3, orders.stream().mapToInt(order -> order.getItems().size()).sum());
+        assertTrue(orders.stream().allMatch(order -> order.getItems().stream()
+                .allMatch(item -> item.getProduct().getName().equals("Test Product"))));
+    }
+
+    @Test
+    void findDetailedByOrderCode_ShouldLoadItemsProductsAndUser() {
+        persistOrderWithItems("ORD-20231211-0006", 2);
+        entityManager.clear();
+
+        Order order = orderRepository.findDetailedByOrderCode("ORD-20231211-0006").orElseThrow();
+        entityManager.clear();
+
+        assertEquals("test@example.com", order.getUser().getEmail());
+        assertEquals(2, order.getItems().size());
+        assertEquals("Test Product", order.getItems().get(0).getProduct().getName());
+    }
+
+    private Order persistOrderWithItems(String orderCode, int itemCount) {
+        Order order = Order.builder()
+                .user(testUser)
+                .total(new BigDecimal("100.00").multiply(BigDecimal.valueOf(itemCount)))
+                .status(OrderStatus.PENDING)
+                .orderCode(orderCode)
+                .build();
+        entityManager.persist(order);
+        for (int i = 0; i < itemCount; i++) {
+            entityManager.persist(OrderItem.builder()
+                    .order(order)
+                    .product(testProduct)
+                    .quantity(1)
+                    .price(new BigDecimal("100.00"))
+                    .build());
+        }
+        entityManager.flush();
+        return order;
+    }
+}
@@ -2,6 +2,8 @@ package com.backend.sudexpert.repository;
 
 import com.backend.sudexpert.domain.Category;
 import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.ProductSearchCriteria;
+import com.backend.sudexpert.dto.ProductSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -130,5 +132,63 @@ class ProductRepositoryTest {
         assertNotNull(products);
         assertTrue(products.size() >= 2);
     }
-}
 
+    @Test
+    void search_ShouldApplyTextCategoryPriceAndStockFilters() {
+        Category other = Category.builder().name("Sârmă").build();
+        entityManager.persist(other);
+        persistProduct("Electrod rutilic E6013", "Pentru sudare generală", "12.50", 150, testCategory);
+        persistProduct("Electrod bazic E7018", "Rezistență ridicată", "18.75", 3, testCategory);
+        persistProduct("Sârmă MIG 0.8mm", "Electrod continuu", "45.00", 50, other);
+        entityManager.flush();
+
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder()
+                .query("ELECTROD")
+                .categoryId(testCategory.getId())
+                .minPrice(new BigDecimal("10.00"))
+                .maxPrice(new BigDecimal("20.00"))
+                .stock(ProductSearchCriteria.StockTier.IN_STOCK)
+                .build();
+
+        List<ProductSummary> results = productRepository.search(criteria, 10);
+
+        assertEquals(1, results.size());
+        assertEquals("Electrod rutilic E6013", results.get(0).getName());
+        assertEquals("Electrozi", results.get(0).getCategory().getName());
+        assertEquals(1, productRepository.count(criteria));
+    }
+
+    @Test
+    void search_WithKeyset_ShouldContinueAfterLastRowIncludingTies() {
+        Product first = persistProduct("A", null, "10.00", 1, testCategory);
+        Product second = persistProduct("B", null, "20.00", 1, testCategory);
+        Product third = persistProduct("C", null, "20.00", 1, testCategory);
+        entityManager.flush();
+
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder()
+                .sort(ProductSearchCriteria.Sort.PRICE_ASC)
+                .build();
+        List<ProductSummary> page1 = productRepository.search(criteria, 2);
+        ProductSummary last = page1.get(1);
+        List<ProductSummary> page2 = productRepository.search(criteria.toBuilder()
+                .afterPrice(last.getPrice())
+                .afterId(last.getId())
+                .build(), 2);
+
+        assertEquals(List.of(first.getId(), second.getId()), page1.stream().map(ProductSummary::getId).toList());
+        assertEquals(List.of(third.getId()), page2.stream().map(ProductSummary::getId).toList());
+        assertEquals(3, productRepository.count(criteria));
+    }
+
+    private Product persistProduct(String name, String description, String price, int stock, Category category) {
+        Product product = Product.builder()
+                .name(name)
+                .description(description)
+                .price(new BigDecimal(price))
+                .stock(stock)
+                .category(category)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+}
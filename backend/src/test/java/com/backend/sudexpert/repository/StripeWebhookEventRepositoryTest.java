@@ -0,0 +1,59 @@
+package com.backend.sudexpert.repository;
+
+import com.backend.sudexpert.domain.StripeWebhookEvent;
+import com.backend.sudexpert.domain.WebhookEventStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class StripeWebhookEventRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 14, 9, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StripeWebhookEventRepository repository;
+
+    @Test
+    void findDueIds_ShouldLeaveOutEventsBehindAnEarlierPendingEventForTheSameOrder() {
+        // the first event is claimed (its lease runs past now), the second must wait for it
+        persist("evt_1", 7L, WebhookEventStatus.PENDING, NOW.plusMinutes(2));
+        persist("evt_2", 7L, WebhookEventStatus.PENDING, NOW);
+        StripeWebhookEvent otherOrder = persist("evt_3", 8L, WebhookEventStatus.PENDING, NOW);
+
+        assertEquals(List.of(otherOrder.getId()), repository.findDueIds(NOW, Limit.of(1)));
+    }
+
+    @Test
+    void findDueIds_ShouldReleaseEventOnceEarlierEventIsProcessed() {
+        persist("evt_1", 7L, WebhookEventStatus.PROCESSED, NOW);
+        StripeWebhookEvent next = persist("evt_2", 7L, WebhookEventStatus.PENDING, NOW);
+        StripeWebhookEvent withoutOrder = persist("evt_3", null, WebhookEventStatus.PENDING, NOW);
+
+        assertEquals(List.of(next.getId(), withoutOrder.getId()), repository.findDueIds(NOW, Limit.of(10)));
+    }
+
+    private StripeWebhookEvent persist(String eventId, Long orderId, WebhookEventStatus status,
+                                       LocalDateTime nextAttemptAt) {
+        StripeWebhookEvent event = entityManager.persist(StripeWebhookEvent.builder()
+                .eventId(eventId)
+                .type("payment_intent.succeeded")
+                .orderId(orderId)
+                .payload("{}")
+                .status(status)
+                .nextAttemptAt(nextAttemptAt)
+                .build());
+        entityManager.flush();
+        return event;
+    }
+}
@@ -1,6 +1,7 @@
 package com.backend.sudexpert.service;
 
 import com.backend.sudexpert.domain.Category;
+import com.backend.sudexpert.dto.CategorySummary;
 import com.backend.sudexpert.repository.CategoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,15 +43,18 @@ class CategoryServiceTest {
                 .id(2L)
                 .name("Sârmă de sudură")
                 .build();
-        List<Category> expectedCategories = Arrays.asList(testCategory, category2);
-        when(categoryRepository.findAll()).thenReturn(expectedCategories);
+        List<CategorySummary> expectedCategories = Arrays.asList(
+                new CategorySummary(testCategory.getId(), testCategory.getName()),
+                new CategorySummary(category2.getId(), category2.getName()));
+        when(categoryRepository.findAllSummaries()).thenReturn(expectedCategories);
 
-        List<Category> actualCategories = categoryService.getAllCategories();
+        List<CategorySummary> actualCategories = categoryService.getAllCategories();
 
         assertNotNull(actualCategories);
         assertEquals(2, actualCategories.size());
-        assertEquals(expectedCategories, actualCategories);
-        verify(categoryRepository, times(1)).findAll();
+        assertEquals(1L, actualCategories.get(0).getId());
+        assertEquals("Sârmă de sudură", actualCategories.get(1).getName());
+        verify(categoryRepository, times(1)).findAllSummaries();
     }
 
     @Test
@@ -66,25 +70,26 @@ class CategoryServiceTest {
 
     @Test
     void getCategoryById_WhenCategoryExists_ShouldReturnCategory() {
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
+        when(categoryRepository.findSummaryById(1L))
+                .thenReturn(Optional.of(new CategorySummary(testCategory.getId(), testCategory.getName())));
 
-        Category foundCategory = categoryService.getCategoryById(1L);
+        CategorySummary foundCategory = categoryService.getCategoryById(1L);
 
         assertNotNull(foundCategory);
         assertEquals(testCategory.getId(), foundCategory.getId());
         assertEquals(testCategory.getName(), foundCategory.getName());
-        verify(categoryRepository, times(1)).findById(1L);
+        verify(categoryRepository, times(1)).findSummaryById(1L);
     }
 
     @Test
     void getCategoryById_WhenCategoryDoesNotExist_ShouldThrowException() {
-        when(categoryRepository.findById(999L)).thenReturn(Optional.empty());
+        when(categoryRepository.findSummaryById(999L)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             categoryService.getCategoryById(999L);
         });
         assertEquals("Category not found", exception.getMessage());
-        verify(categoryRepository, times(1)).findById(999L);
+        verify(categoryRepository, times(1)).findSummaryById(999L);
     }
 }
 
@@ -0,0 +1,120 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.EmailOutbox;
+import com.backend.sudexpert.domain.EmailOutboxStatus;
+import com.backend.sudexpert.domain.EmailType;
+import com.backend.sudexpert.dto.OrderResponse;
+import com.backend.sudexpert.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    @Mock
+    private EmailOutboxRepository repository;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private EmailService emailService;
+
+    private EmailOutboxDispatcher dispatcher;
+    private OrderResponse order;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new EmailOutboxDispatcher(repository, orderService, emailService, new CheckoutTracing(Tracer.NOOP),
+                new SimpleMeterRegistry(),
+                1, 10, 3, Duration.ofMinutes(2), Duration.ofSeconds(30), Duration.ofMinutes(5));
+        order = OrderResponse.builder().id(7L).orderCode("ORD-20250101-0001").build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void send_WhenEmailSucceeds_ShouldMarkSent() {
+        when(repository.findById(1L)).thenReturn(Optional.of(entry(1)));
+        when(orderService.getOrderDetails(7L)).thenReturn(order);
+
+        dispatcher.send(1L);
+
+        verify(emailService).sendOrderEmail(EmailType.ORDER_CONFIRMATION, order);
+        verify(repository).markDone(eq(1L), any(LocalDateTime.class));
+        verify(repository, never()).reschedule(any(), any(), any());
+    }
+
+    @Test
+    void send_WhenEmailFails_ShouldRescheduleWithBackoff() {
+        when(repository.findById(1L)).thenReturn(Optional.of(entry(2)));
+        when(orderService.getOrderDetails(7L)).thenReturn(order);
+        doThrow(new RuntimeException("Failed to send email")).when(emailService).sendOrderEmail(EmailType.ORDER_CONFIRMATION, order);
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.send(1L);
+
+        verify(repository).reschedule(eq(1L),
+                argThat(next -> !next.isBefore(before.plusSeconds(60)) && next.isBefore(before.plusSeconds(65))),
+                eq("RuntimeException: Failed to send email"));
+        verify(repository, never()).markDone(any(), any());
+        verify(repository, never()).markGivenUp(any(), any());
+    }
+
+    @Test
+    void send_WhenLastAttemptFails_ShouldDeadLetter() {
+        when(repository.findById(1L)).thenReturn(Optional.of(entry(3)));
+        when(orderService.getOrderDetails(7L)).thenThrow(new RuntimeException("Order not found"));
+
+        dispatcher.send(1L);
+
+        verify(repository).markGivenUp(1L, "RuntimeException: Order not found");
+        verify(repository, never()).reschedule(any(), any(), any());
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void dispatchDue_ShouldOnlySendEntriesItClaimed() {
+        when(repository.findDueIds(any(LocalDateTime.class), eq(Limit.of(10)))).thenReturn(List.of(1L, 2L));
+        when(repository.claim(eq(1L), any(), any())).thenReturn(0);
+        when(repository.claim(eq(2L), any(), any())).thenReturn(1);
+        when(repository.findById(2L)).thenReturn(Optional.of(entry(1)));
+        when(orderService.getOrderDetails(7L)).thenReturn(order);
+
+        dispatcher.dispatchDue();
+
+        verify(repository, timeout(2000)).markDone(eq(2L), any(LocalDateTime.class));
+        verify(repository, never()).findById(1L);
+    }
+
+    private static EmailOutbox entry(int attempts) {
+        return EmailOutbox.builder()
+                .id(1L)
+                .type(EmailType.ORDER_CONFIRMATION)
+                .orderId(7L)
+                .status(EmailOutboxStatus.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.config.PooledMailSender;
+import com.backend.sudexpert.config.PooledMailSender.SendResult;
+import com.backend.sudexpert.domain.EmailType;
+import com.backend.sudexpert.domain.OrderStatus;
+import com.backend.sudexpert.dto.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailServiceTest {
+
+    private static final EmailTemplates TEMPLATES = new EmailTemplates();
+
+    @Mock
+    private PooledMailSender mailSender;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private EmailService emailService;
+    private OrderResponse order;
+
+    @BeforeEach
+    void setUp() {
+        emailService = new EmailService(mailSender, TEMPLATES, registry, new CheckoutTracing(Tracer.NOOP));
+        ReflectionTestUtils.setField(emailService, "fromEmail", "comenzi@sudexpert.ro");
+        order = OrderResponse.builder()
+                .id(1L)
+                .orderCode("ORD-20250314-0042")
+                .status(OrderStatus.PROCESSING)
+                .total(new BigDecimal("62.5"))
+                .createdAt(LocalDateTime.of(2025, 3, 14, 9, 5))
+                .deliveryName("Ion <Popescu>")
+                .deliveryEmail("ion@example.com")
+                .deliveryPhone("0712345678")
+                .deliveryAddress("Strada Test 123")
+                .deliveryCity("Brăila")
+                .deliveryCountry("Romania")
+                .items(List.of(
+                        OrderResponse.OrderItemResponse.builder()
+                                .productName("Electrod E6013").quantity(3).price(new BigDecimal("12.50")).build(),
+                        OrderResponse.OrderItemResponse.builder()
+                                .productName("Sârmă MIG").quantity(1).price(new BigDecimal("25")).build()))
+                .build();
+    }
+
+    @Test
+    void renderOrderEmail_Confirmation_ShouldContainOrderItemsTotalsAndAddress() {
+        String html = emailService.renderOrderEmail(EmailType.ORDER_CONFIRMATION, order);
+
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertTrue(html.contains("Mulțumim pentru comandă!"));
+        assertTrue(html.contains(">ORD-20250314-0042</td>"));
+        assertTrue(html.contains(">14.03.2025 09:05</td>"));
+        assertTrue(html.contains("În procesare"));
+        assertTrue(html.contains(">Electrod E6013</td>"));
+        assertTrue(html.contains(">12.50 RON</td>"));
+        assertTrue(html.contains(">37.50 RON</td>"));
+        assertTrue(html.contains(">25.00 RON</td>"));
+        assertTrue(html.contains(">62.50 RON</td>"));
+        assertTrue(html.contains("Brăila,  </p>"));
+        assertFalse(html.contains("{{"));
+    }
+
+    @Test
+    void renderOrderEmail_ShouldEscapeCustomerInput() {
+        String html = emailService.renderOrderEmail(EmailType.ORDER_CONFIRMATION, order);
+
+        assertTrue(html.contains("Ion &lt;Popescu&gt;"));
+        assertFalse(html.contains("<Popescu>"));
+    }
+
+    @Test
+    void renderOrderEmail_ShouldUseTemplatePerType() {
+        String shipped = emailService.renderOrderEmail(EmailType.ORDER_SHIPPED, order);
+        String cancelled = emailService.renderOrderEmail(EmailType.ORDER_CANCELLED, order);
+
+        assertTrue(shipped.contains("a fost expediată!"));
+        assertTrue(shipped.contains("Expediată"));
+        assertTrue(shipped.contains("Adresă de livrare"));
+        assertTrue(cancelled.contains("a fost anulată"));
+        assertTrue(cancelled.contains("Anulată"));
+        assertFalse(cancelled.contains("Adresă de livrare"));
+    }
+
+    @Test
+    void sendOrderEmail_ShouldSendToDeliveryEmailWithTypeSubject() throws Exception {
+        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+
+        emailService.sendOrderEmail(EmailType.ORDER_SHIPPED, order);
+
+        ArgumentCaptor<MimeMessage> message = ArgumentCaptor.forClass(MimeMessage.class);
+        verify(mailSender).send(message.capture());
+        assertEquals("Comanda #ORD-20250314-0042 a fost expediată - Sudexpert", message.getValue().getSubject());
+        assertEquals("ion@example.com", message.getValue().getAllRecipients()[0].toString());
+        assertEquals(1, registry.get("email.send").tag("type", "ORDER_SHIPPED").tag("outcome", "sent").timer().count());
+    }
+
+    @Test
+    void sendAll_ShouldKeepResultsAlignedWithOrders() {
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        when(mailSender.sendAll(anyList())).thenAnswer(invocation -> {
+            List<MimeMessage> messages = invocation.getArgument(0);
+            return messages.stream().map(SendResult::sent).toList();
+        });
+        OrderResponse badAddress = OrderResponse.builder()
+                .orderCode("ORD-20250314-0043")
+                .deliveryEmail("ion@@example.com")
+                .items(List.of())
+                .build();
+
+        List<SendResult> results = emailService.sendAll(EmailType.ORDER_SHIPPED, List.of(order, badAddress, order));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSent());
+        assertFalse(results.get(1).isSent());
+        assertTrue(results.get(2).isSent());
+        verify(mailSender).sendAll(argThat(messages -> messages.size() == 2));
+    }
+}
@@ -0,0 +1,51 @@
+package com.backend.sudexpert.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateTest {
+
+    @Test
+    void renderTo_ShouldEscapeDoubleBracesAndKeepTripleBracesRaw() {
+        EmailTemplate template = EmailTemplate.compile("<p>{{name}}</p>{{{html}}}", name -> null);
+        StringBuilder out = new StringBuilder();
+
+        template.renderTo(out, Map.of("name", "<Ion & \"Maria\">", "html", "<b>ok</b>"));
+
+        assertEquals("<p>&lt;Ion &amp; &quot;Maria&quot;&gt;</p><b>ok</b>", out.toString());
+    }
+
+    @Test
+    void renderTo_ShouldRenderFragmentsInPlaceAndSkipMissingValues() {
+        EmailTemplate template = EmailTemplate.compile("[{{{rows}}}]{{missing}}.", name -> null);
+        StringBuilder out = new StringBuilder();
+
+        template.renderTo(out, Map.of("rows", (EmailTemplate.Fragment) rows -> rows.append("a").append("b")));
+
+        assertEquals("[ab].", out.toString());
+    }
+
+    @Test
+    void compile_ShouldInlineNestedIncludes() {
+        Map<String, String> partials = Map.of(
+                "outer", "<div>{{> inner}}</div>\n",
+                "inner", "{{ title }}");
+        EmailTemplate template = EmailTemplate.compile("{{> outer}}!", partials::get);
+        StringBuilder out = new StringBuilder();
+
+        template.renderTo(out, Map.of("title", "Salut"));
+
+        assertEquals("<div>Salut</div>!", out.toString());
+        assertEquals("<div></div>!".length(), template.literalLength());
+    }
+
+    @Test
+    void compile_WithBrokenSyntax_ShouldFailFast() {
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("{{name", name -> null));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("{{> missing}}", name -> null));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("{{> self}}", name -> "{{> self}}"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.EmailOutbox;
+import com.backend.sudexpert.repository.LeasedQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeasedQueueDispatcherTest {
+
+    @Mock
+    private LeasedQueue<EmailOutbox> queue;
+
+    @Mock
+    private LeasedQueueDispatcher.Handler<EmailOutbox> handler;
+
+    private SimpleMeterRegistry registry;
+    private LeasedQueueDispatcher<EmailOutbox> dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        dispatcher = new LeasedQueueDispatcher<>("test-queue", "test.queue", "rows", queue, handler,
+                new LeasedQueueDispatcher.Settings(1, 10, 3, Duration.ofMinutes(2), Duration.ofSeconds(30),
+                        Duration.ofMinutes(5)),
+                registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void backoff_ShouldDoublePerAttemptUpToMax() {
+        assertEquals(Duration.ofSeconds(30), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(60), dispatcher.backoff(2));
+        assertEquals(Duration.ofSeconds(240), dispatcher.backoff(4));
+        assertEquals(Duration.ofMinutes(5), dispatcher.backoff(5));
+        assertEquals(Duration.ofMinutes(5), dispatcher.backoff(40));
+    }
+
+    @Test
+    void process_WhenHandlerThrowsOnLastAttempt_ShouldGiveUp() throws Exception {
+        EmailOutbox row = EmailOutbox.builder().id(1L).attempts(3).build();
+        when(queue.findById(1L)).thenReturn(Optional.of(row));
+        doThrow(new IllegalStateException("boom")).when(handler).handle(row);
+
+        dispatcher.process(1L);
+
+        verify(queue).markGivenUp(1L, "IllegalStateException: boom");
+        verify(queue, never()).markDone(any(), any());
+        verify(queue, never()).reschedule(any(), any(), any());
+    }
+
+    @Test
+    void dispatchDue_ShouldOnlyHandleRowsItClaimed() throws Exception {
+        EmailOutbox row = EmailOutbox.builder().id(1L).attempts(1).build();
+        when(queue.findDueIds(any(LocalDateTime.class), eq(Limit.of(10)))).thenReturn(List.of(1L, 2L));
+        when(queue.claim(eq(1L), any(), any())).thenReturn(1);
+        when(queue.claim(eq(2L), any(), any())).thenReturn(0);
+        when(queue.findById(1L)).thenReturn(Optional.of(row));
+
+        dispatcher.dispatchDue();
+
+        verify(queue, timeout(2000)).markDone(eq(1L), any(LocalDateTime.class));
+        verify(handler).handle(row);
+        verify(queue, never()).findById(2L);
+    }
+
+    @Test
+    void constructor_ShouldRegisterWorkerGaugesUnderMetricPrefix() {
+        assertNotNull(registry.find("test.queue.workers.queue").gauge());
+        assertNotNull(registry.find("test.queue.workers.active").gauge());
+    }
+}
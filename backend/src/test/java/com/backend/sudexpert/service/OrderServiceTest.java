@@ -1,26 +1,34 @@
 package com.backend.sudexpert.service;
 
 import com.backend.sudexpert.domain.*;
+import com.backend.sudexpert.dto.OrderHistoryResponse;
 import com.backend.sudexpert.dto.OrderRequest;
 import com.backend.sudexpert.dto.OrderResponse;
 import com.backend.sudexpert.repository.OrderRepository;
 import com.backend.sudexpert.repository.ProductRepository;
 import com.backend.sudexpert.repository.UserRepository;
+import io.micrometer.tracing.Tracer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +43,21 @@ class OrderServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private OrderCodeAllocator orderCodeAllocator;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private OrderMetrics orderMetrics;
+
+    @Spy
+    private CheckoutTracing tracing = new CheckoutTracing(Tracer.NOOP);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -77,29 +100,65 @@ class OrderServiceTest {
     }
 
     @Test
-    void getOrdersByUser_WhenUserExists_ShouldReturnOrders() {
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(orderRepository.findByUserId(1L)).thenReturn(Arrays.asList(testOrder));
+    void getOrderHistory_ShouldReturnPageInKeysetOrderWithCursor() {
+        Order newer = historyOrder(3L, LocalDateTime.of(2023, 12, 11, 12, 0));
+        Order older = historyOrder(2L, LocalDateTime.of(2023, 12, 10, 9, 30));
+        when(orderRepository.findHistoryIds("test@example.com", Limit.of(3))).thenReturn(List.of(3L, 2L, 1L));
+        when(orderRepository.findDetailedByIdIn(List.of(3L, 2L))).thenReturn(List.of(older, newer));
 
-        List<Order> orders = orderService.getOrdersByUser("test@example.com");
+        OrderHistoryResponse page = orderService.getOrderHistory("test@example.com", null, 2);
 
-        assertNotNull(orders);
-        assertEquals(1, orders.size());
-        assertEquals(testOrder.getId(), orders.get(0).getId());
-        verify(userRepository, times(1)).findByEmail("test@example.com");
-        verify(orderRepository, times(1)).findByUserId(1L);
+        assertEquals(List.of(3L, 2L), page.getItems().stream().map(OrderResponse::getId).toList());
+        assertEquals("Electrozi E6013", page.getItems().get(0).getItems().get(0).getProductName());
+        assertNotNull(page.getNextCursor());
+
+        when(orderRepository.findHistoryIdsBefore("test@example.com", older.getCreatedAt(), 2L, Limit.of(3)))
+                .thenReturn(List.of());
+
+        OrderHistoryResponse next = orderService.getOrderHistory("test@example.com", page.getNextCursor(), 2);
+
+        assertTrue(next.getItems().isEmpty());
+        assertNull(next.getNextCursor());
+        verify(orderRepository, times(1)).findDetailedByIdIn(any());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
-    void getOrdersByUser_WhenUserDoesNotExist_ShouldThrowException() {
-        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+    void getOrderHistory_OnLastPage_ShouldNotReturnCursor() {
+        Order only = historyOrder(1L, LocalDateTime.of(2023, 12, 11, 12, 0));
+        when(orderRepository.findHistoryIds("test@example.com", Limit.of(21))).thenReturn(List.of(1L));
+        when(orderRepository.findDetailedByIdIn(List.of(1L))).thenReturn(List.of(only));
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            orderService.getOrdersByUser("nonexistent@example.com");
-        });
-        assertEquals("User not found", exception.getMessage());
-        verify(userRepository, times(1)).findByEmail("nonexistent@example.com");
-        verify(orderRepository, never()).findByUserId(any());
+        OrderHistoryResponse page = orderService.getOrderHistory("test@example.com", null, 20);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getOrderHistory_WithInvalidCursor_ShouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.getOrderHistory("test@example.com", "not-a-cursor", 20));
+        verifyNoInteractions(orderRepository);
+    }
+
+    private Order historyOrder(Long id, LocalDateTime createdAt) {
+        Order order = Order.builder()
+                .id(id)
+                .user(testUser)
+                .total(new BigDecimal("150.00"))
+                .status(OrderStatus.PENDING)
+                .orderCode("ORD-20231211-000" + id)
+                .createdAt(createdAt)
+                .build();
+        order.setItems(List.of(OrderItem.builder()
+                .id(id * 10)
+                .order(order)
+                .product(testProduct)
+                .quantity(1)
+                .price(new BigDecimal("150.00"))
+                .build()));
+        return order;
     }
 
     @Test
@@ -120,9 +179,9 @@ class OrderServiceTest {
                 .build();
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findAllByIdIn(Set.of(1L))).thenReturn(List.of(testProduct));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
-        when(orderRepository.findAll()).thenReturn(Arrays.asList()); // For order code generation
+        when(orderCodeAllocator.nextOrderCode()).thenReturn("ORD-20231211-0001");
 
         OrderResponse createdOrder = orderService.createOrder(orderRequest, "test@example.com");
 
@@ -131,8 +190,44 @@ class OrderServiceTest {
         assertEquals(OrderStatus.PENDING, createdOrder.getStatus());
         assertNotNull(createdOrder.getOrderCode());
         verify(userRepository, times(1)).findByEmail("test@example.com");
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findAllByIdIn(Set.of(1L));
+        verify(productRepository, never()).findById(any());
+        verify(stockReservationService).reserve(any(Order.class));
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderMetrics).transition(null, OrderStatus.PENDING);
+        verify(orderMetrics).recordCreate(eq("created"), anyLong());
+    }
+
+    @Test
+    void createOrder_WhenStockIsShort_ShouldNotSaveOrder() {
+        OrderRequest orderRequest = OrderRequest.builder()
+                .items(Arrays.asList(
+                        OrderRequest.OrderItemRequest.builder()
+                                .product(OrderRequest.ProductReference.builder().id(1L).build())
+                                .quantity(5)
+                                .build()
+                ))
+                .deliveryName("John Doe")
+                .deliveryEmail("test@example.com")
+                .deliveryPhone("0712345678")
+                .deliveryAddress("Strada Test 123")
+                .deliveryCity("București")
+                .deliveryCountry("Romania")
+                .build();
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(productRepository.findAllByIdIn(Set.of(1L))).thenReturn(List.of(testProduct));
+        when(orderCodeAllocator.nextOrderCode()).thenReturn("ORD-20231211-0001");
+        doThrow(new InsufficientStockException("Insufficient stock for products [1]"))
+                .when(stockReservationService).reserve(any(Order.class));
+
+        assertThrows(InsufficientStockException.class,
+                () -> orderService.createOrder(orderRequest, "test@example.com"));
+
+        verify(orderRepository, never()).save(any());
+        verify(transactionManager).rollback(any());
+        verify(orderMetrics).recordCreate(eq("insufficient_stock"), anyLong());
+        verify(orderMetrics, never()).transition(any(), any());
     }
 
     @Test
@@ -180,8 +275,8 @@ class OrderServiceTest {
                 .build();
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(orderRepository.findAll()).thenReturn(Arrays.asList());
+        when(productRepository.findAllByIdIn(Set.of(1L))).thenReturn(List.of(testProduct));
+        when(orderCodeAllocator.nextOrderCode()).thenReturn("ORD-20231211-0001");
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(1L);
@@ -193,7 +288,39 @@ class OrderServiceTest {
         assertNotNull(createdOrder);
         assertEquals(new BigDecimal("450.00"), createdOrder.getTotal());
         assertEquals(OrderStatus.PENDING, createdOrder.getStatus());
-        assertNotNull(createdOrder.getOrderCode());
+        assertEquals("ORD-20231211-0001", createdOrder.getOrderCode());
+        verify(orderRepository, never()).findAll();
     }
-}
 
+    @Test
+    void createOrder_WhenProductDoesNotExist_ShouldThrowBeforeAllocatingCode() {
+        OrderRequest orderRequest = OrderRequest.builder()
+                .items(Arrays.asList(
+                        OrderRequest.OrderItemRequest.builder()
+                                .product(OrderRequest.ProductReference.builder().id(1L).build())
+                                .quantity(1)
+                                .build(),
+                        OrderRequest.OrderItemRequest.builder()
+                                .product(OrderRequest.ProductReference.builder().id(99L).build())
+                                .quantity(1)
+                                .build()
+                ))
+                .deliveryName("John Doe")
+                .deliveryEmail("test@example.com")
+                .deliveryPhone("0712345678")
+                .deliveryAddress("Strada Test 123")
+                .deliveryCity("București")
+                .deliveryCountry("Romania")
+                .build();
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(productRepository.findAllByIdIn(Set.of(1L, 99L))).thenReturn(List.of(testProduct));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            orderService.createOrder(orderRequest, "test@example.com");
+        });
+        assertEquals("Product not found", exception.getMessage());
+        verify(orderCodeAllocator, never()).nextOrderCode();
+        verify(orderRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,176 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.dto.StalePendingOrder;
+import com.backend.sudexpert.repository.OrderRepository;
+import com.backend.sudexpert.service.PaymentGateway.PaymentIntentDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingOrderSweeperTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry registry;
+    private PendingOrderSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        sweeper = new PendingOrderSweeper(orderRepository, paymentGateway, stockReservationService, new OrderMetrics(registry),
+                transactionManager, registry,
+                Duration.ofMinutes(30), 2, 10);
+    }
+
+    @Test
+    void sweep_ShouldPageThroughBacklogUntilShortPage() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(30);
+        when(orderRepository.findStalePendingOrders(any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(orders(1L, 2L));
+        when(orderRepository.findStalePendingOrdersAfter(any(LocalDateTime.class), eq(createdAt(2L)), eq(2L), eq(Limit.of(2))))
+                .thenReturn(orders(3L, 4L));
+        when(orderRepository.findStalePendingOrdersAfter(any(LocalDateTime.class), eq(createdAt(4L)), eq(4L), eq(Limit.of(2))))
+                .thenReturn(orders(5L));
+        when(orderRepository.cancelIfPending(anyLong())).thenReturn(1);
+        when(stockReservationService.release(anyLong())).thenReturn(true);
+        when(stockReservationService.release(5L)).thenReturn(false);
+
+        assertEquals(5, sweeper.sweep());
+
+        verify(orderRepository).findStalePendingOrders(
+                argThat(cutoff -> !cutoff.isBefore(before) && cutoff.isBefore(LocalDateTime.now().minusMinutes(29))),
+                eq(Limit.of(2)));
+        verify(orderRepository, times(2)).findStalePendingOrdersAfter(any(), any(), anyLong(), any());
+        assertEquals(5, registry.get("orders.sweeper.swept").counter().count());
+        assertEquals(4, registry.get("orders.sweeper.stock.released").counter().count());
+        assertEquals(1, registry.get("orders.sweeper.run").timer().count());
+        assertEquals(5, registry.get("orders.status.transitions")
+                .tag("from", "PENDING").tag("to", "CANCELLED").counter().count());
+    }
+
+    @Test
+    void sweep_WhenOrderWasPaidMeanwhile_ShouldSkipIt() {
+        when(orderRepository.findStalePendingOrders(any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(orders(1L));
+        when(orderRepository.cancelIfPending(1L)).thenReturn(0);
+
+        assertEquals(0, sweeper.sweep());
+
+        verifyNoInteractions(stockReservationService);
+        assertEquals(0, registry.get("orders.sweeper.swept").counter().count());
+    }
+
+    @Test
+    void sweep_WhenMoreThanAPageOfOrdersKeepsFailing_ShouldStillReachOrdersBehindThem() {
+        when(orderRepository.findStalePendingOrders(any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(orders(1L, 2L));
+        when(orderRepository.findStalePendingOrdersAfter(any(LocalDateTime.class), eq(createdAt(2L)), eq(2L), eq(Limit.of(2))))
+                .thenReturn(orders(3L, 4L));
+        when(orderRepository.findStalePendingOrdersAfter(any(LocalDateTime.class), eq(createdAt(4L)), eq(4L), eq(Limit.of(2))))
+                .thenReturn(orders(5L));
+        when(orderRepository.cancelIfPending(anyLong())).thenThrow(new IllegalStateException("DB down"));
+        doReturn(1).when(orderRepository).cancelIfPending(5L);
+
+        assertEquals(1, sweeper.sweep());
+
+        verify(orderRepository).cancelIfPending(5L);
+        assertEquals(4, registry.get("orders.sweeper.failed").counter().count());
+        assertEquals(1, registry.get("orders.sweeper.swept").counter().count());
+    }
+
+    @Test
+    void sweep_WhenOrderHasPaymentIntent_ShouldCancelItAtStripeFirst() {
+        when(orderRepository.findStalePendingOrders(any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(new StalePendingOrder(1L, "pi_1", createdAt(1L))));
+        when(paymentGateway.cancelPaymentIntent("pi_1"))
+                .thenReturn(new PaymentIntentDetails("pi_1", "secret", "canceled", "1"));
+        when(orderRepository.cancelIfPending(1L)).thenReturn(1);
+
+        assertEquals(1, sweeper.sweep());
+
+        InOrder inOrder = inOrder(paymentGateway, orderRepository);
+        inOrder.verify(paymentGateway).cancelPaymentIntent("pi_1");
+        inOrder.verify(orderRepository).updatePaymentState(eq(1L), eq("pi_1"), eq("canceled"), any());
+        inOrder.verify(orderRepository).cancelIfPending(1L);
+    }
+
+    @Test
+    void sweep_WhenStripeRefusesToCancelSucceededPayment_ShouldLeaveOrderPending() {
+        when(orderRepository.findStalePendingOrders(any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(new StalePendingOrder(1L, "pi_1", createdAt(1L))));
+        when(paymentGateway.cancelPaymentIntent("pi_1"))
+                .thenThrow(new PaymentGatewayException("Stripe cancel failed: status succeeded", false, null));
+        when(paymentGateway.retrievePaymentIntent("pi_1"))
+                .thenReturn(new PaymentIntentDetails("pi_1", "secret", "succeeded", "1"));
+
+        assertEquals(0, sweeper.sweep());
+
+        verify(orderRepository).updatePaymentState(eq(1L), eq("pi_1"), eq("succeeded"), any());
+        verify(orderRepository, never()).cancelIfPending(anyLong());
+        verifyNoInteractions(stockReservationService);
+        assertEquals(1, registry.get("orders.sweeper.payment.in.progress").counter().count());
+    }
+
+    @Test
+    void sweep_WhenStripeIsUnavailable_ShouldRetryOrderNextRun() {
+        when(orderRepository.findStalePendingOrders(any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(new StalePendingOrder(1L, "pi_1", createdAt(1L))));
+        when(paymentGateway.cancelPaymentIntent("pi_1"))
+                .thenThrow(new PaymentGatewayUnavailableException("Payment provider circuit is open"));
+
+        assertEquals(0, sweeper.sweep());
+
+        verify(orderRepository, never()).cancelIfPending(anyLong());
+        assertEquals(1, registry.get("orders.sweeper.failed").counter().count());
+    }
+
+    @Test
+    void sweep_ShouldStopAfterMaxBatches() {
+        when(orderRepository.findStalePendingOrders(any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(orders(1L, 2L));
+        when(orderRepository.findStalePendingOrdersAfter(any(LocalDateTime.class), any(), anyLong(), eq(Limit.of(2))))
+                .thenReturn(orders(3L, 4L));
+        when(orderRepository.cancelIfPending(anyLong())).thenReturn(1);
+
+        assertEquals(20, sweeper.sweep());
+
+        verify(orderRepository, times(9)).findStalePendingOrdersAfter(any(), any(), anyLong(), any());
+    }
+
+    private static List<StalePendingOrder> orders(Long... ids) {
+        return Arrays.stream(ids).map(id -> new StalePendingOrder(id, null, createdAt(id))).toList();
+    }
+
+    private static LocalDateTime createdAt(Long id) {
+        return LocalDateTime.of(2025, 3, 14, 9, 0).plusMinutes(id);
+    }
+}
@@ -0,0 +1,169 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.dto.CategorySummary;
+import com.backend.sudexpert.dto.ProductSummary;
+import com.backend.sudexpert.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductSearchIndex searchIndex;
+
+    private CategorySummary electrozi;
+    private CategorySummary sarma;
+
+    @BeforeEach
+    void setUp() {
+        electrozi = CategorySummary.builder().id(1L).name("Electrozi").build();
+        sarma = CategorySummary.builder().id(2L).name("Sârmă de sudură").build();
+    }
+
+    @Test
+    void search_ShouldIgnoreDiacriticsAndCase() {
+        build(product(1L, "Sârmă MIG 0.8mm", "Rolă 5kg", sarma),
+                product(2L, "Electrod rutilic E6013", "Pentru oțel", electrozi));
+
+        assertEquals(List.of(1L), ids(searchIndex.search("sarma")));
+        assertEquals(List.of(1L), ids(searchIndex.search("SÂRMĂ")));
+        assertEquals(List.of(2L), ids(searchIndex.search("otel")));
+    }
+
+    @Test
+    void search_ShouldFoldCedillaAndCommaBelowVariants() {
+        build(product(1L, "Mască de sudură", "Protecție ştiinţifică", electrozi));
+
+        assertEquals(List.of(1L), ids(searchIndex.search("stiintifica")));
+        assertEquals(List.of(1L), ids(searchIndex.search("științifică")));
+        assertEquals(List.of(1L), ids(searchIndex.search("protectie")));
+    }
+
+    @Test
+    void search_ShouldMatchPrefixes() {
+        build(product(1L, "Invertor de sudură 200A", null, electrozi),
+                product(2L, "Electrod bazic E7018", null, electrozi));
+
+        assertEquals(List.of(1L), ids(searchIndex.search("inver")));
+        assertEquals(List.of(2L), ids(searchIndex.search("e70")));
+    }
+
+    @Test
+    void search_ShouldMatchInflectedFormsBySimilarity() {
+        build(product(1L, "Electrod rutilic E6013", null, sarma),
+                product(2L, "Sârmă MIG", null, sarma));
+
+        assertEquals(List.of(1L), ids(searchIndex.search("electrozi rutilici")));
+    }
+
+    @Test
+    void search_ShouldRequireEveryTerm() {
+        build(product(1L, "Electrod rutilic", null, electrozi),
+                product(2L, "Electrod bazic", null, electrozi));
+
+        assertEquals(List.of(2L), ids(searchIndex.search("electrod bazic")));
+        assertTrue(searchIndex.search("electrod aluminiu").isEmpty());
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        build(product(1L, "Clește de masă", "Compatibil cu orice invertor", sarma),
+                product(2L, "Invertor de sudură", "Aparat compact", sarma),
+                product(3L, "Mănuși", "Piele", sarma));
+
+        assertEquals(List.of(2L, 1L), ids(searchIndex.search("invertor")));
+    }
+
+    @Test
+    void index_ShouldReplacePreviousVersionOfProduct() {
+        build(product(1L, "Electrod rutilic", null, electrozi));
+
+        searchIndex.index(List.of(product(1L, "Sârmă inox", null, sarma),
+                product(2L, "Electrod inox", null, electrozi)));
+
+        assertEquals(List.of(2L), ids(searchIndex.search("electrod")));
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("inox")).stream().sorted().toList());
+        assertTrue(searchIndex.search("rutilic").isEmpty());
+    }
+
+    @Test
+    void remove_ShouldDropProductFromResults() {
+        build(product(1L, "Electrod rutilic", null, electrozi),
+                product(2L, "Electrod bazic", null, electrozi));
+
+        searchIndex.remove(1L);
+
+        assertEquals(List.of(2L), ids(searchIndex.search("electrod")));
+        assertTrue(searchIndex.search("rutilic").isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldKeepUpdatesMadeWhileReadingProducts() {
+        ProductSummary bazic = product(1L, "Electrod bazic", null, electrozi);
+        ProductSummary rutilic = product(2L, "Electrod rutilic", null, electrozi);
+        when(productRepository.findAllSummaries()).thenAnswer(invocation -> {
+            searchIndex.index(List.of(rutilic));
+            return List.of(bazic);
+        });
+
+        searchIndex.rebuild();
+
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("electrod")));
+        assertEquals(List.of(2L), ids(searchIndex.search("rutilic")));
+    }
+
+    @Test
+    void rebuild_WhenReadingProductsFails_ShouldKeepTheOldIndex() {
+        build(product(1L, "Electrod bazic", null, electrozi));
+        IllegalStateException failure = new IllegalStateException("DB down");
+        when(productRepository.findAllSummaries()).thenThrow(failure);
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> searchIndex.rebuild()));
+
+        searchIndex.index(List.of(product(2L, "Electrod rutilic", null, electrozi)));
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("electrod")));
+    }
+
+    @Test
+    void search_WithBlankQuery_ShouldReturnNothing() {
+        build(product(1L, "Electrod rutilic", null, electrozi));
+
+        assertTrue(searchIndex.search("  ").isEmpty());
+        assertTrue(searchIndex.search(null).isEmpty());
+    }
+
+    private void build(ProductSummary... products) {
+        when(productRepository.findAllSummaries()).thenReturn(List.of(products));
+        searchIndex.rebuild();
+        assertTrue(searchIndex.isReady());
+    }
+
+    private static ProductSummary product(Long id, String name, String description, CategorySummary category) {
+        return ProductSummary.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .price(new BigDecimal("10.00"))
+                .stock(10)
+                .category(category)
+                .build();
+    }
+
+    private static List<Long> ids(List<ProductSummary> products) {
+        return products.stream().map(ProductSummary::getId).toList();
+    }
+}
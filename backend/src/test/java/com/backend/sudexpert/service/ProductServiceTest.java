@@ -2,6 +2,10 @@ package com.backend.sudexpert.service;
 
 import com.backend.sudexpert.domain.Category;
 import com.backend.sudexpert.domain.Product;
+import com.backend.sudexpert.dto.CategorySummary;
+import com.backend.sudexpert.dto.ProductSearchCriteria;
+import com.backend.sudexpert.dto.ProductSearchResponse;
+import com.backend.sudexpert.dto.ProductSummary;
 import com.backend.sudexpert.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,12 +15,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +34,9 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductSearchIndex searchIndex;
+
     @InjectMocks
     private ProductService productService;
 
@@ -56,15 +68,18 @@ class ProductServiceTest {
                 .name("Sârmă sudură")
                 .price(new BigDecimal("200.00"))
                 .build();
-        List<Product> expectedProducts = Arrays.asList(testProduct, product2);
-        when(productRepository.findAll()).thenReturn(expectedProducts);
+        List<ProductSummary> expectedProducts = Arrays.asList(summary(testProduct), summary(product2));
+        when(productRepository.findAllSummaries()).thenReturn(expectedProducts);
 
-        List<Product> actualProducts = productService.getAllProducts();
+        List<ProductSummary> actualProducts = productService.getAllProducts();
 
         assertNotNull(actualProducts);
         assertEquals(2, actualProducts.size());
-        assertEquals(expectedProducts, actualProducts);
-        verify(productRepository, times(1)).findAll();
+        assertEquals("Electrozi E6013", actualProducts.get(0).getName());
+        assertEquals(1L, actualProducts.get(0).getCategory().getId());
+        assertEquals("Electrozi", actualProducts.get(0).getCategory().getName());
+        assertNull(actualProducts.get(1).getCategory());
+        verify(productRepository, times(1)).findAllSummaries();
     }
 
     @Test
@@ -81,25 +96,25 @@ class ProductServiceTest {
 
     @Test
     void getProductById_WhenProductExists_ShouldReturnProduct() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findSummaryById(1L)).thenReturn(Optional.of(summary(testProduct)));
 
-        Product foundProduct = productService.getProductById(1L);
+        ProductSummary foundProduct = productService.getProductById(1L);
 
         assertNotNull(foundProduct);
         assertEquals(testProduct.getId(), foundProduct.getId());
         assertEquals(testProduct.getName(), foundProduct.getName());
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findSummaryById(1L);
     }
 
     @Test
     void getProductById_WhenProductDoesNotExist_ShouldThrowException() {
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(productRepository.findSummaryById(999L)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             productService.getProductById(999L);
         });
         assertEquals("Product not found", exception.getMessage());
-        verify(productRepository, times(1)).findById(999L);
+        verify(productRepository, times(1)).findSummaryById(999L);
     }
 
     @Test
@@ -109,26 +124,141 @@ class ProductServiceTest {
                 .name("Electrozi E7018")
                 .category(testCategory)
                 .build();
-        List<Product> expectedProducts = Arrays.asList(testProduct, product2);
-        when(productRepository.findByCategoryId(1L)).thenReturn(expectedProducts);
+        List<ProductSummary> expectedProducts = Arrays.asList(summary(testProduct), summary(product2));
+        when(productRepository.findSummariesByCategoryId(1L)).thenReturn(expectedProducts);
 
-        List<Product> actualProducts = productService.getProductsByCategory(1L);
+        List<ProductSummary> actualProducts = productService.getProductsByCategory(1L);
 
         assertNotNull(actualProducts);
         assertEquals(2, actualProducts.size());
-        assertTrue(actualProducts.stream().allMatch(p -> p.getCategory().equals(testCategory)));
-        verify(productRepository, times(1)).findByCategoryId(1L);
+        assertTrue(actualProducts.stream().allMatch(p -> p.getCategory().getId().equals(testCategory.getId())));
+        verify(productRepository, times(1)).findSummariesByCategoryId(1L);
     }
 
     @Test
     void getProductsByCategory_WhenNoCategoryProducts_ShouldReturnEmptyList() {
-        when(productRepository.findByCategoryId(999L)).thenReturn(Arrays.asList());
+        when(productRepository.findSummariesByCategoryId(999L)).thenReturn(Arrays.asList());
 
-        List<Product> actualProducts = productService.getProductsByCategory(999L);
+        List<ProductSummary> actualProducts = productService.getProductsByCategory(999L);
 
         assertNotNull(actualProducts);
         assertTrue(actualProducts.isEmpty());
-        verify(productRepository, times(1)).findByCategoryId(999L);
+        verify(productRepository, times(1)).findSummariesByCategoryId(999L);
     }
-}
 
+    @Test
+    void searchProducts_ShouldReturnPageWithCursorThatResumesAfterLastItem() {
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder()
+                .sort(ProductSearchCriteria.Sort.PRICE_DESC)
+                .build();
+        ProductSummary first = ProductSummary.builder().id(5L).name("A").price(new BigDecimal("300.00")).build();
+        ProductSummary second = ProductSummary.builder().id(3L).name("B").price(new BigDecimal("150.00")).build();
+        ProductSummary extra = ProductSummary.builder().id(4L).name("C").price(new BigDecimal("100.00")).build();
+        when(productRepository.search(criteria, 3)).thenReturn(List.of(first, second, extra));
+        when(productRepository.count(criteria)).thenReturn(7L);
+
+        ProductSearchResponse page = productService.searchProducts(criteria, null, 2);
+
+        assertEquals(List.of(first, second), page.getItems());
+        assertEquals(7L, page.getTotal());
+        assertNotNull(page.getNextCursor());
+
+        when(productRepository.search(any(ProductSearchCriteria.class), eq(3))).thenReturn(List.of(extra));
+        ProductSearchResponse next = productService.searchProducts(criteria, page.getNextCursor(), 2);
+
+        assertNull(next.getNextCursor());
+        verify(productRepository).search(argThat(c -> c.getAfterId() != null
+                && c.getAfterId() == 3L
+                && new BigDecimal("150.00").equals(c.getAfterPrice())), eq(3));
+    }
+
+    @Test
+    void searchProducts_WithMalformedPriceInCursor_ShouldThrowBeforeQuerying() {
+        ProductSearchCriteria byPrice = ProductSearchCriteria.builder()
+                .sort(ProductSearchCriteria.Sort.PRICE_ASC)
+                .build();
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("price-asc|abc|5".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> productService.searchProducts(byPrice, cursor, 10));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void searchProducts_WithCursorForDifferentSort_ShouldThrow() {
+        ProductSearchCriteria byPrice = ProductSearchCriteria.builder()
+                .sort(ProductSearchCriteria.Sort.PRICE_ASC)
+                .build();
+        ProductSummary item = ProductSummary.builder().id(1L).name("A").price(BigDecimal.ONE).build();
+        when(productRepository.search(byPrice, 2)).thenReturn(List.of(item, item));
+        String cursor = productService.searchProducts(byPrice, null, 1).getNextCursor();
+
+        ProductSearchCriteria byName = ProductSearchCriteria.builder()
+                .sort(ProductSearchCriteria.Sort.NAME_ASC)
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> productService.searchProducts(byName, cursor, 1));
+    }
+
+    @Test
+    void searchProducts_WithQueryAndReadyIndex_ShouldFilterAndPageInMemory() {
+        ProductSummary cheap = ProductSummary.builder().id(1L).name("Electrod A").price(new BigDecimal("10.00")).stock(20)
+                .category(CategorySummary.builder().id(1L).name("Electrozi").build()).build();
+        ProductSummary pricey = ProductSummary.builder().id(2L).name("Electrod B").price(new BigDecimal("90.00")).stock(20)
+                .category(CategorySummary.builder().id(1L).name("Electrozi").build()).build();
+        ProductSummary otherCategory = ProductSummary.builder().id(3L).name("Electrod C").price(new BigDecimal("50.00")).stock(20)
+                .category(CategorySummary.builder().id(2L).name("Sârmă").build()).build();
+        ProductSummary outOfStock = ProductSummary.builder().id(4L).name("Electrod D").price(new BigDecimal("30.00")).stock(0)
+                .category(CategorySummary.builder().id(1L).name("Electrozi").build()).build();
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("electrozi")).thenReturn(List.of(otherCategory, cheap, outOfStock, pricey));
+
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder()
+                .query("electrozi")
+                .categoryId(1L)
+                .stock(ProductSearchCriteria.StockTier.IN_STOCK)
+                .sort(ProductSearchCriteria.Sort.PRICE_DESC)
+                .build();
+        ProductSearchResponse first = productService.searchProducts(criteria, null, 1);
+        ProductSearchResponse second = productService.searchProducts(criteria, first.getNextCursor(), 1);
+
+        assertEquals(List.of(pricey), first.getItems());
+        assertEquals(2, first.getTotal());
+        assertEquals(List.of(cheap), second.getItems());
+        assertNull(second.getNextCursor());
+        verify(productRepository, never()).search(any(), anyInt());
+        verify(productRepository, never()).count(any(ProductSearchCriteria.class));
+    }
+
+    @Test
+    void searchProducts_WithQueryBeforeIndexIsReady_ShouldFallBackToDatabase() {
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder().query("electrozi").build();
+        when(searchIndex.isReady()).thenReturn(false);
+        when(productRepository.search(criteria, 25)).thenReturn(List.of());
+        when(productRepository.count(criteria)).thenReturn(0L);
+
+        ProductSearchResponse response = productService.searchProducts(criteria, null, 24);
+
+        assertTrue(response.getItems().isEmpty());
+        verify(searchIndex, never()).search(any());
+    }
+
+    @Test
+    void createProduct_ShouldAddSavedProductToSearchIndex() {
+        when(productRepository.save(testProduct)).thenReturn(testProduct);
+        when(productRepository.findSummariesByIdIn(List.of(1L))).thenReturn(List.of(summary(testProduct)));
+
+        productService.createProduct(testProduct);
+
+        verify(searchIndex).index(argThat(products -> products.size() == 1
+                && products.iterator().next().getCategory().getName().equals("Electrozi")));
+    }
+
+    private static ProductSummary summary(Product product) {
+        return new ProductSummary(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getStock(), product.getImageUrl(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getCategory() != null ? product.getCategory().getName() : null);
+    }
+}
@@ -0,0 +1,160 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.service.PaymentGateway.PaymentIntentDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientPaymentGatewayTest {
+
+    private static final PaymentIntentDetails INTENT = new PaymentIntentDetails("pi_1", "pi_1_secret", "succeeded", "7");
+
+    @Mock
+    private PaymentGateway delegate;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ResilientPaymentGateway gateway;
+
+    @AfterEach
+    void tearDown() {
+        gateway.shutdown();
+    }
+
+    @Test
+    void create_ShouldRetryTransientFailuresWithSameIdempotencyKey() {
+        gateway = gateway(2, 2, Duration.ofSeconds(5), 3, 5);
+        when(delegate.createPaymentIntent(6250L, "ron", 7L, "order-7-6250-ron"))
+                .thenThrow(retryable(), retryable())
+                .thenReturn(INTENT);
+
+        PaymentIntentDetails intent = gateway.createPaymentIntent(6250L, "ron", 7L, "order-7-6250-ron");
+
+        assertEquals("pi_1", intent.getId());
+        verify(delegate, times(3)).createPaymentIntent(6250L, "ron", 7L, "order-7-6250-ron");
+        assertEquals(2.0, registry.get("payments.gateway.retries").counter().count());
+        assertEquals(1, registry.get("payments.gateway.call").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void retrieve_ShouldNotRetryRefusedRequest() {
+        gateway = gateway(2, 2, Duration.ofSeconds(5), 3, 1);
+        when(delegate.retrievePaymentIntent("pi_missing"))
+                .thenThrow(new PaymentGatewayException("No such payment intent", false, null));
+
+        PaymentGatewayException e = assertThrows(PaymentGatewayException.class,
+                () -> gateway.retrievePaymentIntent("pi_missing"));
+
+        assertFalse(e.isRetryable());
+        verify(delegate, times(1)).retrievePaymentIntent("pi_missing");
+        assertEquals(CircuitBreaker.State.CLOSED, currentCircuitState());
+    }
+
+    @Test
+    void retrieve_ShouldGiveUpAtDeadline() {
+        gateway = gateway(2, 2, Duration.ofMillis(200), 3, 5);
+        when(delegate.retrievePaymentIntent(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return INTENT;
+        });
+
+        long start = System.nanoTime();
+        assertThrows(PaymentGatewayUnavailableException.class, () -> gateway.retrievePaymentIntent("pi_1"));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_000);
+        assertEquals(1, registry.get("payments.gateway.call").tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    void retrieve_ShouldRefuseWhenBulkheadIsFull() throws Exception {
+        gateway = gateway(1, 1, Duration.ofSeconds(5), 1, 5);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(delegate.retrievePaymentIntent(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return INTENT;
+        });
+        CompletableFuture<PaymentIntentDetails> running =
+                CompletableFuture.supplyAsync(() -> gateway.retrievePaymentIntent("pi_1"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<PaymentIntentDetails> queued =
+                CompletableFuture.supplyAsync(() -> gateway.retrievePaymentIntent("pi_1"));
+        waitForQueued();
+
+        assertThrows(PaymentGatewayUnavailableException.class, () -> gateway.retrievePaymentIntent("pi_1"));
+
+        release.countDown();
+        assertEquals("pi_1", running.get(5, TimeUnit.SECONDS).getId());
+        assertEquals("pi_1", queued.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(CircuitBreaker.State.CLOSED, currentCircuitState());
+    }
+
+    @Test
+    void retrieve_ShouldOpenCircuitAfterRepeatedFailures() {
+        gateway = gateway(2, 2, Duration.ofSeconds(5), 1, 2);
+        when(delegate.retrievePaymentIntent(anyString())).thenThrow(retryable());
+
+        assertThrows(PaymentGatewayException.class, () -> gateway.retrievePaymentIntent("pi_1"));
+        assertThrows(PaymentGatewayException.class, () -> gateway.retrievePaymentIntent("pi_1"));
+        assertThrows(PaymentGatewayUnavailableException.class, () -> gateway.retrievePaymentIntent("pi_1"));
+
+        verify(delegate, times(2)).retrievePaymentIntent("pi_1");
+        assertEquals(CircuitBreaker.State.OPEN, currentCircuitState());
+        assertEquals(1, registry.get("payments.gateway.call").tag("outcome", "circuit_open").timer().count());
+    }
+
+    @Test
+    void fakeGateway_ShouldHonourIdempotencyKeysAndReportConfiguredStatus() {
+        gateway = new ResilientPaymentGateway(new FakePaymentGateway(Duration.ZERO, "succeeded"), 2, 2,
+                Duration.ofSeconds(5), 1, Duration.ofMillis(1), new CircuitBreaker(5, Duration.ofSeconds(30)),
+                registry, new CheckoutTracing(Tracer.NOOP));
+
+        PaymentIntentDetails first = gateway.createPaymentIntent(100L, "ron", 3L, "order-3-100-ron");
+        PaymentIntentDetails again = gateway.createPaymentIntent(100L, "ron", 3L, "order-3-100-ron");
+        PaymentIntentDetails other = gateway.createPaymentIntent(100L, "ron", 4L, "order-4-100-ron");
+
+        assertEquals(first.getId(), again.getId());
+        assertNotEquals(first.getId(), other.getId());
+        assertEquals("requires_payment_method", first.getStatus());
+        assertEquals("succeeded", gateway.retrievePaymentIntent(first.getId()).getStatus());
+        assertEquals("3", gateway.retrievePaymentIntent(first.getId()).getOrderId());
+        assertFalse(assertThrows(PaymentGatewayException.class,
+                () -> gateway.retrievePaymentIntent("pi_unknown")).isRetryable());
+    }
+
+    private ResilientPaymentGateway gateway(int threads, int queueCapacity, Duration deadline, int maxAttempts,
+                                            int failureThreshold) {
+        return new ResilientPaymentGateway(delegate, threads, queueCapacity, deadline, maxAttempts,
+                Duration.ofMillis(1), new CircuitBreaker(failureThreshold, Duration.ofSeconds(30)), registry,
+                new CheckoutTracing(Tracer.NOOP));
+    }
+
+    private CircuitBreaker.State currentCircuitState() {
+        return CircuitBreaker.State.values()[(int) registry.get("payments.gateway.circuit.state").gauge().value()];
+    }
+
+    private void waitForQueued() throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("payments.gateway.bulkhead.queue").gauge().value() < 1 && System.nanoTime() < until) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static PaymentGatewayException retryable() {
+        return new PaymentGatewayException("Stripe retrieve failed: connection reset", true, null);
+    }
+}
@@ -0,0 +1,285 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.EmailType;
+import com.backend.sudexpert.domain.Order;
+import com.backend.sudexpert.domain.OrderStatus;
+import com.backend.sudexpert.domain.StripeWebhookEvent;
+import com.backend.sudexpert.domain.User;
+import com.backend.sudexpert.dto.PaymentIntentRequest;
+import com.backend.sudexpert.repository.OrderRepository;
+import com.backend.sudexpert.service.PaymentGateway.PaymentIntentDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripeServiceTest {
+
+    private static final String EMAIL = "ion@example.com";
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private StripeService stripeService;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        stripeService = new StripeService(orderRepository, paymentGateway, emailOutboxService,
+                stockReservationService, new OrderMetrics(registry), new CheckoutTracing(Tracer.NOOP), transactionManager);
+        order = Order.builder()
+                .id(7L)
+                .orderCode("ORD-20250314-0007")
+                .user(User.builder().email(EMAIL).build())
+                .status(OrderStatus.PENDING)
+                .total(new BigDecimal("62.50"))
+                .stockReserved(true)
+                .build();
+    }
+
+    @Test
+    void handlePaymentSuccess_WhenWebhookRecordedSuccess_ShouldConfirmWithoutStripe() {
+        recordState("pi_1", "succeeded", LocalDateTime.now().minusHours(2));
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        when(orderRepository.markProcessingIf(7L, OrderStatus.PENDING)).thenReturn(1);
+
+        stripeService.handlePaymentSuccess("pi_1", EMAIL);
+
+        verify(orderRepository).markProcessingIf(7L, OrderStatus.PENDING);
+        verify(emailOutboxService).enqueue(EmailType.ORDER_CONFIRMATION, 7L);
+        verifyNoInteractions(paymentGateway, stockReservationService);
+        assertEquals(1, registry.get("orders.status.transitions")
+                .tag("from", "PENDING").tag("to", "PROCESSING").counter().count());
+    }
+
+    @Test
+    void applyWebhookEvent_WhenSucceededEventReplayedForShippedOrder_ShouldNotConfirmAgain() {
+        order.setStatus(OrderStatus.SHIPPED);
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+        stripeService.applyWebhookEvent(StripeWebhookEvent.builder()
+                .type("payment_intent.succeeded")
+                .orderId(7L)
+                .paymentIntentId("pi_1")
+                .paymentStatus("succeeded")
+                .build());
+
+        verify(orderRepository).markProcessingIf(7L, OrderStatus.PENDING);
+        verify(orderRepository).markProcessingIf(7L, OrderStatus.CANCELLED);
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(emailOutboxService, stockReservationService);
+    }
+
+    @Test
+    void handlePaymentSuccess_WhenOrderExpiredBeforePayment_ShouldReserveStockAgain() {
+        order.setStatus(OrderStatus.CANCELLED);
+        order.setStockReserved(false);
+        recordState("pi_1", "succeeded", LocalDateTime.now());
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        when(orderRepository.markProcessingIf(7L, OrderStatus.PENDING)).thenReturn(0);
+        when(orderRepository.markProcessingIf(7L, OrderStatus.CANCELLED)).thenReturn(1);
+
+        stripeService.handlePaymentSuccess("pi_1", EMAIL);
+
+        verify(stockReservationService).reserve(order);
+        assertEquals(1, registry.get("orders.status.transitions")
+                .tag("from", "CANCELLED").tag("to", "PROCESSING").counter().count());
+    }
+
+    @Test
+    void applyWebhookEvent_WhenOrderCancelledAfterItWasRead_ShouldReserveStockAgain() {
+        Order cancelled = Order.builder().id(7L).status(OrderStatus.CANCELLED).stockReserved(false).build();
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order), Optional.of(cancelled));
+        when(orderRepository.markProcessingIf(7L, OrderStatus.PENDING)).thenReturn(0);
+        when(orderRepository.markProcessingIf(7L, OrderStatus.CANCELLED)).thenReturn(1);
+
+        stripeService.applyWebhookEvent(StripeWebhookEvent.builder()
+                .type("payment_intent.succeeded")
+                .orderId(7L)
+                .build());
+
+        verify(stockReservationService).reserve(cancelled);
+        verify(orderRepository, never()).save(any());
+        assertEquals(1, registry.get("orders.status.transitions")
+                .tag("from", "CANCELLED").tag("to", "PROCESSING").counter().count());
+    }
+
+    @Test
+    void handlePaymentSuccess_WhenExpiredOrderStockIsGone_ShouldLeaveOrderCancelled() {
+        order.setStatus(OrderStatus.CANCELLED);
+        order.setStockReserved(false);
+        recordState("pi_1", "succeeded", LocalDateTime.now());
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        when(orderRepository.markProcessingIf(7L, OrderStatus.PENDING)).thenReturn(0);
+        when(orderRepository.markProcessingIf(7L, OrderStatus.CANCELLED)).thenReturn(1);
+        doThrow(new InsufficientStockException("Insufficient stock for products [3]"))
+                .when(stockReservationService).reserve(order);
+
+        assertThrows(InsufficientStockException.class, () -> stripeService.handlePaymentSuccess("pi_1", EMAIL));
+
+        verifyNoInteractions(emailOutboxService);
+    }
+
+    @Test
+    void handlePaymentSuccess_WhenLocalStateNotSucceeded_ShouldAskStripeAndRecordAnswer() {
+        recordState("pi_1", "processing", LocalDateTime.now());
+        when(paymentGateway.retrievePaymentIntent("pi_1"))
+                .thenReturn(new PaymentIntentDetails("pi_1", "secret", "succeeded", "7"));
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        when(orderRepository.markProcessingIf(7L, OrderStatus.PENDING)).thenReturn(1);
+
+        stripeService.handlePaymentSuccess("pi_1", EMAIL);
+
+        verify(orderRepository).markProcessingIf(7L, OrderStatus.PENDING);
+        verify(orderRepository).updatePaymentState(eq(7L), eq("pi_1"), eq("succeeded"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void handlePaymentSuccess_WhenNoLocalState_ShouldAskStripe() {
+        when(orderRepository.findByPaymentIntentId("pi_1")).thenReturn(Optional.empty());
+        when(paymentGateway.retrievePaymentIntent("pi_1"))
+                .thenReturn(new PaymentIntentDetails("pi_1", "secret", "requires_payment_method", "7"));
+
+        assertThrows(IllegalArgumentException.class, () -> stripeService.handlePaymentSuccess("pi_1", EMAIL));
+
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+        verify(orderRepository).updatePaymentState(eq(7L), eq("pi_1"), eq("requires_payment_method"), any());
+        verifyNoInteractions(emailOutboxService);
+    }
+
+    @Test
+    void handlePaymentSuccess_WhenLocalStateBelongsToAnotherUser_ShouldReject() {
+        recordState("pi_1", "succeeded", LocalDateTime.now());
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> stripeService.handlePaymentSuccess("pi_1", "someone@example.com"));
+
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+        verifyNoInteractions(paymentGateway, emailOutboxService);
+    }
+
+    @Test
+    void handlePaymentFailure_WhenCanceledStateRecorded_ShouldCancelWithoutStripe() {
+        recordState("pi_1", "canceled", LocalDateTime.now().minusMinutes(5));
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        when(orderRepository.cancelIfPending(7L)).thenReturn(1);
+
+        stripeService.handlePaymentFailure("pi_1", EMAIL);
+
+        verify(stockReservationService).release(7L);
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(paymentGateway);
+    }
+
+    @Test
+    void handlePaymentFailure_WhenRecordedStateIsNotFinal_ShouldAskStripe() {
+        recordState("pi_1", "requires_payment_method", LocalDateTime.now().minusMinutes(5));
+        when(paymentGateway.retrievePaymentIntent("pi_1"))
+                .thenReturn(new PaymentIntentDetails("pi_1", "secret", "succeeded", "7"));
+
+        assertThrows(IllegalArgumentException.class, () -> stripeService.handlePaymentFailure("pi_1", EMAIL));
+
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void handlePaymentFailure_RightAfterIntentCreated_ShouldAskStripe() {
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        when(paymentGateway.createPaymentIntent(6250L, "ron", 7L, "order-7-6250-ron"))
+                .thenReturn(new PaymentIntentDetails("pi_1", "pi_1_secret", "requires_payment_method", "7"));
+        stripeService.createPaymentIntent(PaymentIntentRequest.builder().orderId(7L).build(), EMAIL);
+        recordState("pi_1", "requires_payment_method", LocalDateTime.now());
+        when(paymentGateway.retrievePaymentIntent("pi_1"))
+                .thenReturn(new PaymentIntentDetails("pi_1", "pi_1_secret", "succeeded", "7"));
+
+        assertThrows(IllegalArgumentException.class, () -> stripeService.handlePaymentFailure("pi_1", EMAIL));
+
+        verify(paymentGateway).retrievePaymentIntent("pi_1");
+        verify(orderRepository, never()).cancelIfPending(anyLong());
+        verifyNoInteractions(stockReservationService);
+    }
+
+    @Test
+    void createPaymentIntent_ShouldRecordIntentOnOrder() {
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        when(paymentGateway.createPaymentIntent(6250L, "ron", 7L, "order-7-6250-ron"))
+                .thenReturn(new PaymentIntentDetails("pi_1", "pi_1_secret", "requires_payment_method", "7"));
+
+        stripeService.createPaymentIntent(PaymentIntentRequest.builder().orderId(7L).build(), EMAIL);
+
+        verify(orderRepository).updatePaymentState(eq(7L), eq("pi_1"), eq("requires_payment_method"), any());
+    }
+
+    @Test
+    void applyWebhookEvent_ShouldRecordPaymentStateForAnyIntentEvent() {
+        stripeService.applyWebhookEvent(StripeWebhookEvent.builder()
+                .type("payment_intent.processing")
+                .orderId(7L)
+                .paymentIntentId("pi_1")
+                .paymentStatus("processing")
+                .build());
+
+        verify(orderRepository).updatePaymentState(eq(7L), eq("pi_1"), eq("processing"), any());
+        verify(orderRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void applyWebhookEvent_WhenPaymentFailedOnProcessingOrder_ShouldKeepOrderAndStock() {
+        order.setStatus(OrderStatus.PROCESSING);
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        when(orderRepository.cancelIfPending(7L)).thenReturn(0);
+
+        stripeService.applyWebhookEvent(StripeWebhookEvent.builder()
+                .type("payment_intent.payment_failed")
+                .orderId(7L)
+                .paymentIntentId("pi_1")
+                .paymentStatus("requires_payment_method")
+                .build());
+
+        assertEquals(OrderStatus.PROCESSING, order.getStatus());
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(stockReservationService);
+        assertNull(registry.find("orders.status.transitions").tag("to", "CANCELLED").counter());
+    }
+
+    private void recordState(String paymentIntentId, String status, LocalDateTime updatedAt) {
+        Order known = Order.builder()
+                .id(7L)
+                .user(order.getUser())
+                .paymentIntentId(paymentIntentId)
+                .paymentStatus(status)
+                .paymentStatusUpdatedAt(updatedAt)
+                .build();
+        when(orderRepository.findByPaymentIntentId(anyString())).thenReturn(Optional.of(known));
+    }
+}
@@ -0,0 +1,95 @@
+package com.backend.sudexpert.service;
+
+import com.backend.sudexpert.domain.StripeWebhookEvent;
+import com.backend.sudexpert.domain.WebhookEventStatus;
+import com.backend.sudexpert.repository.StripeWebhookEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripeWebhookDispatcherTest {
+
+    @Mock
+    private StripeWebhookEventRepository repository;
+
+    @Mock
+    private StripeService stripeService;
+
+    private StripeWebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new StripeWebhookDispatcher(repository, stripeService, new CheckoutTracing(Tracer.NOOP),
+                new SimpleMeterRegistry(),
+                1, 10, 3, Duration.ofMinutes(2), Duration.ofSeconds(5), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void apply_WhenEventApplies_ShouldMarkProcessed() {
+        StripeWebhookEvent event = event(1);
+        when(repository.findById(1L)).thenReturn(Optional.of(event));
+
+        dispatcher.apply(1L);
+
+        verify(stripeService).applyWebhookEvent(event);
+        verify(repository).markDone(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void apply_WhenEventFails_ShouldRescheduleWithBackoff() {
+        when(repository.findById(1L)).thenReturn(Optional.of(event(2)));
+        doThrow(new IllegalStateException("DB down")).when(stripeService).applyWebhookEvent(any());
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.apply(1L);
+
+        verify(repository).reschedule(eq(1L),
+                argThat(next -> !next.isBefore(before.plusSeconds(10)) && next.isBefore(before.plusSeconds(15))),
+                eq("IllegalStateException: DB down"));
+        verify(repository, never()).markDone(any(), any());
+    }
+
+    @Test
+    void apply_WhenLastAttemptFails_ShouldMarkFailed() {
+        when(repository.findById(1L)).thenReturn(Optional.of(event(3)));
+        doThrow(new IllegalStateException("DB down")).when(stripeService).applyWebhookEvent(any());
+
+        dispatcher.apply(1L);
+
+        verify(repository).markGivenUp(1L, "IllegalStateException: DB down");
+        verify(repository, never()).reschedule(any(), any(), any());
+    }
+
+    private static StripeWebhookEvent event(int attempts) {
+        return StripeWebhookEvent.builder()
+                .id(1L)
+                .eventId("evt_1")
+                .type("payment_intent.succeeded")
+                .orderId(7L)
+                .payload("{}")
+                .status(WebhookEventStatus.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
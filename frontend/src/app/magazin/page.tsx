@@ -1,6 +1,6 @@
 "use client";
 
-import { useEffect, useState, useMemo } from "react";
+import { useEffect, useState } from "react";
 import { api } from "@/lib/api";
 import ProductCard from "@/components/ui/ProductCard";
 import ShopSidebar from "@/components/ui/ShopSidebar";
@@ -25,6 +25,8 @@ type Product = {
 
 type SortOption = "default" | "price-asc" | "price-desc" | "name-asc" | "name-desc" | "newest";
 
+const PAGE_SIZE = 24;
+
 export default function Magazin() {
   const [products, setProducts] = useState<Product[]>([]);
   const [categories, setCategories] = useState<Category[]>([]);
@@ -39,77 +41,72 @@ export default function Magazin() {
   const [stockFilter, setStockFilter] = useState<"all" | "in-stock" | "low-stock">("all");
   const [sidebarOpen, setSidebarOpen] = useState(false);
 
+  const [total, setTotal] = useState(0);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [debouncedQuery, setDebouncedQuery] = useState("");
+
   useEffect(() => {
-    const fetchData = async () => {
+    api.categories.getAll()
+      .then((data) => setCategories(data as Category[]))
+      .catch((err: unknown) => console.error(err));
+  }, []);
+
+  useEffect(() => {
+    const timeout = setTimeout(() => setDebouncedQuery(searchQuery.trim()), 300);
+    return () => clearTimeout(timeout);
+  }, [searchQuery]);
+
+  const searchParams = {
+    q: debouncedQuery,
+    categoryId: selectedCategory,
+    minPrice: priceRange?.[0],
+    maxPrice: priceRange?.[1],
+    stock: stockFilter,
+    sort: sortBy,
+    size: PAGE_SIZE,
+  };
+
+  useEffect(() => {
+    let cancelled = false;
+    const fetchFirstPage = async () => {
       try {
-        const [productsData, categoriesData] = await Promise.all([
-          api.products.getAll(),
-          api.categories.getAll()
-        ]);
-        setProducts(productsData as Product[]);
-        setCategories(categoriesData as Category[]);
+        const page = await api.products.search<Product>(searchParams);
+        if (cancelled) return;
+        setProducts(page.items);
+        setTotal(page.total);
+        setNextCursor(page.nextCursor);
+        setError("");
       } catch (err: unknown) {
+        if (cancelled) return;
         setError("Nu s-au putut încărca produsele.");
         console.error(err);
       } finally {
-        setLoading(false);
+        if (!cancelled) setLoading(false);
       }
     };
 
-    fetchData();
-  }, []);
-
-  const filteredProducts = useMemo(() => {
-    let result = [...products];
-
-    if (searchQuery.trim()) {
-      const query = searchQuery.toLowerCase();
-      result = result.filter(
-        (p) =>
-          p.name.toLowerCase().includes(query) ||
-          p.description.toLowerCase().includes(query)
-      );
-    }
-
-    if (selectedCategory !== null) {
-      result = result.filter((p) => p.category?.id === selectedCategory);
-    }
-
-    if (priceRange !== null) {
-      result = result.filter((p) => p.price >= priceRange[0] && p.price <= priceRange[1]);
-    }
-
-    if (stockFilter === "in-stock") {
-      result = result.filter((p) => p.stock && p.stock > 5);
-    } else if (stockFilter === "low-stock") {
-      result = result.filter((p) => p.stock && p.stock > 0 && p.stock <= 5);
-    }
+    fetchFirstPage();
+    return () => {
+      cancelled = true;
+    };
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [debouncedQuery, selectedCategory, priceRange, stockFilter, sortBy]);
 
-    switch (sortBy) {
-      case "price-asc":
-        result.sort((a, b) => a.price - b.price);
-        break;
-      case "price-desc":
-        result.sort((a, b) => b.price - a.price);
-        break;
-      case "name-asc":
-        result.sort((a, b) => a.name.localeCompare(b.name));
-        break;
-      case "name-desc":
-        result.sort((a, b) => b.name.localeCompare(a.name));
-        break;
-      case "newest":
-        result.sort((a, b) => {
-          if (!a.createdAt || !b.createdAt) return 0;
-          return new Date(b.createdAt).getTime() - new Date(a.createdAt).getTime();
-        });
-        break;
-      default:
-        break;
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const page = await api.products.search<Product>({ ...searchParams, cursor: nextCursor });
+      setProducts((current) => [...current, ...page.items]);
+      setTotal(page.total);
+      setNextCursor(page.nextCursor);
+    } catch (err: unknown) {
+      console.error(err);
+    } finally {
+      setLoadingMore(false);
     }
-
-    return result;
-  }, [products, searchQuery, selectedCategory, priceRange, stockFilter, sortBy]);
+  };
 
   const clearFilters = () => {
     setSearchQuery("");
@@ -309,19 +306,19 @@ export default function Magazin() {
               className="mb-6 flex items-center justify-between"
             >
               <p className="text-slate-500">
-                {filteredProducts.length === 0 ? (
+                {total === 0 ? (
                   "Nu s-au găsit produse"
                 ) : (
                   <>
-                    <span className="text-slate-800 font-semibold">{filteredProducts.length}</span>
-                    {filteredProducts.length === 1 ? " produs" : " produse"}
+                    <span className="text-slate-800 font-semibold">{total}</span>
+                    {total === 1 ? " produs" : " produse"}
                     {hasActiveFilters && " găsite"}
                   </>
                 )}
               </p>
             </motion.div>
 
-            {filteredProducts.length === 0 ? (
+            {products.length === 0 ? (
               <motion.div
                 initial={{ opacity: 0, y: 20 }}
                 animate={{ opacity: 1, y: 0 }}
@@ -352,12 +349,12 @@ export default function Magazin() {
                 transition={{ delay: 0.4 }}
                 className="grid grid-cols-2 gap-3 sm:gap-4"
               >
-                {filteredProducts.map((product, index) => (
+                {products.map((product, index) => (
                   <motion.div
                     key={product.id}
                     initial={{ opacity: 0, y: 20 }}
                     animate={{ opacity: 1, y: 0 }}
-                    transition={{ delay: index * 0.05 }}
+                    transition={{ delay: (index % PAGE_SIZE) * 0.05 }}
                     className="h-full"
                   >
                     <ProductCard product={product} size="compact" />
@@ -371,18 +368,32 @@ export default function Magazin() {
                 transition={{ delay: 0.4 }}
                 className="flex flex-col gap-4"
               >
-                {filteredProducts.map((product, index) => (
+                {products.map((product, index) => (
                   <motion.div
                     key={product.id}
                     initial={{ opacity: 0, x: -20 }}
                     animate={{ opacity: 1, x: 0 }}
-                    transition={{ delay: index * 0.05 }}
+                    transition={{ delay: (index % PAGE_SIZE) * 0.05 }}
                   >
                     <ProductCard product={product} viewMode="list" />
                   </motion.div>
                 ))}
               </motion.div>
             )}
+
+            {nextCursor && (
+              <div className="mt-8 flex justify-center">
+                <motion.button
+                  whileHover={{ scale: 1.02 }}
+                  whileTap={{ scale: 0.98 }}
+                  onClick={loadMore}
+                  disabled={loadingMore}
+                  className="px-6 py-3 bg-white border border-slate-200 text-slate-700 font-medium rounded-xl shadow-sm hover:bg-slate-50 transition-all disabled:opacity-60 min-h-[44px]"
+                >
+                  {loadingMore ? "Se încarcă..." : "Încarcă mai multe produse"}
+                </motion.button>
+              </div>
+            )}
           </div>
         </div>
       </div>
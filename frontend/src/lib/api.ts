@@ -77,6 +77,34 @@ interface AuthResponse {
   email: string;
 }
 
+export interface ProductSearchParams {
+  q?: string;
+  categoryId?: number | null;
+  minPrice?: number;
+  maxPrice?: number;
+  stock?: string;
+  sort?: string;
+  cursor?: string | null;
+  size?: number;
+}
+
+export interface ProductSearchResponse<T> {
+  items: T[];
+  total: number;
+  nextCursor: string | null;
+}
+
+function toQueryString(params: ProductSearchParams): string {
+  const query = new URLSearchParams();
+  Object.entries(params).forEach(([key, value]) => {
+    if (value !== undefined && value !== null && value !== "") {
+      query.append(key, String(value));
+    }
+  });
+  const result = query.toString();
+  return result ? `?${result}` : "";
+}
+
 export const api = {
   auth: {
     register: (data: { firstName: string; lastName: string; email: string; password: string }) =>
@@ -90,13 +118,16 @@ export const api = {
     getAll: () => request("/products"),
     getById: (id: string) => request(`/products/${id}`),
     getByCategory: (categoryId: string) => request(`/products/category/${categoryId}`),
+    search: <T,>(params: ProductSearchParams) =>
+      request<ProductSearchResponse<T>>(`/products/search${toQueryString(params)}`),
   },
   categories: {
     getAll: () => request("/categories"),
   },
   orders: {
     create: (data: unknown) => request("/orders", "POST", data),
-    getMyOrders: () => request("/orders", "GET"),
+    getMyOrders: (cursor?: string | null) =>
+      request(`/orders${cursor ? `?cursor=${encodeURIComponent(cursor)}` : ""}`, "GET"),
     getById: (id: number) => request(`/orders/${id}`, "GET"),
     getByCode: (orderCode: string) => request(`/orders/code/${orderCode}`, "GET"),
   },